@@ -0,0 +1,11 @@
+package com.deepknow.goodface.interview.api;
+
+import com.deepknow.goodface.interview.api.model.TranscriptPage;
+import com.deepknow.goodface.interview.api.request.TranscriptPageRequest;
+
+/**
+ * 会话转写（interview_message）查询：按消息 ID 游标分页，单页条数有上限，全量导出请逐页拉取。
+ */
+public interface TranscriptQueryService {
+    TranscriptPage listMessages(TranscriptPageRequest req);
+}
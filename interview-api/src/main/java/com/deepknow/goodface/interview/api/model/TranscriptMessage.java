@@ -0,0 +1,21 @@
+package com.deepknow.goodface.interview.api.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+public class TranscriptMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String role; // user | assistant
+    private String content;
+    private LocalDateTime createdAt;
+
+    public void setId(Long id) { this.id = id; }
+    public void setRole(String role) { this.role = role; }
+    public void setContent(String content) { this.content = content; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,22 @@
+package com.deepknow.goodface.interview.api.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class TranscriptPage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String sessionId;
+    private List<TranscriptMessage> messages;
+    /** 下一页请求的 afterId（本页最后一条消息 ID）；hasMore 为 false 时无需再取 */
+    private Long nextAfterId;
+    private boolean hasMore;
+
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    public void setMessages(List<TranscriptMessage> messages) { this.messages = messages; }
+    public void setNextAfterId(Long nextAfterId) { this.nextAfterId = nextAfterId; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
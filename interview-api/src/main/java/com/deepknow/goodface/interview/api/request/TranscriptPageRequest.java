@@ -0,0 +1,23 @@
+package com.deepknow.goodface.interview.api.request;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+public class TranscriptPageRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private String sessionId;
+    /** 上一页的 nextAfterId；为空从头开始 */
+    private Long afterId;
+    /** 默认 DEFAULT_PAGE_SIZE，超过 MAX_PAGE_SIZE 按上限截断 */
+    private Integer pageSize;
+
+    public String getSessionId() { return sessionId; }
+    public Long getAfterId() { return afterId; }
+    public Integer getPageSize() { return pageSize; }
+}
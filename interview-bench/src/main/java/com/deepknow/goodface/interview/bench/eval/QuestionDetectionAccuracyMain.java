@@ -0,0 +1,91 @@
+package com.deepknow.goodface.interview.bench.eval;
+
+import com.deepknow.goodface.interview.domain.agent.strategy.RuleBasedQuestionClassifier;
+import com.deepknow.goodface.interview.domain.agent.strategy.RuleBasedQuestionClassifier.Label;
+import com.deepknow.goodface.interview.domain.agent.strategy.RuleBasedQuestionClassifier.Verdict;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地问题检测黄金集评测：统计规则分类器的直判比例（跳过 LLM 的比例）与直判准确率，并打印误判样本。
+ * 黄金集与 interview-infra 的 {@code QuestionDetectionGoldenSetTest} 共用，该测试在 {@code mvn test} 中校验准确率与召回率下限。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *   <li>golden.file：黄金集路径，默认使用 interview-infra/src/test/resources/golden/question-detection.tsv（从仓库根目录或本模块目录运行均可）</li>
+ *   <li>golden.questionThreshold / golden.nonQuestionThreshold：与 detector.* 配置一致，默认 0.8 / 0.15</li>
+ *   <li>golden.minPrecision：直判准确率下限，默认 0.95；golden.maxMissedQuestions：问题被误判为非问题的上限，默认 0</li>
+ * </ul>
+ * 未达标时以退出码 1 结束，可直接接入 CI。
+ */
+public class QuestionDetectionAccuracyMain {
+    private static final String[] DEFAULT_GOLDEN_FILES = {
+            "interview-infra/src/test/resources/golden/question-detection.tsv",
+            "../interview-infra/src/test/resources/golden/question-detection.tsv"
+    };
+
+    public static void main(String[] args) throws Exception {
+        double qThreshold = Double.parseDouble(System.getProperty("golden.questionThreshold", "0.8"));
+        double nqThreshold = Double.parseDouble(System.getProperty("golden.nonQuestionThreshold", "0.15"));
+        double minPrecision = Double.parseDouble(System.getProperty("golden.minPrecision", "0.95"));
+        int maxMissed = Integer.getInteger("golden.maxMissedQuestions", 0);
+
+        List<String[]> samples = load(System.getProperty("golden.file"));
+        RuleBasedQuestionClassifier classifier = new RuleBasedQuestionClassifier(qThreshold, nqThreshold);
+
+        int decided = 0, correct = 0, missedQuestions = 0, falseQuestions = 0;
+        int qTotal = 0, qDirect = 0, nTotal = 0, nSkipped = 0;
+        for (String[] s : samples) {
+            boolean isQuestion = "Q".equals(s[0]);
+            Verdict v = classifier.classify(s[1]);
+            if (isQuestion) qTotal++; else nTotal++;
+            if (v.label == Label.UNSURE) continue;
+            decided++;
+            boolean predictedQuestion = v.label == Label.QUESTION;
+            if (predictedQuestion == isQuestion) {
+                correct++;
+                if (isQuestion) qDirect++; else nSkipped++;
+            } else if (isQuestion) {
+                missedQuestions++;
+                System.out.println("MISSED   " + v + "  " + s[1]);
+            } else {
+                falseQuestions++;
+                System.out.println("FALSE_Q  " + v + "  " + s[1]);
+            }
+        }
+        double coverage = samples.isEmpty() ? 0 : (double) decided / samples.size();
+        double precision = decided == 0 ? 1.0 : (double) correct / decided;
+        System.out.println(String.format("samples=%d decided=%d coverage=%.3f precision=%.3f", samples.size(), decided, coverage, precision));
+        System.out.println(String.format("questions: total=%d direct=%d missed=%d | non-questions: total=%d skipped=%d falseQuestion=%d",
+                qTotal, qDirect, missedQuestions, nTotal, nSkipped, falseQuestions));
+        boolean pass = precision >= minPrecision && missedQuestions <= maxMissed;
+        System.out.println(pass ? "PASS" : "FAIL");
+        System.exit(pass ? 0 : 1);
+    }
+
+    private static List<String[]> load(String file) throws Exception {
+        Path path = file != null && !file.isEmpty() ? Paths.get(file) : defaultGoldenFile();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        List<String[]> out = new ArrayList<>();
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\t", 2);
+            if (parts.length == 2 && ("Q".equals(parts[0]) || "N".equals(parts[0]))) out.add(parts);
+        }
+        return out;
+    }
+
+    private static Path defaultGoldenFile() {
+        for (String candidate : DEFAULT_GOLDEN_FILES) {
+            Path p = Paths.get(candidate);
+            if (Files.isRegularFile(p)) return p;
+        }
+        throw new IllegalStateException("golden set not found, set -Dgolden.file");
+    }
+}
@@ -0,0 +1,58 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import com.deepknow.goodface.interview.api.SessionCreateService;
+import com.deepknow.goodface.interview.api.request.CreateSessionRequest;
+import com.deepknow.goodface.interview.api.request.EndSessionRequest;
+import org.apache.dubbo.config.ApplicationConfig;
+import org.apache.dubbo.config.ReferenceConfig;
+import org.apache.dubbo.config.RegistryConfig;
+import org.apache.dubbo.config.bootstrap.DubboBootstrap;
+
+import java.util.Map;
+
+/**
+ * 通过 Dubbo 调用 SessionCreateService 创建会话，与线上调用方路径一致。
+ * directUrl（如 dubbo://127.0.0.1:20882）优先；否则使用注册中心地址。
+ */
+public class DubboSessionProvisioner implements SessionProvisioner {
+    private final DubboBootstrap bootstrap;
+    private final SessionCreateService service;
+
+    public DubboSessionProvisioner(String directUrl, String registryAddress) {
+        ReferenceConfig<SessionCreateService> ref = new ReferenceConfig<>();
+        ref.setInterface(SessionCreateService.class);
+        ref.setCheck(false);
+        ref.setTimeout(5000);
+        if (directUrl != null && !directUrl.isEmpty()) {
+            ref.setUrl(directUrl);
+        }
+        this.bootstrap = DubboBootstrap.newInstance();
+        bootstrap.application(new ApplicationConfig("goodface-interview-loadgen"));
+        if (registryAddress != null && !registryAddress.isEmpty()) {
+            bootstrap.registry(new RegistryConfig(registryAddress));
+        }
+        bootstrap.reference(ref).start();
+        this.service = ref.get();
+    }
+
+    @Override
+    public void create(String sessionId, String userId, Map<String, Object> config) {
+        CreateSessionRequest req = new CreateSessionRequest();
+        req.setSessionId(sessionId);
+        req.setUserId(userId);
+        req.setConfig(config);
+        service.createSession(req);
+    }
+
+    @Override
+    public void end(String sessionId) {
+        EndSessionRequest req = new EndSessionRequest();
+        req.setSessionId(sessionId);
+        service.endSession(req);
+    }
+
+    @Override
+    public void close() {
+        bootstrap.stop();
+    }
+}
@@ -0,0 +1,49 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 直接写 interview_session 表创建压测会话，适用于未部署 Dubbo 注册中心的环境。
+ */
+public class JdbcSessionProvisioner implements SessionProvisioner {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String url;
+    private final String username;
+    private final String password;
+
+    public JdbcSessionProvisioner(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public void create(String sessionId, String userId, Map<String, Object> config) throws Exception {
+        try (Connection c = DriverManager.getConnection(url, username, password);
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT INTO interview_session (id, user_id, status, start_time, end_time, config_json) VALUES (?, ?, 'ACTIVE', ?, NULL, ?)")) {
+            ps.setString(1, sessionId);
+            ps.setString(2, userId);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setString(4, config == null ? "{}" : mapper.writeValueAsString(config));
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void end(String sessionId) throws Exception {
+        try (Connection c = DriverManager.getConnection(url, username, password);
+             PreparedStatement ps = c.prepareStatement("UPDATE interview_session SET status = 'ENDED', end_time = ? WHERE id = ?")) {
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setString(2, sessionId);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个压测阶段的延迟与事件统计（HDR 直方图，毫秒精度）。
+ */
+public class LatencyStats {
+    private static final long MAX_TRACKABLE_MILLIS = 10 * 60 * 1000L;
+
+    // 问题卡片到达（相对说话结束提示点，需提供 cues）
+    final Histogram questionLatency = new ConcurrentHistogram(MAX_TRACKABLE_MILLIS, 3);
+    // 问题到达 -> 首个答案增量
+    final Histogram firstAnswerDelta = new ConcurrentHistogram(MAX_TRACKABLE_MILLIS, 3);
+    // 问题到达 -> [END]
+    final Histogram answerEnd = new ConcurrentHistogram(MAX_TRACKABLE_MILLIS, 3);
+    // 连接建立 -> stt_ready
+    final Histogram sttReady = new ConcurrentHistogram(MAX_TRACKABLE_MILLIS, 3);
+
+    final AtomicLong questions = new AtomicLong();
+    final AtomicLong answers = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final AtomicLong connectFailures = new AtomicLong();
+    final AtomicLong pongs = new AtomicLong();
+    // 已推流的问题提示点数与匹配到问题卡片的提示点数；差值为漏检
+    final AtomicLong cuesExpected = new AtomicLong();
+    final AtomicLong cuesMatched = new AtomicLong();
+
+    static void record(Histogram h, long millis) {
+        h.recordValue(Math.max(0, Math.min(MAX_TRACKABLE_MILLIS, millis)));
+    }
+
+    public long p95FirstAnswerDelta() { return firstAnswerDelta.getTotalCount() == 0 ? 0 : firstAnswerDelta.getValueAtPercentile(95.0); }
+    public long p95QuestionLatency() { return questionLatency.getTotalCount() == 0 ? 0 : questionLatency.getValueAtPercentile(95.0); }
+
+    public long missedCues() { return Math.max(0, cuesExpected.get() - cuesMatched.get()); }
+
+    /**
+     * 漏检的提示点按无穷大延迟计入的 p95：漏检超过 5% 时返回 Long.MAX_VALUE；没有任何提示点时返回 0。
+     */
+    public long p95QuestionLatencyWithMisses() {
+        long matched = questionLatency.getTotalCount();
+        long total = matched + missedCues();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * 0.95);
+        if (rank > matched) return Long.MAX_VALUE;
+        return questionLatency.getValueAtPercentile(100.0 * rank / matched);
+    }
+
+    public void print(PrintStream out, String stage) {
+        out.println("== stage " + stage + " questions=" + questions.get() + " answers=" + answers.get()
+                + " errors=" + errors.get() + " connectFailures=" + connectFailures.get() + " pongs=" + pongs.get()
+                + " cues=" + cuesExpected.get() + " missedCues=" + missedCues());
+        line(out, "question_latency_ms", questionLatency);
+        line(out, "first_answer_delta_ms", firstAnswerDelta);
+        line(out, "answer_end_ms", answerEnd);
+        line(out, "stt_ready_ms", sttReady);
+    }
+
+    private static void line(PrintStream out, String name, Histogram h) {
+        if (h.getTotalCount() == 0) {
+            out.println(String.format("  %-22s n=0", name));
+            return;
+        }
+        out.println(String.format("  %-22s n=%d p50=%d p90=%d p95=%d p99=%d p99.9=%d max=%d",
+                name, h.getTotalCount(),
+                h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(95),
+                h.getValueAtPercentile(99), h.getValueAtPercentile(99.9), h.getMaxValue()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 无界面压测工具：按阶段模拟 N 个并发面试候选人，输出 HDR 分位报告与 SLO 不被突破时的最大会话数。
+ * <p>
+ * 主要参数（系统属性）：
+ * <ul>
+ *   <li>load.wsUrl：WebSocket 地址，默认 ws://127.0.0.1:8003/audio/stream</li>
+ *   <li>load.wav：16bit 单声道 PCM WAV 文件</li>
+ *   <li>load.stages：并发阶段，如 5,10,20,40（逐级加压，突破 SLO 即停止）</li>
+ *   <li>load.speed / load.chunkMillis / load.loops / load.heartbeatMillis：推流速率、分片、循环次数、心跳间隔</li>
+ *   <li>load.cues：音频中每个问题说完的时间点（毫秒，逗号分隔），用于计算问题卡片延迟</li>
+ *   <li>load.sloFirstDeltaP95Millis / load.sloQuestionP95Millis / load.sloErrorRate：SLO 阈值</li>
+ *   <li>样本不足视为突破：提供 cues 时问题数少于 cues × loops × 并发数，或首个答案增量数少于问题数；
+ *       未出卡的提示点按无穷大延迟计入问题延迟 p95</li>
+ *   <li>load.provisioner：dubbo | jdbc | none（会话已存在时用 none，配合 load.sessionIds）</li>
+ *   <li>load.dubboUrl / load.registry；load.jdbcUrl / load.jdbcUser / load.jdbcPassword</li>
+ *   <li>load.sessionConfig：创建会话时的 config JSON</li>
+ * </ul>
+ */
+public class LoadGeneratorMain {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String wsUrl = System.getProperty("load.wsUrl", "ws://127.0.0.1:8003/audio/stream");
+        String wav = System.getProperty("load.wav");
+        if (wav == null || wav.isEmpty()) {
+            System.err.println("load.wav is required");
+            System.exit(2);
+        }
+        WavPcm audio = WavPcm.read(Paths.get(wav));
+        int[] stages = Arrays.stream(System.getProperty("load.stages", "1,5,10,20").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).mapToInt(Integer::parseInt).toArray();
+        double speed = Double.parseDouble(System.getProperty("load.speed", "1.0"));
+        int chunkMillis = Integer.getInteger("load.chunkMillis", 100);
+        int loops = Integer.getInteger("load.loops", 1);
+        long heartbeatMillis = Long.getLong("load.heartbeatMillis", 15000);
+        long drainMillis = Long.getLong("load.drainMillis", 15000);
+        long[] cues = parseCues(System.getProperty("load.cues", ""));
+        long sloFirstDelta = Long.getLong("load.sloFirstDeltaP95Millis", 3000);
+        long sloQuestion = Long.getLong("load.sloQuestionP95Millis", 4000);
+        double sloErrorRate = Double.parseDouble(System.getProperty("load.sloErrorRate", "0.01"));
+        Map<String, Object> sessionConfig = parseConfig(System.getProperty("load.sessionConfig", ""));
+
+        System.out.println("Load test: wsUrl=" + wsUrl + " audioMs=" + audio.durationMillis() + " sampleRate=" + audio.getSampleRate()
+                + " stages=" + Arrays.toString(stages) + " speed=" + speed + " loops=" + loops);
+
+        HttpClient client = HttpClient.newHttpClient();
+        int maxPassing = 0;
+        try (SessionProvisioner provisioner = createProvisioner()) {
+            for (int n : stages) {
+                LatencyStats stats = runStage(n, wsUrl, audio, speed, chunkMillis, loops, heartbeatMillis, drainMillis,
+                        cues, sessionConfig, provisioner, client);
+                stats.print(System.out, String.valueOf(n));
+                long attempted = Math.max(1, stats.questions.get() + stats.connectFailures.get());
+                double errorRate = (double) (stats.errors.get() + stats.connectFailures.get()) / attempted;
+                long expectedQuestions = (long) cues.length * loops * n;
+                long questions = stats.questions.get();
+                // 过载时问题或答案可能根本不到达，空直方图的 p95 为 0，必须先校验样本数
+                boolean enoughSamples = questions > 0 && questions >= expectedQuestions
+                        && stats.firstAnswerDelta.getTotalCount() >= questions;
+                long questionP95 = stats.p95QuestionLatencyWithMisses();
+                boolean pass = enoughSamples
+                        && stats.p95FirstAnswerDelta() <= sloFirstDelta
+                        && (cues.length == 0 || questionP95 <= sloQuestion)
+                        && errorRate <= sloErrorRate;
+                System.out.println("  slo " + (pass ? "PASS" : "BREACH") + " samples=" + (enoughSamples ? "ok" : "insufficient")
+                        + " questions=" + questions + "/" + expectedQuestions + " firstDeltas=" + stats.firstAnswerDelta.getTotalCount()
+                        + " firstDeltaP95=" + stats.p95FirstAnswerDelta()
+                        + " questionP95=" + (questionP95 == Long.MAX_VALUE ? "inf" : String.valueOf(questionP95))
+                        + " missedCues=" + stats.missedCues() + " errorRate=" + String.format("%.4f", errorRate));
+                if (!pass) break;
+                maxPassing = n;
+            }
+        }
+        System.out.println("max_sessions_before_slo_breach=" + maxPassing);
+        System.exit(0);
+    }
+
+    private static LatencyStats runStage(int n, String wsUrl, WavPcm audio, double speed, int chunkMillis, int loops,
+                                         long heartbeatMillis, long drainMillis, long[] cues,
+                                         Map<String, Object> sessionConfig, SessionProvisioner provisioner,
+                                         HttpClient client) throws Exception {
+        LatencyStats stats = new LatencyStats();
+        List<String> sessionIds = new ArrayList<>();
+        String presetIds = System.getProperty("load.sessionIds", "");
+        if (provisioner == null && !presetIds.isEmpty()) {
+            sessionIds.addAll(Arrays.asList(presetIds.split(",")));
+        } else {
+            for (int i = 0; i < n; i++) {
+                String sid = "load-" + UUID.randomUUID();
+                if (provisioner != null) provisioner.create(sid, "loadgen", sessionConfig);
+                sessionIds.add(sid);
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(n);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String sid = sessionIds.get(i % sessionIds.size()).trim();
+            URI uri = URI.create(wsUrl + (wsUrl.contains("?") ? "&" : "?") + "sessionId=" + sid);
+            SimulatedCandidate c = new SimulatedCandidate(sid, uri, audio, speed, chunkMillis, loops, heartbeatMillis, cues, stats);
+            futures.add(pool.submit(() -> c.run(client, drainMillis)));
+            // 略微错开连接建立，避免瞬时握手风暴掩盖稳态表现
+            Thread.sleep(Math.max(1, 1000 / Math.max(1, n)));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+        if (provisioner != null) {
+            for (String sid : sessionIds) {
+                try { provisioner.end(sid); } catch (Exception ignored) {}
+            }
+        }
+        return stats;
+    }
+
+    private static SessionProvisioner createProvisioner() {
+        String kind = System.getProperty("load.provisioner", "dubbo");
+        if ("jdbc".equalsIgnoreCase(kind)) {
+            return new JdbcSessionProvisioner(System.getProperty("load.jdbcUrl"),
+                    System.getProperty("load.jdbcUser"), System.getProperty("load.jdbcPassword"));
+        }
+        if ("dubbo".equalsIgnoreCase(kind)) {
+            return new DubboSessionProvisioner(System.getProperty("load.dubboUrl", "dubbo://127.0.0.1:20882"),
+                    System.getProperty("load.registry", ""));
+        }
+        return null;
+    }
+
+    private static long[] parseCues(String raw) {
+        if (raw == null || raw.trim().isEmpty()) return new long[0];
+        return Arrays.stream(raw.split(",")).map(String::trim).filter(s -> !s.isEmpty()).mapToLong(Long::parseLong).sorted().toArray();
+    }
+
+    private static Map<String, Object> parseConfig(String raw) throws Exception {
+        if (raw == null || raw.trim().isEmpty()) return new HashMap<>();
+        return mapper.readValue(raw, new TypeReference<Map<String, Object>>() {});
+    }
+}
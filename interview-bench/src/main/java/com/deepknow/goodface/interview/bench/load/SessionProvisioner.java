@@ -0,0 +1,15 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import java.util.Map;
+
+/**
+ * 压测会话创建方式：经由 Dubbo 的 SessionCreateService，或直接写库。
+ */
+public interface SessionProvisioner extends AutoCloseable {
+    void create(String sessionId, String userId, Map<String, Object> config) throws Exception;
+
+    void end(String sessionId) throws Exception;
+
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,194 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个模拟候选人：连接 /audio/stream?sessionId=...，按实时或加速速率推送 PCM，
+ * 维持 ping/pong 心跳，并记录问题到达、首个答案增量与 [END] 的时间点。
+ */
+public class SimulatedCandidate implements WebSocket.Listener {
+    private static final Logger log = LoggerFactory.getLogger(SimulatedCandidate.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String sessionId;
+    private final URI endpoint;
+    private final WavPcm audio;
+    private final double speed;
+    private final int chunkMillis;
+    private final int loops;
+    private final long heartbeatMillis;
+    private final long[] cueMillis;
+    private final LatencyStats stats;
+
+    private final StringBuilder textBuffer = new StringBuilder();
+    private final CountDownLatch sttReady = new CountDownLatch(1);
+    private WebSocket ws;
+    private volatile long streamStartNs;
+    private volatile long connectedNs;
+    private volatile long questionAtNs;
+    private volatile boolean awaitingFirstDelta;
+    private int nextCue;
+
+    public SimulatedCandidate(String sessionId, URI endpoint, WavPcm audio, double speed, int chunkMillis,
+                              int loops, long heartbeatMillis, long[] cueMillis, LatencyStats stats) {
+        this.sessionId = sessionId;
+        this.endpoint = endpoint;
+        this.audio = audio;
+        this.speed = speed <= 0 ? 1.0 : speed;
+        this.chunkMillis = Math.max(20, chunkMillis);
+        this.loops = Math.max(1, loops);
+        this.heartbeatMillis = heartbeatMillis;
+        this.cueMillis = cueMillis == null ? new long[0] : cueMillis;
+        this.stats = stats;
+    }
+
+    /**
+     * 阻塞执行一次完整模拟：连接、等待 stt_ready、推流、关闭。
+     */
+    public void run(HttpClient client, long drainMillis) {
+        try {
+            ws = client.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(endpoint, this)
+                    .get(15, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            stats.connectFailures.incrementAndGet();
+            log.warn("Connect failed: sessionId={} cause={}", sessionId, e.toString());
+            return;
+        }
+        connectedNs = System.nanoTime();
+        try {
+            if (!sttReady.await(10, TimeUnit.SECONDS)) {
+                log.warn("stt_ready not received in 10s, streaming anyway: sessionId={}", sessionId);
+            }
+            streamAudio();
+            Thread.sleep(drainMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try { send(ws.sendClose(WebSocket.NORMAL_CLOSURE, "bye")); } catch (Exception ignored) {}
+        }
+    }
+
+    private void streamAudio() throws InterruptedException {
+        byte[] pcm = audio.getPcm();
+        int chunk = audio.bytesPerChunk(chunkMillis);
+        long chunkNanos = (long) (chunkMillis * 1_000_000L / speed);
+        long lastPingNs = System.nanoTime();
+        streamStartNs = System.nanoTime();
+        stats.cuesExpected.addAndGet((long) cueMillis.length * loops);
+        long next = streamStartNs;
+        for (int loop = 0; loop < loops; loop++) {
+            for (int off = 0; off < pcm.length; off += chunk) {
+                int len = Math.min(chunk, pcm.length - off);
+                send(ws.sendBinary(ByteBuffer.wrap(pcm, off, len), true));
+                long now = System.nanoTime();
+                if (heartbeatMillis > 0 && now - lastPingNs >= heartbeatMillis * 1_000_000L) {
+                    send(ws.sendText("{\"type\":\"ping\",\"timestamp\":" + System.currentTimeMillis() + "}", true));
+                    lastPingNs = now;
+                }
+                next += chunkNanos;
+                long sleepNs = next - System.nanoTime();
+                if (sleepNs > 0) TimeUnit.NANOSECONDS.sleep(sleepNs);
+            }
+        }
+    }
+
+    // WebSocket 发送需串行：等待上一帧发送完成后再继续
+    private synchronized void send(CompletableFuture<WebSocket> f) {
+        try { f.get(10, TimeUnit.SECONDS); } catch (Exception e) { log.debug("Send failed: sessionId={} cause={}", sessionId, e.toString()); }
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        textBuffer.append(data);
+        if (last) {
+            String text = textBuffer.toString();
+            textBuffer.setLength(0);
+            handleMessage(text);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        stats.errors.incrementAndGet();
+        log.debug("WS error: sessionId={} cause={}", sessionId, error.toString());
+    }
+
+    private void handleMessage(String text) {
+        long now = System.nanoTime();
+        JsonNode node;
+        try { node = mapper.readTree(text); } catch (Exception e) { return; }
+        String type = node.path("type").asText("");
+        switch (type) {
+            case "stt_ready":
+                LatencyStats.record(stats.sttReady, (now - connectedNs) / 1_000_000L);
+                sttReady.countDown();
+                break;
+            case "pong":
+                stats.pongs.incrementAndGet();
+                break;
+            case "question":
+                stats.questions.incrementAndGet();
+                questionAtNs = now;
+                awaitingFirstDelta = true;
+                recordQuestionLatency(now);
+                break;
+            case "answer":
+                String content = node.path("content").asText("");
+                if ("[END]".equals(content)) {
+                    stats.answers.incrementAndGet();
+                    if (questionAtNs > 0) LatencyStats.record(stats.answerEnd, (now - questionAtNs) / 1_000_000L);
+                } else if (awaitingFirstDelta && questionAtNs > 0) {
+                    awaitingFirstDelta = false;
+                    LatencyStats.record(stats.firstAnswerDelta, (now - questionAtNs) / 1_000_000L);
+                }
+                break;
+            case "error":
+                stats.errors.incrementAndGet();
+                log.debug("Server error: sessionId={} body={}", sessionId, text);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 将问题到达时间与音频中的“问题结束”提示点对齐（按倍速换算，多轮循环时按音频时长平移）
+    private void recordQuestionLatency(long now) {
+        if (cueMillis.length == 0 || streamStartNs == 0) return;
+        long audioMs = audio.durationMillis();
+        long elapsedAudioMs = (long) ((now - streamStartNs) / 1_000_000L * speed);
+        long matched = -1;
+        while (nextCue < cueMillis.length * loops) {
+            long cueAt = (nextCue / cueMillis.length) * audioMs + cueMillis[nextCue % cueMillis.length];
+            if (cueAt > elapsedAudioMs) break;
+            matched = cueAt;
+            nextCue++;
+        }
+        // 一个问题只对应最近的提示点，被越过的更早提示点计为漏检
+        if (matched >= 0) {
+            stats.cuesMatched.incrementAndGet();
+            LatencyStats.record(stats.questionLatency, (long) ((elapsedAudioMs - matched) / speed));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.deepknow.goodface.interview.bench.load;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 读取 16bit 单声道 PCM WAV 文件，输出裸 PCM 数据（服务端 STT 期望的格式）。
+ */
+public class WavPcm {
+    private final byte[] pcm;
+    private final int sampleRate;
+
+    private WavPcm(byte[] pcm, int sampleRate) {
+        this.pcm = pcm;
+        this.sampleRate = sampleRate;
+    }
+
+    public static WavPcm read(Path file) throws IOException {
+        byte[] all = Files.readAllBytes(file);
+        ByteBuffer buf = ByteBuffer.wrap(all).order(ByteOrder.LITTLE_ENDIAN);
+        if (all.length < 12 || buf.getInt(0) != 0x46464952 || buf.getInt(8) != 0x45564157) { // "RIFF" / "WAVE"
+            throw new IOException("Not a RIFF/WAVE file: " + file);
+        }
+        int pos = 12;
+        int sampleRate = 16000;
+        int channels = 1;
+        int bits = 16;
+        while (pos + 8 <= all.length) {
+            int id = buf.getInt(pos);
+            int size = buf.getInt(pos + 4);
+            int body = pos + 8;
+            if (id == 0x20746d66) { // "fmt "
+                channels = buf.getShort(body + 2);
+                sampleRate = buf.getInt(body + 4);
+                bits = buf.getShort(body + 14);
+            } else if (id == 0x61746164) { // "data"
+                if (channels != 1 || bits != 16) {
+                    throw new IOException("Only 16bit mono PCM is supported: channels=" + channels + " bits=" + bits);
+                }
+                int end = Math.min(all.length, body + size);
+                return new WavPcm(Arrays.copyOfRange(all, body, end), sampleRate);
+            }
+            pos = body + size + (size & 1);
+        }
+        throw new IOException("No data chunk in " + file);
+    }
+
+    public byte[] getPcm() { return pcm; }
+    public int getSampleRate() { return sampleRate; }
+
+    /**
+     * 指定时长的分片字节数（16bit 单声道）。
+     */
+    public int bytesPerChunk(int chunkMillis) {
+        int bytes = sampleRate * 2 * chunkMillis / 1000;
+        return bytes - (bytes & 1);
+    }
+
+    public long durationMillis() {
+        return pcm.length * 1000L / (sampleRate * 2L);
+    }
+}
@@ -0,0 +1,107 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.LlmUnavailableException;
+import com.deepknow.goodface.interview.domain.agent.LLM.AliyunLlmClient;
+import com.deepknow.goodface.interview.domain.agent.LLM.CircuitBreaker;
+import com.deepknow.goodface.interview.domain.agent.LLM.HedgePolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分类调用（问题提取）延迟对比：同一 Mock 长尾画像下分别关闭/开启对冲，输出 p50/p95/p99 与对冲率。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *   <li>bench.calls：每轮测量调用数，默认 1000（另有 100 次预热，用于积累 p95 样本）；bench.concurrency：并发数，默认 4</li>
+ *   <li>bench.hedgeMinDelayMillis / bench.hedgeMaxDelayMillis / bench.hedgeMaxRatio：对冲参数，默认 150 / 2000 / 0.1</li>
+ *   <li>mock.llm.*：Mock 画像，未指定长尾时默认 tailProbability=0.05、tailMillis=3000</li>
+ * </ul>
+ * 设置 mock.llm.errorRate（如 0.6，mock.llm.errorStatus=503）可观察熔断打开后的快速降级次数。
+ */
+public class ClassificationLatencyMain {
+    private static final String QUESTION = "你在上一个项目里是怎么设计缓存一致性方案的？";
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("mock.llm.tailProbability") == null) System.setProperty("mock.llm.tailProbability", "0.05");
+        if (System.getProperty("mock.llm.tailMillis") == null) System.setProperty("mock.llm.tailMillis", "3000");
+        int calls = Integer.getInteger("bench.calls", 1000);
+        int concurrency = Math.max(1, Integer.getInteger("bench.concurrency", 4));
+        long minDelay = Long.getLong("bench.hedgeMinDelayMillis", 150);
+        long maxDelay = Long.getLong("bench.hedgeMaxDelayMillis", 2000);
+        double maxRatio = Double.parseDouble(System.getProperty("bench.hedgeMaxRatio", "0.1"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MockDashScopeServer server = new MockDashScopeServer(0, MockLlmProfile.fromSystemProperties());
+        server.start();
+        try {
+            System.out.println("profile=" + server.getProfile() + " calls=" + calls + " concurrency=" + concurrency);
+            run("no_hedge", server, registry, null, calls, concurrency);
+            run("hedge", server, registry, new HedgePolicy(minDelay, maxDelay, maxRatio), calls, concurrency);
+        } finally {
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, MockDashScopeServer server, SimpleMeterRegistry registry,
+                            HedgePolicy policy, int calls, int concurrency) throws Exception {
+        AliyunLlmClient client = new AliyunLlmClient();
+        client.setBaseUrl(server.getBaseUrl());
+        client.setSessionId("bench-" + name);
+        client.setCircuitBreaker(new CircuitBreaker(server.getBaseUrl() + "#" + name, new CircuitBreaker.Settings(20, 10, 0.5, 2000)));
+        client.setHedgePolicy(policy);
+        client.init("mock", "qwen-turbo", 0.5, 0.9, 512, false);
+
+        Histogram latency = new ConcurrentHistogram(60_000, 3);
+        AtomicLong fallbacks = new AtomicLong();
+        long requestsBefore = server.getStats().requests;
+        double firedBefore = hedges(registry, "won") + hedges(registry, "lost");
+        double wonBefore = hedges(registry, "won");
+        AtomicInteger next = new AtomicInteger();
+        int warmup = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            futures.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < warmup + calls) {
+                    long start = System.nanoTime();
+                    try {
+                        client.extractQuestion(QUESTION, "");
+                    } catch (LlmUnavailableException e) {
+                        fallbacks.incrementAndGet();
+                    }
+                    if (i >= warmup) latency.recordValue(Math.min(60_000, (System.nanoTime() - start) / 1_000_000));
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        double fired = hedges(registry, "won") + hedges(registry, "lost") - firedBefore;
+        double won = hedges(registry, "won") - wonBefore;
+        long requests = server.getStats().requests - requestsBefore;
+        System.out.println(String.format("%-9s n=%d p50=%d p95=%d p99=%d max=%d hedge_rate=%.3f hedge_won=%.0f requests=%d fallbacks=%d",
+                name, latency.getTotalCount(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(95),
+                latency.getValueAtPercentile(99), latency.getMaxValue(),
+                fired / (warmup + calls), won, requests, fallbacks.get()));
+    }
+
+    private static double hedges(SimpleMeterRegistry registry, String result) {
+        double sum = 0;
+        for (Counter c : registry.find("interview.llm.hedge").tag("result", result).counters()) sum += c.count();
+        return sum;
+    }
+}
@@ -0,0 +1,113 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.EquivalenceResult;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 进程内 Mock LLM：不走网络，按简单规则即时应答，用于度量管线自身开销。
+ * <ul>
+ *   <li>提取：取文本中最后一个以问号结尾的句子，没有则返回“无问题”；</li>
+ *   <li>等价判定：去掉标点与空白后与最近问题相同为 SAME，否则 NEW；关系判定恒为 NONE；</li>
+ *   <li>记忆更新返回空摘要；回答分 3 段推送固定文本。</li>
+ * </ul>
+ * latencyMillis &gt; 0 时每次调用阻塞该时长。调用计数按类型累加到构造时传入的 calls（可跨会话共享）。
+ */
+public class InProcessLlmClient implements LlmClient {
+    private static final String[] ANSWER = {"这是一个", "用于压测的", "固定回答。"};
+
+    private final Map<LlmOperation, AtomicLong> calls;
+    private final long latencyMillis;
+    private volatile Consumer<LlmOperation> callListener;
+
+    public InProcessLlmClient(Map<LlmOperation, AtomicLong> calls, long latencyMillis) {
+        this.calls = calls;
+        this.latencyMillis = Math.max(0, latencyMillis);
+    }
+
+    public static Map<LlmOperation, AtomicLong> newCounters() {
+        Map<LlmOperation, AtomicLong> m = new EnumMap<>(LlmOperation.class);
+        for (LlmOperation op : LlmOperation.values()) m.put(op, new AtomicLong());
+        return m;
+    }
+
+    @Override
+    public void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming) {}
+
+    @Override
+    public void setCallListener(Consumer<LlmOperation> listener) {
+        this.callListener = listener;
+    }
+
+    @Override
+    public String extractQuestion(String text, String context) {
+        call(LlmOperation.EXTRACT_QUESTION);
+        if (text == null) return "无问题";
+        int end = Math.max(text.lastIndexOf('？'), text.lastIndexOf('?'));
+        if (end < 0) return "无问题";
+        int start = end;
+        while (start > 0 && "。！？!?；;\n".indexOf(text.charAt(start - 1)) < 0) start--;
+        String q = text.substring(start, end + 1).trim();
+        return q.isEmpty() ? "无问题" : q;
+    }
+
+    @Override
+    public String generateAnswer(String question, String context) {
+        call(LlmOperation.GENERATE_ANSWER);
+        return String.join("", ANSWER);
+    }
+
+    @Override
+    public void generateAnswerStream(String question, String context, Consumer<String> onDelta,
+                                     Runnable onComplete, Consumer<Throwable> onError) {
+        call(LlmOperation.GENERATE_ANSWER);
+        if (onDelta != null) for (String d : ANSWER) onDelta.accept(d);
+        if (onComplete != null) onComplete.run();
+    }
+
+    @Override
+    public EquivalenceResult judgeQuestionEquivalence(String lastQuestion, String candidate, String context) {
+        call(LlmOperation.JUDGE_EQUIVALENCE);
+        boolean same = normalize(lastQuestion).equals(normalize(candidate));
+        return new EquivalenceResult(same ? "SAME" : "NEW", candidate, "in-process");
+    }
+
+    @Override
+    public EquivalenceResult judgeSegmentRelation(String lastQuestion, String segment, String context) {
+        call(LlmOperation.JUDGE_RELATION);
+        return new EquivalenceResult("NONE", "", "in-process");
+    }
+
+    @Override
+    public MemoryUpdateResult updateContextMemory(String currentQuestion, String accumulatedContext, String recentContext) {
+        call(LlmOperation.UPDATE_MEMORY);
+        return new MemoryUpdateResult("", Collections.emptyMap());
+    }
+
+    @Override
+    public void close() {}
+
+    private void call(LlmOperation op) {
+        calls.get(op).incrementAndGet();
+        Consumer<LlmOperation> l = callListener;
+        if (l != null) l.accept(op);
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.replaceAll("[\\p{Punct}\\p{IsPunctuation}\\s]", "");
+    }
+}
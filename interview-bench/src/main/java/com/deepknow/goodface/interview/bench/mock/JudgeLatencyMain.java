@@ -0,0 +1,111 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.LLM.AliyunLlmClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 判定类调用（等价/关系）延迟对比：同一 Mock 画像下分别走非流式整段解析与流式增量解析（读到 class/canonical 即中止），
+ * 输出 p50/p95/p99 与平均输出 token 数。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *   <li>bench.calls：每轮调用数，默认 100；bench.concurrency：并发数，默认 8</li>
+ *   <li>bench.reason：判定 JSON 中 reason 字段内容，默认约 60 字的说明（模拟模型附带的解释）</li>
+ *   <li>mock.llm.*：Mock 画像（TTFT、token 间隔等）</li>
+ * </ul>
+ */
+public class JudgeLatencyMain {
+    private static final String LAST = "你在上一个项目里是怎么设计缓存一致性方案的？";
+    private static final String CANDIDATE = "那你们的消息队列是怎么保证不丢消息的？";
+    private static final String DEFAULT_REASON = "当前输入询问的是消息队列的可靠投递机制，与最近问题讨论的缓存一致性方案属于不同的技术主题，因此判定为新的问题。";
+
+    public static void main(String[] args) throws Exception {
+        int calls = Integer.getInteger("bench.calls", 100);
+        int concurrency = Math.max(1, Integer.getInteger("bench.concurrency", 8));
+        String reason = System.getProperty("bench.reason", DEFAULT_REASON);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MockDashScopeServer server = new MockDashScopeServer(0, MockLlmProfile.fromSystemProperties());
+        server.start();
+        try {
+            System.out.println("profile=" + server.getProfile() + " calls=" + calls + " concurrency=" + concurrency);
+            String[][] scenarios = {
+                    {"equivalence_new", "{\"class\": \"NEW\", \"canonical\": \"{candidate}\", \"reason\": \"" + reason + "\"}"},
+                    {"equivalence_same", "{\"class\": \"SAME\", \"canonical\": \"{candidate}\", \"reason\": \"" + reason + "\"}"},
+                    {"relation_none", "{\"class\": \"NONE\", \"reason\": \"" + reason + "\"}"},
+            };
+            for (String[] sc : scenarios) {
+                server.getProfile().setEquivalenceJson(sc[1]).setRelationJson(sc[1]);
+                for (boolean streaming : new boolean[]{false, true}) {
+                    run(sc[0], streaming, server, registry, calls, concurrency);
+                }
+            }
+        } finally {
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String scenario, boolean streaming, MockDashScopeServer server, SimpleMeterRegistry registry,
+                            int calls, int concurrency) throws Exception {
+        AliyunLlmClient client = new AliyunLlmClient();
+        client.setBaseUrl(server.getBaseUrl());
+        client.setSessionId("bench-judge");
+        client.setJudgeStreaming(streaming);
+        client.init("mock", "qwen-turbo", 0.5, 0.9, 512, false);
+        boolean relation = scenario.startsWith("relation");
+        String op = relation ? "judge_relation" : "judge_equivalence";
+        double tokensBefore = completionTokens(registry, op);
+        long countBefore = completionCount(registry, op);
+
+        Histogram latency = new ConcurrentHistogram(60_000, 3);
+        AtomicInteger next = new AtomicInteger();
+        int warmup = 20;
+        String[] result = new String[1];
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            futures.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < warmup + calls) {
+                    long start = System.nanoTime();
+                    Object r = relation ? client.judgeSegmentRelation(LAST, CANDIDATE, "") : client.judgeQuestionEquivalence(LAST, CANDIDATE, "");
+                    if (i >= warmup) latency.recordValue(Math.min(60_000, (System.nanoTime() - start) / 1_000_000));
+                    result[0] = String.valueOf(r);
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        long n = completionCount(registry, op) - countBefore;
+        double tokens = n == 0 ? 0 : (completionTokens(registry, op) - tokensBefore) / n;
+        System.out.println(String.format("%-17s %-9s n=%d p50=%d p95=%d p99=%d output_tokens=%.1f result=%s",
+                scenario, streaming ? "streaming" : "blocking", latency.getTotalCount(), latency.getValueAtPercentile(50),
+                latency.getValueAtPercentile(95), latency.getValueAtPercentile(99), tokens, result[0]));
+    }
+
+    private static double completionTokens(SimpleMeterRegistry registry, String op) {
+        double sum = 0;
+        for (DistributionSummary s : registry.find("interview.llm.completion.tokens").tag("op", op).summaries()) sum += s.totalAmount();
+        return sum;
+    }
+
+    private static long completionCount(SimpleMeterRegistry registry, String op) {
+        long sum = 0;
+        for (DistributionSummary s : registry.find("interview.llm.completion.tokens").tag("op", op).summaries()) sum += s.count();
+        return sum;
+    }
+}
@@ -0,0 +1,25 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.AgentConfig;
+import com.deepknow.goodface.interview.domain.agent.AgentFactory;
+import com.deepknow.goodface.interview.domain.agent.SttClient;
+
+import java.util.List;
+
+/**
+ * 压测用工厂：STT 使用回放客户端，LLM 仍走真实的 AliyunLlmClient（由 llm.baseUrl 指向 Mock 服务）。
+ */
+public class MockAgentFactory extends AgentFactory {
+    private final List<ReplaySttClient.Event> timeline;
+    private final double speed;
+
+    public MockAgentFactory(List<ReplaySttClient.Event> timeline, double speed) {
+        this.timeline = timeline;
+        this.speed = speed;
+    }
+
+    @Override
+    public SttClient createStt(AgentConfig config) {
+        return new ReplaySttClient(timeline, speed);
+    }
+}
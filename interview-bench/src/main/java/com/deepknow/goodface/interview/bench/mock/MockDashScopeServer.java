@@ -0,0 +1,275 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 DashScope 兼容服务：实现 text-generation 接口的 JSON 与 SSE 两种返回，
+ * 按 {@link MockLlmProfile} 模拟首 token 延迟、token 间隔、抖动与错误率。
+ * 通过系统提示词区分问题识别/等价判定/段落关系/记忆更新/答案生成，返回固定内容。
+ */
+public class MockDashScopeServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MockDashScopeServer.class);
+    public static final String GEN_PATH = "/api/v1/services/aigc/text-generation/generation";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MockLlmProfile profile;
+    private final int port;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // 基础统计
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong streamRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong extractCalls = new AtomicLong();
+    private final AtomicLong equivalenceCalls = new AtomicLong();
+    private final AtomicLong relationCalls = new AtomicLong();
+    private final AtomicLong memoryCalls = new AtomicLong();
+    private final AtomicLong answerCalls = new AtomicLong();
+
+    public MockDashScopeServer(int port, MockLlmProfile profile) {
+        this.port = port;
+        this.profile = profile == null ? new MockLlmProfile() : profile;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "mock-dashscope");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext(GEN_PATH, this::handleGeneration);
+        server.start();
+        log.info("Mock DashScope started: baseUrl={} profile={}", getBaseUrl(), profile);
+    }
+
+    public String getBaseUrl() {
+        int actual = server == null ? port : server.getAddress().getPort();
+        return "http://127.0.0.1:" + actual;
+    }
+
+    public MockLlmProfile getProfile() { return profile; }
+
+    @Override
+    public void close() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private void handleGeneration(HttpExchange ex) throws IOException {
+        requests.incrementAndGet();
+        try (InputStream is = ex.getRequestBody()) {
+            JsonNode req = mapper.readTree(is.readAllBytes());
+            JsonNode messages = req.path("input").path("messages");
+            String system = messages.isArray() && messages.size() > 0 ? messages.get(0).path("content").asText("") : "";
+            String user = messages.isArray() && messages.size() > 1 ? messages.get(messages.size() - 1).path("content").asText("") : "";
+            boolean stream = req.path("parameters").path("enable_streaming").asBoolean(false)
+                    || String.valueOf(ex.getRequestHeaders().getFirst("Accept")).contains("text/event-stream");
+            String content = respond(system, user);
+
+            sleep(firstTokenDelay());
+            if (ThreadLocalRandom.current().nextDouble() < profile.getErrorRate()) {
+                injectedErrors.incrementAndGet();
+                writeFully(ex, profile.getErrorStatus(), "application/json",
+                        "{\"code\":\"Throttling\",\"message\":\"mock injected error\"}");
+                return;
+            }
+            if (stream) {
+                streamRequests.incrementAndGet();
+                writeStream(ex, content, user.length());
+            } else {
+                sleep(perTokenDelay() * tokens(content).size());
+                writeFully(ex, 200, "application/json", mapper.writeValueAsString(resultNode(content, user.length(), true, content.length())));
+            }
+        } catch (Exception e) {
+            log.debug("Mock generation aborted: {}", e.getMessage());
+            try { writeFully(ex, 500, "application/json", "{\"code\":\"InternalError\"}"); } catch (Exception ignored) {}
+        } finally {
+            ex.close();
+        }
+    }
+
+    private String respond(String system, String user) {
+        if (system.contains("去重器")) {
+            equivalenceCalls.incrementAndGet();
+            return profile.getEquivalenceJson().replace("{candidate}", escapeJson(section(user, "当前输入：")));
+        }
+        if (system.contains("段落关系")) {
+            relationCalls.incrementAndGet();
+            return profile.getRelationJson();
+        }
+        if (system.contains("摘要")) {
+            memoryCalls.incrementAndGet();
+            return profile.getMemoryJson();
+        }
+        if (system.contains("问题识别器")) {
+            extractCalls.incrementAndGet();
+            String text = section(user, "文本：");
+            String result = looksLikeQuestion(text) ? text : "无问题";
+            return profile.getExtractExplanation().isEmpty() ? result : result + "\n" + profile.getExtractExplanation();
+        }
+        answerCalls.incrementAndGet();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < profile.getAnswerRepeat(); i++) sb.append(profile.getAnswerText());
+        return sb.toString();
+    }
+
+    private void writeStream(HttpExchange ex, String content, int inputChars) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        ex.sendResponseHeaders(200, 0);
+        try (OutputStream os = ex.getResponseBody()) {
+            List<String> parts = tokens(content);
+            int sent = 0;
+            for (int i = 0; i < parts.size(); i++) {
+                if (i > 0) sleep(perTokenDelay());
+                boolean last = i == parts.size() - 1;
+                sent += parts.get(i).length();
+                // 与增量输出一致：usage 为截至当前分片的累计量
+                String data = mapper.writeValueAsString(resultNode(parts.get(i), inputChars, last, sent));
+                String event = "id:" + (i + 1) + "\nevent:result\n:HTTP_STATUS/200\ndata:" + data + "\n\n";
+                os.write(event.getBytes(StandardCharsets.UTF_8));
+                os.flush();
+            }
+        }
+    }
+
+    private ObjectNode resultNode(String content, int inputChars, boolean finished, int outputChars) {
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode output = root.putObject("output");
+        ArrayNode choices = output.putArray("choices");
+        ObjectNode choice = choices.addObject();
+        choice.put("finish_reason", finished ? "stop" : "null");
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", content);
+        ObjectNode usage = root.putObject("usage");
+        usage.put("input_tokens", Math.max(1, inputChars / profile.getCharsPerToken()));
+        usage.put("output_tokens", Math.max(1, outputChars / profile.getCharsPerToken()));
+        root.put("request_id", "mock-" + requests.get());
+        return root;
+    }
+
+    private List<String> tokens(String content) {
+        List<String> out = new ArrayList<>();
+        int step = profile.getCharsPerToken();
+        for (int i = 0; i < content.length(); i += step) {
+            out.add(content.substring(i, Math.min(content.length(), i + step)));
+        }
+        if (out.isEmpty()) out.add("");
+        return out;
+    }
+
+    private long firstTokenDelay() {
+        long d = jittered(profile.getTtftMillis());
+        if (profile.getTailProbability() > 0 && ThreadLocalRandom.current().nextDouble() < profile.getTailProbability()) {
+            d += profile.getTailMillis();
+        }
+        return d;
+    }
+
+    private long perTokenDelay() {
+        return jittered(profile.getInterTokenMillis());
+    }
+
+    private long jittered(long base) {
+        long j = profile.getJitterMillis();
+        if (j <= 0) return Math.max(0, base);
+        return Math.max(0, base + ThreadLocalRandom.current().nextLong(-j, j + 1));
+    }
+
+    private void writeFully(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", contentType);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    // 从用户消息中截取形如 "标签：内容\n" 的片段
+    private static String section(String user, String label) {
+        int i = user.indexOf(label);
+        if (i < 0) return "";
+        int start = i + label.length();
+        int end = user.indexOf('\n', start);
+        return (end < 0 ? user.substring(start) : user.substring(start, end)).trim();
+    }
+
+    private static boolean looksLikeQuestion(String text) {
+        if (text == null || text.isEmpty()) return false;
+        return text.contains("？") || text.contains("?") || text.contains("吗") || text.contains("什么")
+                || text.contains("怎么") || text.contains("为什么") || text.contains("如何") || text.contains("介绍");
+    }
+
+    private static String escapeJson(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try { Thread.sleep(millis); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    public Stats getStats() {
+        return new Stats(requests.get(), streamRequests.get(), injectedErrors.get(), extractCalls.get(),
+                equivalenceCalls.get(), relationCalls.get(), memoryCalls.get(), answerCalls.get());
+    }
+
+    public static class Stats {
+        public final long requests;
+        public final long streamRequests;
+        public final long injectedErrors;
+        public final long extractCalls;
+        public final long equivalenceCalls;
+        public final long relationCalls;
+        public final long memoryCalls;
+        public final long answerCalls;
+
+        public Stats(long requests, long streamRequests, long injectedErrors, long extractCalls,
+                     long equivalenceCalls, long relationCalls, long memoryCalls, long answerCalls) {
+            this.requests = requests;
+            this.streamRequests = streamRequests;
+            this.injectedErrors = injectedErrors;
+            this.extractCalls = extractCalls;
+            this.equivalenceCalls = equivalenceCalls;
+            this.relationCalls = relationCalls;
+            this.memoryCalls = memoryCalls;
+            this.answerCalls = answerCalls;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "requests=" + requests +
+                    ", streamRequests=" + streamRequests +
+                    ", injectedErrors=" + injectedErrors +
+                    ", extractCalls=" + extractCalls +
+                    ", equivalenceCalls=" + equivalenceCalls +
+                    ", relationCalls=" + relationCalls +
+                    ", memoryCalls=" + memoryCalls +
+                    ", answerCalls=" + answerCalls +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+/**
+ * Mock LLM 服务的延迟与响应画像：首 token 延迟、token 间隔、抖动、错误率与各类判定的固定 JSON。
+ * 所有字段可通过系统属性 mock.llm.* 覆盖，见 {@link #fromSystemProperties()}。
+ */
+public class MockLlmProfile {
+    // 首 token 延迟（TTFT）与 token 间隔
+    private long ttftMillis = 300;
+    private long interTokenMillis = 30;
+    // 延迟抖动（均匀分布 ±jitter）
+    private long jitterMillis = 50;
+    // 长尾：以一定概率在 TTFT 上额外叠加的延迟
+    private double tailProbability = 0.0;
+    private long tailMillis = 3000;
+    // 错误注入
+    private double errorRate = 0.0;
+    private int errorStatus = 429;
+    // 单个 token 对应的字符数（用于切分流式分片与估算耗时）
+    private int charsPerToken = 2;
+
+    // 固定返回内容；{candidate} 会被替换为请求中的候选问题
+    private String equivalenceJson = "{\"class\": \"NEW\", \"canonical\": \"{candidate}\", \"reason\": \"mock\"}";
+    private String relationJson = "{\"class\": \"NONE\", \"reason\": \"mock\"}";
+    private String memoryJson = "{\"summary\": \"mock summary\", \"facts\": {}}";
+    private String answerText = "这是一个用于压测的模拟回答，内容长度可以通过配置调整。";
+    // 问题提取结果后追加的说明行（模拟模型在结论后附带解释），为空时不追加
+    private String extractExplanation = "";
+    private int answerRepeat = 4;
+
+    public static MockLlmProfile fromSystemProperties() {
+        MockLlmProfile p = new MockLlmProfile();
+        p.ttftMillis = Long.getLong("mock.llm.ttftMillis", p.ttftMillis);
+        p.interTokenMillis = Long.getLong("mock.llm.interTokenMillis", p.interTokenMillis);
+        p.jitterMillis = Long.getLong("mock.llm.jitterMillis", p.jitterMillis);
+        p.tailProbability = Double.parseDouble(System.getProperty("mock.llm.tailProbability", String.valueOf(p.tailProbability)));
+        p.tailMillis = Long.getLong("mock.llm.tailMillis", p.tailMillis);
+        p.errorRate = Double.parseDouble(System.getProperty("mock.llm.errorRate", String.valueOf(p.errorRate)));
+        p.errorStatus = Integer.getInteger("mock.llm.errorStatus", p.errorStatus);
+        p.charsPerToken = Math.max(1, Integer.getInteger("mock.llm.charsPerToken", p.charsPerToken));
+        p.equivalenceJson = System.getProperty("mock.llm.equivalenceJson", p.equivalenceJson);
+        p.relationJson = System.getProperty("mock.llm.relationJson", p.relationJson);
+        p.memoryJson = System.getProperty("mock.llm.memoryJson", p.memoryJson);
+        p.answerText = System.getProperty("mock.llm.answerText", p.answerText);
+        p.extractExplanation = System.getProperty("mock.llm.extractExplanation", p.extractExplanation);
+        p.answerRepeat = Math.max(1, Integer.getInteger("mock.llm.answerRepeat", p.answerRepeat));
+        return p;
+    }
+
+    public long getTtftMillis() { return ttftMillis; }
+    public MockLlmProfile setTtftMillis(long ttftMillis) { this.ttftMillis = ttftMillis; return this; }
+    public long getInterTokenMillis() { return interTokenMillis; }
+    public MockLlmProfile setInterTokenMillis(long interTokenMillis) { this.interTokenMillis = interTokenMillis; return this; }
+    public long getJitterMillis() { return jitterMillis; }
+    public MockLlmProfile setJitterMillis(long jitterMillis) { this.jitterMillis = jitterMillis; return this; }
+    public double getTailProbability() { return tailProbability; }
+    public MockLlmProfile setTailProbability(double tailProbability) { this.tailProbability = tailProbability; return this; }
+    public long getTailMillis() { return tailMillis; }
+    public MockLlmProfile setTailMillis(long tailMillis) { this.tailMillis = tailMillis; return this; }
+    public double getErrorRate() { return errorRate; }
+    public MockLlmProfile setErrorRate(double errorRate) { this.errorRate = errorRate; return this; }
+    public int getErrorStatus() { return errorStatus; }
+    public MockLlmProfile setErrorStatus(int errorStatus) { this.errorStatus = errorStatus; return this; }
+    public int getCharsPerToken() { return charsPerToken; }
+    public MockLlmProfile setCharsPerToken(int charsPerToken) { this.charsPerToken = Math.max(1, charsPerToken); return this; }
+    public String getEquivalenceJson() { return equivalenceJson; }
+    public MockLlmProfile setEquivalenceJson(String equivalenceJson) { this.equivalenceJson = equivalenceJson; return this; }
+    public String getRelationJson() { return relationJson; }
+    public MockLlmProfile setRelationJson(String relationJson) { this.relationJson = relationJson; return this; }
+    public String getMemoryJson() { return memoryJson; }
+    public MockLlmProfile setMemoryJson(String memoryJson) { this.memoryJson = memoryJson; return this; }
+    public String getAnswerText() { return answerText; }
+    public MockLlmProfile setAnswerText(String answerText) { this.answerText = answerText; return this; }
+    public String getExtractExplanation() { return extractExplanation; }
+    public MockLlmProfile setExtractExplanation(String extractExplanation) { this.extractExplanation = extractExplanation == null ? "" : extractExplanation; return this; }
+    public int getAnswerRepeat() { return answerRepeat; }
+    public MockLlmProfile setAnswerRepeat(int answerRepeat) { this.answerRepeat = Math.max(1, answerRepeat); return this; }
+
+    @Override
+    public String toString() {
+        return "MockLlmProfile{" +
+                "ttftMillis=" + ttftMillis +
+                ", interTokenMillis=" + interTokenMillis +
+                ", jitterMillis=" + jitterMillis +
+                ", tailProbability=" + tailProbability +
+                ", tailMillis=" + tailMillis +
+                ", errorRate=" + errorRate +
+                ", errorStatus=" + errorStatus +
+                ", charsPerToken=" + charsPerToken +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.AgentCallbacks;
+import com.deepknow.goodface.interview.domain.agent.AgentConfig;
+import com.deepknow.goodface.interview.domain.agent.DefaultInterviewAgent;
+import com.deepknow.goodface.interview.domain.session.model.SessionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 启动本地 Mock DashScope 服务。
+ * <p>
+ * 仅启动服务（供应用通过 LLM_BASE_URL 指向）：
+ * {@code java -Dmock.port=18080 -Dmock.llm.ttftMillis=400 -cp interview-bench.jar ...MockServerMain}
+ * <p>
+ * 同时在进程内驱动 N 个 DefaultInterviewAgent 回放转写文件（真实 AliyunLlmClient 代码路径）：
+ * {@code -Dbench.transcript=/path/to/transcript.txt -Dbench.sessions=50 -Dbench.speed=1.0}
+ * <p>
+ * 示例转写见 resources/transcripts/sample-interview.txt；结束时输出每分钟音频的 LLM 调用数（按调用类型拆分）。
+ */
+public class MockServerMain {
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("mock.port", 18080);
+        MockDashScopeServer server = new MockDashScopeServer(port, MockLlmProfile.fromSystemProperties());
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        String transcript = System.getProperty("bench.transcript");
+        if (transcript == null || transcript.isEmpty()) {
+            System.out.println("Mock DashScope listening at " + server.getBaseUrl());
+            Thread.currentThread().join();
+            return;
+        }
+
+        int sessions = Integer.getInteger("bench.sessions", 10);
+        double speed = Double.parseDouble(System.getProperty("bench.speed", "1.0"));
+        long partialInterval = Long.getLong("bench.partialIntervalMillis", 200);
+        long sentenceGap = Long.getLong("bench.sentenceGapMillis", 1500);
+        List<ReplaySttClient.Event> timeline = ReplaySttClient.parse(
+                Files.readAllLines(Paths.get(transcript), StandardCharsets.UTF_8), partialInterval, sentenceGap);
+        MockAgentFactory factory = new MockAgentFactory(timeline, speed);
+
+        AtomicLong questions = new AtomicLong();
+        AtomicLong answers = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<DefaultInterviewAgent> agents = new ArrayList<>();
+        // LLM 地址只取服务端配置（系统属性），不能经会话配置传入
+        System.setProperty("llm.baseUrl", server.getBaseUrl());
+        long startNs = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            Map<String, Object> cfg = new HashMap<>();
+            cfg.put("llm.apiKey", "mock");
+            cfg.put("stt.apiKey", "mock");
+            SessionContext ctx = new SessionContext("bench-" + i, "bench", null, cfg);
+            DefaultInterviewAgent agent = new DefaultInterviewAgent(factory);
+            agent.start(ctx, AgentConfig.from(ctx), AgentCallbacks.of(
+                    p -> {}, f -> {},
+                    q -> questions.incrementAndGet(),
+                    d -> {},
+                    answers::incrementAndGet,
+                    e -> errors.incrementAndGet(),
+                    () -> {}));
+            agents.add(agent);
+        }
+        long durationMs = (long) (timeline.isEmpty() ? 0 : timeline.get(timeline.size() - 1).offsetMillis / speed);
+        Thread.sleep(durationMs + Long.getLong("bench.drainMillis", 10000));
+        agents.forEach(DefaultInterviewAgent::close);
+        long elapsedMs = (System.nanoTime() - startNs) / 1_000_000;
+        System.out.println("sessions=" + sessions + " elapsedMs=" + elapsedMs
+                + " questions=" + questions.get() + " answers=" + answers.get() + " errors=" + errors.get());
+        MockDashScopeServer.Stats stats = server.getStats();
+        System.out.println(stats);
+        // 每分钟音频触发的 LLM 调用数：按回放时间线时长（原速）折算，便于对比改动前后的调用开销
+        double audioMinutes = sessions * (timeline.isEmpty() ? 0 : timeline.get(timeline.size() - 1).offsetMillis) / 60000.0;
+        if (audioMinutes > 0) {
+            System.out.printf("llm_calls_per_audio_minute=%.2f extract=%.2f equivalence=%.2f relation=%.2f memory=%.2f answer=%.2f%n",
+                    stats.requests / audioMinutes, stats.extractCalls / audioMinutes, stats.equivalenceCalls / audioMinutes,
+                    stats.relationCalls / audioMinutes, stats.memoryCalls / audioMinutes, stats.answerCalls / audioMinutes);
+        }
+        server.close();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.deepknow.goodface.interview.bench.mock;
+
+import com.deepknow.goodface.interview.domain.agent.SttClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 回放式 STT 客户端：按时间线把转写文件中的 partial/final 事件推送给 Agent，忽略音频输入。
+ * <p>
+ * 文件格式（UTF-8，# 开头为注释）：
+ * <ul>
+ *   <li>时间线行：{@code <offsetMillis>\t<P|F>\t<text>}，P 为 partial，F 为 final；</li>
+ *   <li>纯文本行：视为一句话，自动合成累积式 partial（每 {@code partialIntervalMillis} 增加若干字）与最终 final。</li>
+ * </ul>
+ * speed 为回放倍速（2.0 表示两倍速）。
+ */
+public class ReplaySttClient implements SttClient {
+    private static final Logger log = LoggerFactory.getLogger(ReplaySttClient.class);
+
+    private final List<Event> timeline;
+    private final double speed;
+    private ScheduledExecutorService timer;
+    private String sessionId;
+
+    public ReplaySttClient(List<Event> timeline, double speed) {
+        this.timeline = timeline == null ? Collections.emptyList() : timeline;
+        this.speed = speed <= 0 ? 1.0 : speed;
+    }
+
+    public static ReplaySttClient fromFile(Path file, double speed, long partialIntervalMillis, long sentenceGapMillis) throws IOException {
+        return new ReplaySttClient(parse(Files.readAllLines(file, StandardCharsets.UTF_8), partialIntervalMillis, sentenceGapMillis), speed);
+    }
+
+    public static List<Event> parse(List<String> lines, long partialIntervalMillis, long sentenceGapMillis) {
+        List<Event> out = new ArrayList<>();
+        long cursor = 0;
+        for (String raw : lines) {
+            String line = raw == null ? "" : raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\t", 3);
+            if (parts.length == 3 && parts[0].matches("\\d+") && ("P".equalsIgnoreCase(parts[1]) || "F".equalsIgnoreCase(parts[1]))) {
+                long at = Long.parseLong(parts[0]);
+                out.add(new Event(at, "F".equalsIgnoreCase(parts[1]), parts[2]));
+                cursor = Math.max(cursor, at);
+            } else {
+                cursor = synthesize(out, line, cursor, partialIntervalMillis) + sentenceGapMillis;
+            }
+        }
+        out.sort((a, b) -> Long.compare(a.offsetMillis, b.offsetMillis));
+        return out;
+    }
+
+    /**
+     * 将一句话合成为累积式 partial 序列 + final，返回 final 的时间偏移。
+     */
+    public static long synthesize(List<Event> out, String sentence, long startMillis, long partialIntervalMillis) {
+        long at = startMillis;
+        int step = 3;
+        for (int end = step; end < sentence.length(); end += step) {
+            at += partialIntervalMillis;
+            out.add(new Event(at, false, sentence.substring(0, end)));
+        }
+        at += partialIntervalMillis;
+        out.add(new Event(at, true, sentence));
+        return at;
+    }
+
+    @Override
+    public void init(String apiKey, String model, int sampleRate, String language) {}
+
+    @Override
+    public void startSession(String sessionId, Consumer<String> onPartial, Consumer<String> onFinal,
+                             Consumer<Throwable> onError, Runnable onReady) {
+        this.sessionId = sessionId;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replay-stt-" + sessionId);
+            t.setDaemon(true);
+            return t;
+        });
+        if (onReady != null) onReady.run();
+        for (Event e : timeline) {
+            long delay = (long) (e.offsetMillis / speed);
+            timer.schedule(() -> {
+                try {
+                    if (e.isFinal) {
+                        if (onFinal != null) onFinal.accept(e.text);
+                    } else {
+                        if (onPartial != null) onPartial.accept(e.text);
+                    }
+                } catch (Exception ex) {
+                    log.warn("Replay STT event failed. sessionId=" + sessionId, ex);
+                    if (onError != null) onError.accept(ex);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        log.info("Replay STT session started: events={} speed={} sessionId={}", timeline.size(), speed, sessionId);
+    }
+
+    /**
+     * 时间线总时长（按倍速换算后）。
+     */
+    public long getDurationMillis() {
+        if (timeline.isEmpty()) return 0;
+        return (long) (timeline.get(timeline.size() - 1).offsetMillis / speed);
+    }
+
+    @Override
+    public void sendAudio(byte[] pcmChunk) {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {
+        if (timer != null) timer.shutdownNow();
+        log.debug("Replay STT closed. sessionId={}", sessionId);
+    }
+
+    public static class Event {
+        public final long offsetMillis;
+        public final boolean isFinal;
+        public final String text;
+
+        public Event(long offsetMillis, boolean isFinal, String text) {
+            this.offsetMillis = offsetMillis;
+            this.isFinal = isFinal;
+            this.text = text;
+        }
+    }
+}
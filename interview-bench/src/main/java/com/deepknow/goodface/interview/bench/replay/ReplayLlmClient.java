@@ -0,0 +1,203 @@
+package com.deepknow.goodface.interview.bench.replay;
+
+import com.deepknow.goodface.interview.domain.agent.EquivalenceResult;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.LlmUnavailableException;
+import com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult;
+import com.deepknow.goodface.interview.domain.agent.SessionRecorder;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 回放式 LLM 客户端：按录制文件中的调用返回结果，并按录制耗时（除以倍速）阻塞调用线程。
+ * <p>
+ * 匹配顺序：
+ * <ul>
+ *   <li>exact：调用类型与全部输入一致；</li>
+ *   <li>loose：调用类型与主输入一致（提取/关系判定为段落、等价判定为候选问题、记忆为当前问题、回答为问题），
+ *       上下文或最近问题因策略改动而不同的调用走这里；</li>
+ *   <li>miss：录制中没有对应调用，返回各调用的降级值（“无问题”、null、空回答），耗时记 0。</li>
+ * </ul>
+ * 每条录制最多被使用一次；录制中的异常回放为 {@link LlmUnavailableException}。
+ */
+public class ReplayLlmClient implements LlmClient {
+    private final double speed;
+    private final Map<String, Deque<Recorded>> exact = new HashMap<>();
+    private final Map<String, Deque<Recorded>> loose = new HashMap<>();
+    private final Map<LlmOperation, OpStats> stats = new EnumMap<>(LlmOperation.class);
+    private volatile Consumer<LlmOperation> callListener;
+
+    public ReplayLlmClient(List<SessionRecorder.Entry> entries, double speed) {
+        this.speed = speed <= 0 ? 1.0 : speed;
+        for (LlmOperation op : LlmOperation.values()) stats.put(op, new OpStats());
+        for (SessionRecorder.Entry e : entries) {
+            if (e.kind != 'L' || e.op == null) continue;
+            Recorded r = new Recorded(e);
+            exact.computeIfAbsent(exactKey(e.op, e.in.toArray(new String[0])), k -> new ArrayDeque<>()).add(r);
+            loose.computeIfAbsent(looseKey(e.op, e.in.toArray(new String[0])), k -> new ArrayDeque<>()).add(r);
+            stats.get(e.op).recorded.incrementAndGet();
+        }
+    }
+
+    public Map<LlmOperation, OpStats> getStats() {
+        return stats;
+    }
+
+    @Override
+    public void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming) {}
+
+    @Override
+    public void setCallListener(Consumer<LlmOperation> listener) {
+        this.callListener = listener;
+    }
+
+    @Override
+    public String extractQuestion(String text, String context) {
+        Recorded r = take(LlmOperation.EXTRACT_QUESTION, text, context);
+        return r == null ? "无问题" : r.entry.out.asText("无问题");
+    }
+
+    @Override
+    public String generateAnswer(String question, String context) {
+        Recorded r = take(LlmOperation.GENERATE_ANSWER, question, context);
+        return r == null || r.entry.out == null ? "" : r.entry.out.asText("");
+    }
+
+    @Override
+    public void generateAnswerStream(String question, String context, Consumer<String> onDelta,
+                                     Runnable onComplete, Consumer<Throwable> onError) {
+        String answer;
+        try {
+            answer = generateAnswer(question, context);
+        } catch (RuntimeException e) {
+            if (onError != null) onError.accept(e);
+            return;
+        }
+        if (onDelta != null && !answer.isEmpty()) onDelta.accept(answer);
+        if (onComplete != null) onComplete.run();
+    }
+
+    @Override
+    public EquivalenceResult judgeQuestionEquivalence(String lastQuestion, String candidate, String context) {
+        return toEquivalence(take(LlmOperation.JUDGE_EQUIVALENCE, lastQuestion, candidate, context));
+    }
+
+    @Override
+    public EquivalenceResult judgeSegmentRelation(String lastQuestion, String segment, String context) {
+        return toEquivalence(take(LlmOperation.JUDGE_RELATION, lastQuestion, segment, context));
+    }
+
+    @Override
+    public MemoryUpdateResult updateContextMemory(String currentQuestion, String accumulatedContext, String recentContext) {
+        Recorded r = take(LlmOperation.UPDATE_MEMORY, currentQuestion, accumulatedContext, recentContext);
+        if (r == null || r.entry.out == null || !r.entry.out.isObject()) return null;
+        Map<String, String> facts = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = r.entry.out.path("facts").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> f = it.next();
+            facts.put(f.getKey(), f.getValue().asText());
+        }
+        return new MemoryUpdateResult(r.entry.out.path("summary").asText(""), facts);
+    }
+
+    @Override
+    public void close() {}
+
+    private static EquivalenceResult toEquivalence(Recorded r) {
+        if (r == null || r.entry.out == null || !r.entry.out.isObject()) return null;
+        JsonNode out = r.entry.out;
+        return new EquivalenceResult(out.path("class").asText(null), out.path("canonical").asText(""), out.path("reason").asText(""));
+    }
+
+    private Recorded take(LlmOperation op, String... in) {
+        OpStats s = stats.get(op);
+        s.calls.incrementAndGet();
+        Consumer<LlmOperation> l = callListener;
+        if (l != null) l.accept(op);
+        Recorded r;
+        synchronized (this) {
+            r = poll(exact.get(exactKey(op, in)));
+            if (r != null) {
+                s.exact.incrementAndGet();
+            } else if ((r = poll(loose.get(looseKey(op, in)))) != null) {
+                s.loose.incrementAndGet();
+            }
+        }
+        if (r == null) {
+            s.misses.incrementAndGet();
+            s.latency.recordValue(0);
+            return null;
+        }
+        long delay = (long) (r.entry.latencyMillis / speed);
+        s.latency.recordValue(Math.min(s.latency.getHighestTrackableValue(), r.entry.latencyMillis));
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (r.entry.error != null) throw new LlmUnavailableException(op, "replay:" + r.entry.error);
+        return r;
+    }
+
+    private static Recorded poll(Deque<Recorded> q) {
+        if (q == null) return null;
+        Recorded r;
+        while ((r = q.poll()) != null) {
+            if (!r.used) {
+                r.used = true;
+                return r;
+            }
+        }
+        return null;
+    }
+
+    private static String exactKey(LlmOperation op, String... in) {
+        StringBuilder sb = new StringBuilder(op.tag());
+        for (String s : in) sb.append('\u0001').append(s == null ? "" : s.trim());
+        return sb.toString();
+    }
+
+    private static String looseKey(LlmOperation op, String... in) {
+        // 等价/关系判定的输入为 (最近问题, 候选/段落, 上下文)，其余调用主输入在首位
+        String primary = op == LlmOperation.JUDGE_EQUIVALENCE || op == LlmOperation.JUDGE_RELATION
+                ? (in.length > 1 ? in[1] : null)
+                : (in.length > 0 ? in[0] : null);
+        return op.tag() + '\u0001' + (primary == null ? "" : primary.trim());
+    }
+
+    private static final class Recorded {
+        final SessionRecorder.Entry entry;
+        boolean used;
+
+        Recorded(SessionRecorder.Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * 单个调用类型的回放统计；latency 为回放的录制耗时（原速毫秒）。
+     */
+    public static final class OpStats {
+        public final AtomicLong recorded = new AtomicLong();
+        public final AtomicLong calls = new AtomicLong();
+        public final AtomicLong exact = new AtomicLong();
+        public final AtomicLong loose = new AtomicLong();
+        public final AtomicLong misses = new AtomicLong();
+        public final Histogram latency = new ConcurrentHistogram(600_000, 3);
+    }
+}
@@ -0,0 +1,185 @@
+package com.deepknow.goodface.interview.bench.replay;
+
+import com.deepknow.goodface.interview.bench.mock.ReplaySttClient;
+import com.deepknow.goodface.interview.domain.agent.AgentCallbacks;
+import com.deepknow.goodface.interview.domain.agent.AgentConfig;
+import com.deepknow.goodface.interview.domain.agent.AgentFactory;
+import com.deepknow.goodface.interview.domain.agent.DefaultInterviewAgent;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.SessionRecorder;
+import com.deepknow.goodface.interview.domain.agent.SttClient;
+import com.deepknow.goodface.interview.domain.session.model.SessionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 会话回放：把录制文件（{@code record.enabled=true} 时生成的 *.rec.jsonl）中的 STT 事件按时间线喂给 DefaultInterviewAgent，
+ * LLM 调用由 {@link ReplayLlmClient} 按录制结果与耗时应答，用于在上线前对比策略改动。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *   <li>bench.record：录制文件或目录（目录下全部 *.rec.jsonl 并发回放），必填</li>
+ *   <li>bench.speed：回放倍速，默认 1.0（倍速只压缩 STT 时间线与 LLM 耗时，去抖/端点计时不变，分段可能与原速不同；对比策略请用原速）；bench.drainMillis：收尾等待，默认 5000</li>
+ *   <li>replay.config.&lt;key&gt;：覆盖会话配置（同 AgentConfig 键），如 -Dreplay.config.detector.localRules=false</li>
+ * </ul>
+ * 输出每个会话与汇总的：各调用类型录制/回放调用数与匹配方式（exact/loose/miss）、回放耗时 p50/p95，
+ * 以及出卡问题与录制的对比（matched/missed/extra）。
+ */
+public class SessionReplayMain {
+    private static final String CONFIG_PREFIX = "replay.config.";
+
+    public static void main(String[] args) throws Exception {
+        String record = System.getProperty("bench.record");
+        if (record == null || record.isEmpty()) throw new IllegalArgumentException("-Dbench.record is required");
+        double speed = Double.parseDouble(System.getProperty("bench.speed", "1.0"));
+        long drainMillis = Long.getLong("bench.drainMillis", 5000);
+        // 回放本身不再录制
+        System.setProperty("record.enabled", "false");
+
+        List<Path> files = listRecordings(Paths.get(record));
+        List<Replay> replays = new ArrayList<>();
+        long longest = 0;
+        for (Path f : files) {
+            Replay r = new Replay(f, SessionRecorder.read(f), speed);
+            r.start(overrides());
+            replays.add(r);
+            longest = Math.max(longest, r.stt.getDurationMillis());
+        }
+        Thread.sleep(longest + drainMillis);
+        replays.forEach(r -> r.agent.close());
+
+        Map<LlmOperation, long[]> total = new HashMap<>();
+        long[] questionTotals = new long[4];
+        for (Replay r : replays) {
+            System.out.println("== " + r.file.getFileName() + " audioSeconds=" + r.audioMillis / 1000);
+            for (Map.Entry<LlmOperation, ReplayLlmClient.OpStats> e : r.llm.getStats().entrySet()) {
+                ReplayLlmClient.OpStats s = e.getValue();
+                if (s.recorded.get() == 0 && s.calls.get() == 0) continue;
+                System.out.println(String.format("  %-17s recorded=%d replayed=%d exact=%d loose=%d miss=%d p50=%d p95=%d",
+                        e.getKey().tag(), s.recorded.get(), s.calls.get(), s.exact.get(), s.loose.get(), s.misses.get(),
+                        s.latency.getValueAtPercentile(50), s.latency.getValueAtPercentile(95)));
+                long[] t = total.computeIfAbsent(e.getKey(), k -> new long[5]);
+                t[0] += s.recorded.get();
+                t[1] += s.calls.get();
+                t[2] += s.exact.get();
+                t[3] += s.loose.get();
+                t[4] += s.misses.get();
+            }
+            long[] q = r.compareQuestions();
+            for (int i = 0; i < q.length; i++) questionTotals[i] += q[i];
+        }
+        double audioMinutes = replays.stream().mapToLong(r -> r.audioMillis).sum() / 60000.0;
+        System.out.println("== total sessions=" + replays.size() + String.format(" audioMinutes=%.2f speed=%.1f", audioMinutes, speed));
+        for (Map.Entry<LlmOperation, long[]> e : total.entrySet()) {
+            long[] t = e.getValue();
+            System.out.println(String.format("  %-17s recorded=%d replayed=%d exact=%d loose=%d miss=%d calls_per_audio_minute=%.2f",
+                    e.getKey().tag(), t[0], t[1], t[2], t[3], t[4], audioMinutes > 0 ? t[1] / audioMinutes : 0));
+        }
+        System.out.println(String.format("  questions recorded=%d replayed=%d matched=%d missed=%d extra=%d",
+                questionTotals[0], questionTotals[1], questionTotals[2], questionTotals[0] - questionTotals[2], questionTotals[3]));
+        System.exit(0);
+    }
+
+    private static List<Path> listRecordings(Path path) throws Exception {
+        if (!Files.isDirectory(path)) return Collections.singletonList(path);
+        try (Stream<Path> s = Files.list(path)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(".rec.jsonl")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Map<String, Object> overrides() {
+        Map<String, Object> cfg = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(CONFIG_PREFIX)) cfg.put(name.substring(CONFIG_PREFIX.length()), System.getProperty(name));
+        }
+        return cfg;
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.replaceAll("[\\p{Punct}\\p{IsPunctuation}\\s]", "");
+    }
+
+    private static final class Replay {
+        final Path file;
+        final String sessionId;
+        final ReplaySttClient stt;
+        final ReplayLlmClient llm;
+        final List<String> recordedQuestions = new ArrayList<>();
+        final List<String> questions = Collections.synchronizedList(new ArrayList<>());
+        final long audioMillis;
+        DefaultInterviewAgent agent;
+
+        Replay(Path file, List<SessionRecorder.Entry> entries, double speed) {
+            this.file = file;
+            String id = null;
+            List<ReplaySttClient.Event> timeline = new ArrayList<>();
+            for (SessionRecorder.Entry e : entries) {
+                if (e.kind == 'H' && id == null) id = e.text;
+                else if (e.kind == 'P' || e.kind == 'F') timeline.add(new ReplaySttClient.Event(e.offsetMillis, e.kind == 'F', e.text));
+                else if (e.kind == 'Q') recordedQuestions.add(e.text);
+            }
+            timeline.sort((a, b) -> Long.compare(a.offsetMillis, b.offsetMillis));
+            this.sessionId = "replay-" + (id == null ? file.getFileName() : id);
+            this.audioMillis = timeline.isEmpty() ? 0 : timeline.get(timeline.size() - 1).offsetMillis;
+            this.stt = new ReplaySttClient(timeline, speed);
+            this.llm = new ReplayLlmClient(entries, speed);
+        }
+
+        void start(Map<String, Object> overrides) {
+            Map<String, Object> cfg = new HashMap<>(overrides);
+            cfg.put("llm.apiKey", "replay");
+            cfg.put("stt.apiKey", "replay");
+            SessionContext ctx = new SessionContext(sessionId, "replay", null, cfg);
+            agent = new DefaultInterviewAgent(new AgentFactory() {
+                @Override
+                public SttClient createStt(AgentConfig config) {
+                    return stt;
+                }
+
+                @Override
+                public LlmClient createLlm(AgentConfig config) {
+                    return llm;
+                }
+            });
+            agent.start(ctx, AgentConfig.from(ctx), AgentCallbacks.of(
+                    p -> {}, f -> {}, questions::add, d -> {}, () -> {}, e -> {}, () -> {}));
+        }
+
+        // [recorded, replayed, matched, extra]
+        long[] compareQuestions() {
+            List<String> remaining = recordedQuestions.stream().map(SessionReplayMain::normalize).collect(Collectors.toList());
+            List<String> replayed;
+            synchronized (questions) {
+                replayed = new ArrayList<>(questions);
+            }
+            long matched = 0, extra = 0;
+            for (String q : replayed) {
+                if (remaining.remove(normalize(q))) {
+                    matched++;
+                } else {
+                    extra++;
+                    System.out.println("  EXTRA   " + q);
+                }
+            }
+            for (String q : recordedQuestions) {
+                if (remaining.contains(normalize(q))) {
+                    remaining.remove(normalize(q));
+                    System.out.println("  MISSED  " + q);
+                }
+            }
+            System.out.println(String.format("  questions recorded=%d replayed=%d matched=%d missed=%d extra=%d",
+                    recordedQuestions.size(), replayed.size(), matched, recordedQuestions.size() - matched, extra));
+            return new long[]{recordedQuestions.size(), replayed.size(), matched, extra};
+        }
+    }
+}
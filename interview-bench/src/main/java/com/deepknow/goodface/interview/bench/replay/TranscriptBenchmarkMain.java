@@ -0,0 +1,194 @@
+package com.deepknow.goodface.interview.bench.replay;
+
+import com.deepknow.goodface.interview.bench.mock.InProcessLlmClient;
+import com.deepknow.goodface.interview.bench.mock.ReplaySttClient;
+import com.deepknow.goodface.interview.domain.agent.AgentCallbacks;
+import com.deepknow.goodface.interview.domain.agent.AgentConfig;
+import com.deepknow.goodface.interview.domain.agent.AgentFactory;
+import com.deepknow.goodface.interview.domain.agent.DefaultInterviewAgent;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.SttClient;
+import com.deepknow.goodface.interview.domain.session.model.InterviewMessage;
+import com.deepknow.goodface.interview.domain.session.model.SessionContext;
+import com.deepknow.goodface.interview.repo.mapper.InterviewMessageMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 interview_message 存量数据的离线转写回放基准：按会话读取用户消息（即当时的 STT final 文本），
+ * 切句后合成 partial/final 时间线喂给 DefaultInterviewAgent，LLM 使用进程内 Mock（{@link InProcessLlmClient}，不走网络）。
+ * <p>
+ * 输出：每 CPU 秒处理的片段数（segments_per_cpu_second，即每核吞吐）、每片段各类 LLM 调用数、每片段 CPU 开销（管线自身，不含网络）。
+ * 数据在计时前全部读入，计时只覆盖回放阶段。
+ * <p>
+ * 参数（系统属性）：
+ * <ul>
+ *   <li>bench.jdbcUrl / bench.jdbcUser / bench.jdbcPassword；bench.jdbcDriver，默认 com.mysql.cj.jdbc.Driver</li>
+ *   <li>bench.sessions：最多读取的会话数，默认 50；bench.afterSessionId：从该会话 ID 之后开始（分批跑全量时续跑）</li>
+ *   <li>bench.concurrency：同时回放的会话数，默认 50（按批回放，批内并发）</li>
+ *   <li>bench.partialIntervalMillis：合成 partial 的间隔，默认 200，≤0 只推 final；bench.sentenceGapMillis：句间停顿，默认 1500；
+ *       bench.turnGapMillis：消息（轮次）间停顿，默认 3000</li>
+ *   <li>bench.llmLatencyMillis：Mock LLM 每次调用的阻塞时长，默认 0；bench.drainMillis：每批收尾等待，默认 3000</li>
+ *   <li>bench.config.&lt;key&gt;：覆盖会话配置（同 AgentConfig 键）</li>
+ * </ul>
+ */
+public class TranscriptBenchmarkMain {
+    private static final String CONFIG_PREFIX = "bench.config.";
+    private static final int PAGE = 500;
+
+    public static void main(String[] args) throws Exception {
+        int maxSessions = Integer.getInteger("bench.sessions", 50);
+        int concurrency = Math.max(1, Integer.getInteger("bench.concurrency", 50));
+        long partialInterval = Long.getLong("bench.partialIntervalMillis", 200);
+        long sentenceGap = Long.getLong("bench.sentenceGapMillis", 1500);
+        long turnGap = Long.getLong("bench.turnGapMillis", 3000);
+        long llmLatency = Long.getLong("bench.llmLatencyMillis", 0);
+        long drainMillis = Long.getLong("bench.drainMillis", 3000);
+        System.setProperty("record.enabled", "false");
+
+        Map<String, List<ReplaySttClient.Event>> timelines = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        long segments = 0, userMessages = 0, audioMillis = 0;
+        try (SqlSession session = openSessionFactory().openSession()) {
+            InterviewMessageMapper mapper = session.getMapper(InterviewMessageMapper.class);
+            String after = System.getProperty("bench.afterSessionId");
+            while (order.size() < maxSessions) {
+                List<String> ids = mapper.listSessionIds(after, Math.min(PAGE, maxSessions - order.size()));
+                if (ids.isEmpty()) break;
+                for (String id : ids) {
+                    List<ReplaySttClient.Event> timeline = new ArrayList<>();
+                    long cursor = 0;
+                    for (InterviewMessage m : mapper.listBySession(id)) {
+                        if (!"user".equals(m.getRole()) || m.getContent() == null) continue;
+                        userMessages++;
+                        for (String sentence : splitSentences(m.getContent())) {
+                            if (partialInterval > 0) {
+                                cursor = ReplaySttClient.synthesize(timeline, sentence, cursor, partialInterval);
+                            } else {
+                                cursor += sentence.length() * 150L;
+                                timeline.add(new ReplaySttClient.Event(cursor, true, sentence));
+                            }
+                            cursor += sentenceGap;
+                            segments++;
+                        }
+                        cursor += turnGap;
+                    }
+                    if (timeline.isEmpty()) continue;
+                    timelines.put(id, timeline);
+                    order.add(id);
+                    audioMillis += timeline.get(timeline.size() - 1).offsetMillis;
+                }
+                after = ids.get(ids.size() - 1);
+            }
+        }
+        System.out.println(String.format("loaded sessions=%d userMessages=%d segments=%d audioMinutes=%.1f lastSessionId=%s",
+                order.size(), userMessages, segments, audioMillis / 60000.0, order.isEmpty() ? "" : order.get(order.size() - 1)));
+        if (order.isEmpty()) System.exit(0);
+
+        Map<LlmOperation, AtomicLong> calls = InProcessLlmClient.newCounters();
+        AtomicLong questions = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        Map<String, Object> overrides = overrides();
+        com.sun.management.OperatingSystemMXBean os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = os.getProcessCpuTime();
+        long wallStart = System.nanoTime();
+        for (int from = 0; from < order.size(); from += concurrency) {
+            List<DefaultInterviewAgent> agents = new ArrayList<>();
+            long longest = 0;
+            for (String id : order.subList(from, Math.min(order.size(), from + concurrency))) {
+                List<ReplaySttClient.Event> timeline = timelines.get(id);
+                longest = Math.max(longest, timeline.get(timeline.size() - 1).offsetMillis);
+                DefaultInterviewAgent agent = new DefaultInterviewAgent(new AgentFactory() {
+                    @Override
+                    public SttClient createStt(AgentConfig config) {
+                        return new ReplaySttClient(timeline, 1.0);
+                    }
+
+                    @Override
+                    public LlmClient createLlm(AgentConfig config) {
+                        return new InProcessLlmClient(calls, llmLatency);
+                    }
+                });
+                Map<String, Object> cfg = new HashMap<>(overrides);
+                cfg.put("llm.apiKey", "bench");
+                cfg.put("stt.apiKey", "bench");
+                SessionContext ctx = new SessionContext("bench-" + id, "bench", null, cfg);
+                agent.start(ctx, AgentConfig.from(ctx), AgentCallbacks.of(
+                        p -> {}, f -> {}, q -> questions.incrementAndGet(), d -> {}, () -> {}, e -> errors.incrementAndGet(), () -> {}));
+                agents.add(agent);
+            }
+            Thread.sleep(longest + drainMillis);
+            agents.forEach(DefaultInterviewAgent::close);
+        }
+        double cpuSeconds = (os.getProcessCpuTime() - cpuStart) / 1e9;
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(String.format("replayed sessions=%d segments=%d questions=%d errors=%d wallSeconds=%.1f cpuSeconds=%.2f cores=%d",
+                order.size(), segments, questions.get(), errors.get(), wallSeconds, cpuSeconds, cores));
+        System.out.println(String.format("segments_per_cpu_second=%.1f cpu_ms_per_segment=%.3f cpu_utilization=%.3f",
+                cpuSeconds > 0 ? segments / cpuSeconds : 0, segments > 0 ? cpuSeconds * 1000 / segments : 0, cpuSeconds / wallSeconds / cores));
+        StringBuilder perSegment = new StringBuilder("llm_calls_per_segment");
+        long total = 0;
+        for (Map.Entry<LlmOperation, AtomicLong> e : calls.entrySet()) {
+            total += e.getValue().get();
+            perSegment.append(String.format(" %s=%.3f", e.getKey().tag(), (double) e.getValue().get() / segments));
+        }
+        perSegment.append(String.format(" total=%.3f", (double) total / segments));
+        System.out.println(perSegment);
+        System.exit(0);
+    }
+
+    private static SqlSessionFactory openSessionFactory() throws Exception {
+        PooledDataSource ds = new PooledDataSource(System.getProperty("bench.jdbcDriver", "com.mysql.cj.jdbc.Driver"),
+                System.getProperty("bench.jdbcUrl"), System.getProperty("bench.jdbcUser"), System.getProperty("bench.jdbcPassword"));
+        Configuration configuration = new Configuration(new Environment("bench", new JdbcTransactionFactory(), ds));
+        String resource = "mappers/session/InterviewMessageMapper.xml";
+        try (InputStream is = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(is, configuration, resource, configuration.getSqlFragments()).parse();
+        }
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    // 按句末标点切句，标点保留在句尾
+    static List<String> splitSentences(String text) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            cur.append(c);
+            if ("。！？!?；;\n".indexOf(c) >= 0) {
+                String s = cur.toString().trim();
+                if (!s.isEmpty()) out.add(s);
+                cur.setLength(0);
+            }
+        }
+        String s = cur.toString().trim();
+        if (!s.isEmpty()) out.add(s);
+        return out;
+    }
+
+    private static Map<String, Object> overrides() {
+        Map<String, Object> cfg = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(CONFIG_PREFIX)) cfg.put(name.substring(CONFIG_PREFIX.length()), System.getProperty(name));
+        }
+        return cfg;
+    }
+}
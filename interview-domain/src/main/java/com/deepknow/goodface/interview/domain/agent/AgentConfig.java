@@ -2,6 +2,10 @@ package com.deepknow.goodface.interview.domain.agent;
 
 import com.deepknow.goodface.interview.domain.session.model.SessionContext;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +28,7 @@ public class AgentConfig {
     private final String llmApiKeyEnv;
     private final String llmApiKey;
     private final String llmModel;
+    private final String llmBaseUrl;
     private final double llmTemperature;
     private final double llmTopP;
     private final int llmMaxTokens;
@@ -43,17 +48,84 @@ public class AgentConfig {
     // 新增：最小字符阈值与自适应抑制
     private final int minCharsForDetection;
     private final boolean adaptiveSuppression;
+    // 自适应端点：按说话人停顿分布调整软端点与去抖时长（限制在上下界内）
+    private final boolean adaptiveEndpoint;
+    private final int softEndpointMinMillis;
+    private final int softEndpointMaxMillis;
+    private final int debounceMinMillis;
+    private final int debounceMaxMillis;
+    // 本地规则问题检测：明确非问题跳过 LLM，明确问题跳过提取
+    private final boolean localDetectorEnabled;
+    private final double detectorQuestionThreshold;
+    private final double detectorNonQuestionThreshold;
+    // SimHash 问题索引：距离足够近/足够远时本地判定等价关系，模糊区间才调用 LLM
+    private final boolean simhashEnabled;
+    private final int simhashSameMaxDistance;
+    private final int simhashNewMinDistance;
+    // 按调用类型的上下文 token 预算（≤0 不限制）
+    private final Map<LlmOperation, Integer> contextTokenBudgets;
+    // 分类类 LLM 调用单飞去重与短时结果缓存
+    private final boolean llmSingleFlight;
+    private final int llmSingleFlightTtlMillis;
+    // 进程级 LLM 准入控制（同一 Key + 模型共享，仅服务端配置）
+    private final boolean llmAdmissionEnabled;
+    private final double llmAdmissionPermitsPerSecond;
+    private final int llmAdmissionBurst;
+    private final int llmAdmissionMaxInFlight;
+    private final int llmAdmissionMaxQueue;
+    // 分类调用对冲（按近期 p95 延迟发第二个请求）与按服务地址的熔断（仅服务端配置）
+    private final boolean llmHedgeEnabled;
+    private final int llmHedgeMinDelayMillis;
+    private final int llmHedgeMaxDelayMillis;
+    private final double llmHedgeMaxRatio;
+    private final boolean llmBreakerEnabled;
+    private final int llmBreakerWindowSize;
+    private final int llmBreakerMinCalls;
+    private final double llmBreakerFailureRate;
+    private final int llmBreakerOpenMillis;
+    // 按调用类型的模型路由：候选模型（快到慢）、按类型指定的模型与延迟 SLO
+    private final boolean llmRouteEnabled;
+    private final List<String> llmRouteModels;
+    private final Map<LlmOperation, String> llmRouteModelOverrides;
+    private final Map<LlmOperation, Integer> llmRouteSloMillis;
+    // 片段截止时间（自登记起，≤0 关闭）；排队超过该时长且已有更新片段时丢弃
+    private final int segmentDeadlineMillis;
+    private final int segmentStaleQueueMillis;
+    // 问题提取走流式：首行完成即返回，“无问题”开头立即中止
+    private final boolean llmExtractStreaming;
+    // 等价/关系判定走流式，增量解析出 class（NEW 时连同 canonical）即中止生成
+    private final boolean llmJudgeStreaming;
+    // 会话录制：STT 事件与 LLM 请求/响应按行追加到 recordDir/<sessionId>.rec.jsonl，供离线回放
+    private final boolean recordEnabled;
+    private final String recordDir;
 
     public AgentConfig(String sttProvider,
                        String sttApiKeyEnv, String sttApiKey, String sttModel, int sttSampleRate, String sttLanguage,
                        int softEndpointMillis, int maxSegmentChars, boolean earlyCommitPunctuation,
                        String llmProvider,
-                       String llmApiKeyEnv, String llmApiKey, String llmModel, double llmTemperature, double llmTopP,
+                       String llmApiKeyEnv, String llmApiKey, String llmModel, String llmBaseUrl,
+                       double llmTemperature, double llmTopP,
                        int llmMaxTokens, boolean llmStreaming,
                        boolean llmSimilarityEnabled, String llmSimilarityPromptVersion, int llmSimilarityTimeoutMillis,
                        int contextWindowSize, String userPrompt, int maxUtterances, int debounceMillis,
                        double similarityThreshold, boolean answerOnlyOnQuestion,
-                       int minCharsForDetection, boolean adaptiveSuppression) {
+                       int minCharsForDetection, boolean adaptiveSuppression,
+                       boolean adaptiveEndpoint, int softEndpointMinMillis, int softEndpointMaxMillis,
+                       int debounceMinMillis, int debounceMaxMillis,
+                       boolean localDetectorEnabled, double detectorQuestionThreshold, double detectorNonQuestionThreshold,
+                       boolean simhashEnabled, int simhashSameMaxDistance, int simhashNewMinDistance,
+                       Map<LlmOperation, Integer> contextTokenBudgets,
+                       boolean llmSingleFlight, int llmSingleFlightTtlMillis,
+                       boolean llmAdmissionEnabled, double llmAdmissionPermitsPerSecond, int llmAdmissionBurst,
+                       int llmAdmissionMaxInFlight, int llmAdmissionMaxQueue,
+                       boolean llmHedgeEnabled, int llmHedgeMinDelayMillis, int llmHedgeMaxDelayMillis, double llmHedgeMaxRatio,
+                       boolean llmBreakerEnabled, int llmBreakerWindowSize, int llmBreakerMinCalls,
+                       double llmBreakerFailureRate, int llmBreakerOpenMillis,
+                       boolean llmRouteEnabled, List<String> llmRouteModels,
+                       Map<LlmOperation, String> llmRouteModelOverrides, Map<LlmOperation, Integer> llmRouteSloMillis,
+                       int segmentDeadlineMillis, int segmentStaleQueueMillis,
+                       boolean llmExtractStreaming, boolean llmJudgeStreaming,
+                       boolean recordEnabled, String recordDir) {
         this.sttProvider = sttProvider;
         this.sttApiKeyEnv = sttApiKeyEnv;
         this.sttApiKey = sttApiKey;
@@ -67,6 +139,7 @@ public class AgentConfig {
         this.llmApiKeyEnv = llmApiKeyEnv;
         this.llmApiKey = llmApiKey;
         this.llmModel = llmModel;
+        this.llmBaseUrl = llmBaseUrl;
         this.llmTemperature = llmTemperature;
         this.llmTopP = llmTopP;
         this.llmMaxTokens = llmMaxTokens;
@@ -82,6 +155,44 @@ public class AgentConfig {
         this.answerOnlyOnQuestion = answerOnlyOnQuestion;
         this.minCharsForDetection = minCharsForDetection;
         this.adaptiveSuppression = adaptiveSuppression;
+        this.adaptiveEndpoint = adaptiveEndpoint;
+        this.softEndpointMinMillis = softEndpointMinMillis;
+        this.softEndpointMaxMillis = softEndpointMaxMillis;
+        this.debounceMinMillis = debounceMinMillis;
+        this.debounceMaxMillis = debounceMaxMillis;
+        this.localDetectorEnabled = localDetectorEnabled;
+        this.detectorQuestionThreshold = detectorQuestionThreshold;
+        this.detectorNonQuestionThreshold = detectorNonQuestionThreshold;
+        this.simhashEnabled = simhashEnabled;
+        this.simhashSameMaxDistance = simhashSameMaxDistance;
+        this.simhashNewMinDistance = simhashNewMinDistance;
+        this.contextTokenBudgets = contextTokenBudgets == null ? new EnumMap<>(LlmOperation.class) : contextTokenBudgets;
+        this.llmSingleFlight = llmSingleFlight;
+        this.llmSingleFlightTtlMillis = llmSingleFlightTtlMillis;
+        this.llmAdmissionEnabled = llmAdmissionEnabled;
+        this.llmAdmissionPermitsPerSecond = llmAdmissionPermitsPerSecond;
+        this.llmAdmissionBurst = llmAdmissionBurst;
+        this.llmAdmissionMaxInFlight = llmAdmissionMaxInFlight;
+        this.llmAdmissionMaxQueue = llmAdmissionMaxQueue;
+        this.llmHedgeEnabled = llmHedgeEnabled;
+        this.llmHedgeMinDelayMillis = llmHedgeMinDelayMillis;
+        this.llmHedgeMaxDelayMillis = llmHedgeMaxDelayMillis;
+        this.llmHedgeMaxRatio = llmHedgeMaxRatio;
+        this.llmBreakerEnabled = llmBreakerEnabled;
+        this.llmBreakerWindowSize = llmBreakerWindowSize;
+        this.llmBreakerMinCalls = llmBreakerMinCalls;
+        this.llmBreakerFailureRate = llmBreakerFailureRate;
+        this.llmBreakerOpenMillis = llmBreakerOpenMillis;
+        this.llmRouteEnabled = llmRouteEnabled;
+        this.llmRouteModels = llmRouteModels == null ? Collections.emptyList() : llmRouteModels;
+        this.llmRouteModelOverrides = llmRouteModelOverrides == null ? new EnumMap<>(LlmOperation.class) : llmRouteModelOverrides;
+        this.llmRouteSloMillis = llmRouteSloMillis == null ? new EnumMap<>(LlmOperation.class) : llmRouteSloMillis;
+        this.segmentDeadlineMillis = segmentDeadlineMillis;
+        this.segmentStaleQueueMillis = segmentStaleQueueMillis;
+        this.llmExtractStreaming = llmExtractStreaming;
+        this.llmJudgeStreaming = llmJudgeStreaming;
+        this.recordEnabled = recordEnabled;
+        this.recordDir = recordDir;
     }
 
     public static AgentConfig from(SessionContext ctx) {
@@ -102,6 +213,8 @@ public class AgentConfig {
         String llmApiKeyProp = getString(cfg, "llm.apiKey", System.getProperty("llm.apiKey"));
         String llmApiKey = (llmApiKeyProp != null && !llmApiKeyProp.isEmpty()) ? llmApiKeyProp : System.getenv(llmApiKeyEnv);
         String llmModel = getString(cfg, "llm.model", System.getProperty("llm.model", "qwen-turbo"));
+        // 请求会带上服务端的 API Key，地址只取服务端配置，不接受会话配置覆盖
+        String llmBaseUrl = System.getProperty("llm.baseUrl");
         double llmTemperature = getDouble(cfg, "llm.temperature", Double.parseDouble(System.getProperty("llm.temperature", "0.5")));
         double llmTopP = getDouble(cfg, "llm.topP", Double.parseDouble(System.getProperty("llm.topP", "0.9")));
         int llmMaxTokens = getInt(cfg, "llm.maxTokens", Integer.parseInt(System.getProperty("llm.maxTokens", "512")));
@@ -118,16 +231,88 @@ public class AgentConfig {
         boolean answerOnlyOnQuestion = getBoolean(cfg, "context.answerOnlyOnQuestion", true);
         int minCharsForDetection = getInt(cfg, "context.minCharsForDetection", 20);
         boolean adaptiveSuppression = getBoolean(cfg, "context.adaptiveSuppression", true);
+        boolean adaptiveEndpoint = getBoolean(cfg, "endpoint.adaptive", true);
+        int softEndpointMinMillis = getInt(cfg, "endpoint.softMinMillis", 600);
+        int softEndpointMaxMillis = getInt(cfg, "endpoint.softMaxMillis", 2000);
+        int debounceMinMillis = getInt(cfg, "endpoint.debounceMinMillis", 400);
+        int debounceMaxMillis = getInt(cfg, "endpoint.debounceMaxMillis", 1800);
+        boolean localDetectorEnabled = getBoolean(cfg, "detector.localRules", true);
+        double detectorQuestionThreshold = getDouble(cfg, "detector.questionThreshold", 0.8);
+        double detectorNonQuestionThreshold = getDouble(cfg, "detector.nonQuestionThreshold", 0.15);
+        boolean simhashEnabled = getBoolean(cfg, "similarity.simhash", true);
+        int simhashSameMaxDistance = getInt(cfg, "similarity.simhashSameMaxDistance", 6);
+        int simhashNewMinDistance = getInt(cfg, "similarity.simhashNewMinDistance", 26);
+        Map<LlmOperation, Integer> contextTokenBudgets = new EnumMap<>(LlmOperation.class);
+        contextTokenBudgets.put(LlmOperation.EXTRACT_QUESTION, getInt(cfg, "context.tokenBudget.extract_question", 256));
+        contextTokenBudgets.put(LlmOperation.JUDGE_EQUIVALENCE, getInt(cfg, "context.tokenBudget.judge_equivalence", 192));
+        contextTokenBudgets.put(LlmOperation.JUDGE_RELATION, getInt(cfg, "context.tokenBudget.judge_relation", 256));
+        contextTokenBudgets.put(LlmOperation.UPDATE_MEMORY, getInt(cfg, "context.tokenBudget.update_memory", 512));
+        contextTokenBudgets.put(LlmOperation.GENERATE_ANSWER, getInt(cfg, "context.tokenBudget.generate_answer", 3000));
+        boolean llmSingleFlight = getBoolean(cfg, "llm.singleFlight", true);
+        int llmSingleFlightTtlMillis = getInt(cfg, "llm.singleFlightTtlMillis", 3000);
+        // 准入控制器进程内共享：只取服务端配置，会话不能关闭或改写全局限额
+        boolean llmAdmissionEnabled = Boolean.parseBoolean(System.getProperty("llm.admission.enabled", "true"));
+        double llmAdmissionPermitsPerSecond = Double.parseDouble(System.getProperty("llm.admission.permitsPerSecond", "20"));
+        int llmAdmissionBurst = Integer.parseInt(System.getProperty("llm.admission.burst", "40"));
+        int llmAdmissionMaxInFlight = Integer.parseInt(System.getProperty("llm.admission.maxInFlight", "64"));
+        int llmAdmissionMaxQueue = Integer.parseInt(System.getProperty("llm.admission.maxQueue", "256"));
+        // 对冲策略与熔断器按服务地址进程内共享：同样只取服务端配置
+        boolean llmHedgeEnabled = Boolean.parseBoolean(System.getProperty("llm.hedge.enabled", "false"));
+        int llmHedgeMinDelayMillis = Integer.parseInt(System.getProperty("llm.hedge.minDelayMillis", "150"));
+        int llmHedgeMaxDelayMillis = Integer.parseInt(System.getProperty("llm.hedge.maxDelayMillis", "2000"));
+        double llmHedgeMaxRatio = Double.parseDouble(System.getProperty("llm.hedge.maxRatio", "0.1"));
+        boolean llmBreakerEnabled = Boolean.parseBoolean(System.getProperty("llm.breaker.enabled", "true"));
+        int llmBreakerWindowSize = Integer.parseInt(System.getProperty("llm.breaker.windowSize", "20"));
+        int llmBreakerMinCalls = Integer.parseInt(System.getProperty("llm.breaker.minCalls", "10"));
+        double llmBreakerFailureRate = Double.parseDouble(System.getProperty("llm.breaker.failureRate", "0.5"));
+        int llmBreakerOpenMillis = Integer.parseInt(System.getProperty("llm.breaker.openMillis", "10000"));
+        boolean llmRouteEnabled = getBoolean(cfg, "llm.route.enabled", true);
+        // 候选模型由模型目录写入系统属性（基础档在前）；未配置时仅使用会话模型
+        List<String> llmRouteModels = new ArrayList<>();
+        for (String m : getString(cfg, "llm.route.models", System.getProperty("llm.route.models", "")).split(",")) {
+            if (!m.trim().isEmpty()) llmRouteModels.add(m.trim());
+        }
+        Map<LlmOperation, String> llmRouteModelOverrides = new EnumMap<>(LlmOperation.class);
+        Map<LlmOperation, Integer> llmRouteSloMillis = new EnumMap<>(LlmOperation.class);
+        for (LlmOperation op : LlmOperation.values()) {
+            String m = getString(cfg, "llm.route." + op.tag(), null);
+            if (m != null && !m.trim().isEmpty()) llmRouteModelOverrides.put(op, m.trim());
+        }
+        llmRouteSloMillis.put(LlmOperation.EXTRACT_QUESTION, getInt(cfg, "llm.route.sloMillis.extract_question", 1500));
+        llmRouteSloMillis.put(LlmOperation.JUDGE_EQUIVALENCE, getInt(cfg, "llm.route.sloMillis.judge_equivalence", 1500));
+        llmRouteSloMillis.put(LlmOperation.JUDGE_RELATION, getInt(cfg, "llm.route.sloMillis.judge_relation", 1500));
+        llmRouteSloMillis.put(LlmOperation.UPDATE_MEMORY, getInt(cfg, "llm.route.sloMillis.update_memory", 5000));
+        llmRouteSloMillis.put(LlmOperation.GENERATE_ANSWER, getInt(cfg, "llm.route.sloMillis.generate_answer", 2000));
+        int segmentDeadlineMillis = getInt(cfg, "segment.deadlineMillis", 8000);
+        int segmentStaleQueueMillis = getInt(cfg, "segment.staleQueueMillis", 1500);
+        boolean llmExtractStreaming = getBoolean(cfg, "llm.extract.streaming", true);
+        boolean llmJudgeStreaming = getBoolean(cfg, "llm.judge.streaming", true);
+        // 录制内容含完整转写与提示词，且会在服务端创建目录写文件：只取服务端配置，不接受会话配置覆盖
+        boolean recordEnabled = Boolean.parseBoolean(System.getProperty("record.enabled", "false"));
+        String recordDir = System.getProperty("record.dir", "recordings");
 
         return new AgentConfig(sttProvider,
                 sttApiKeyEnv, sttApiKey, sttModel, sttSampleRate, sttLanguage,
                 softEndpointMillis, maxSegmentChars, earlyCommitPunctuation,
                 llmProvider,
-                llmApiKeyEnv, llmApiKey, llmModel, llmTemperature, llmTopP,
+                llmApiKeyEnv, llmApiKey, llmModel, llmBaseUrl, llmTemperature, llmTopP,
                 llmMaxTokens, llmStreaming,
                 llmSimilarityEnabled, llmSimilarityPromptVersion, llmSimilarityTimeoutMillis,
                 contextWindowSize, userPrompt, maxUtterances, debounceMillis, similarityThreshold, answerOnlyOnQuestion,
-                minCharsForDetection, adaptiveSuppression);
+                minCharsForDetection, adaptiveSuppression,
+                adaptiveEndpoint, softEndpointMinMillis, softEndpointMaxMillis, debounceMinMillis, debounceMaxMillis,
+                localDetectorEnabled, detectorQuestionThreshold, detectorNonQuestionThreshold,
+                simhashEnabled, simhashSameMaxDistance, simhashNewMinDistance,
+                contextTokenBudgets,
+                llmSingleFlight, llmSingleFlightTtlMillis,
+                llmAdmissionEnabled, llmAdmissionPermitsPerSecond, llmAdmissionBurst,
+                llmAdmissionMaxInFlight, llmAdmissionMaxQueue,
+                llmHedgeEnabled, llmHedgeMinDelayMillis, llmHedgeMaxDelayMillis, llmHedgeMaxRatio,
+                llmBreakerEnabled, llmBreakerWindowSize, llmBreakerMinCalls, llmBreakerFailureRate, llmBreakerOpenMillis,
+                llmRouteEnabled, llmRouteModels, llmRouteModelOverrides, llmRouteSloMillis,
+                segmentDeadlineMillis, segmentStaleQueueMillis,
+                llmExtractStreaming, llmJudgeStreaming,
+                recordEnabled, recordDir);
     }
 
     private static String getString(Map<String, Object> cfg, String key, String def) {
@@ -168,6 +353,7 @@ public class AgentConfig {
     public String getLlmApiKeyEnv() { return llmApiKeyEnv; }
     public String getLlmApiKey() { return llmApiKey; }
     public String getLlmModel() { return llmModel; }
+    public String getLlmBaseUrl() { return llmBaseUrl; }
     public double getLlmTemperature() { return llmTemperature; }
     public double getLlmTopP() { return llmTopP; }
     public int getLlmMaxTokens() { return llmMaxTokens; }
@@ -184,4 +370,45 @@ public class AgentConfig {
     public boolean isAnswerOnlyOnQuestion() { return answerOnlyOnQuestion; }
     public int getMinCharsForDetection() { return minCharsForDetection; }
     public boolean isAdaptiveSuppression() { return adaptiveSuppression; }
+    public boolean isAdaptiveEndpoint() { return adaptiveEndpoint; }
+    public int getSoftEndpointMinMillis() { return softEndpointMinMillis; }
+    public int getSoftEndpointMaxMillis() { return softEndpointMaxMillis; }
+    public int getDebounceMinMillis() { return debounceMinMillis; }
+    public int getDebounceMaxMillis() { return debounceMaxMillis; }
+    public boolean isLocalDetectorEnabled() { return localDetectorEnabled; }
+    public double getDetectorQuestionThreshold() { return detectorQuestionThreshold; }
+    public double getDetectorNonQuestionThreshold() { return detectorNonQuestionThreshold; }
+    public boolean isSimhashEnabled() { return simhashEnabled; }
+    public int getSimhashSameMaxDistance() { return simhashSameMaxDistance; }
+    public int getSimhashNewMinDistance() { return simhashNewMinDistance; }
+    public boolean isLlmSingleFlight() { return llmSingleFlight; }
+    public int getLlmSingleFlightTtlMillis() { return llmSingleFlightTtlMillis; }
+    public boolean isLlmAdmissionEnabled() { return llmAdmissionEnabled; }
+    public double getLlmAdmissionPermitsPerSecond() { return llmAdmissionPermitsPerSecond; }
+    public int getLlmAdmissionBurst() { return llmAdmissionBurst; }
+    public int getLlmAdmissionMaxInFlight() { return llmAdmissionMaxInFlight; }
+    public int getLlmAdmissionMaxQueue() { return llmAdmissionMaxQueue; }
+    public boolean isLlmHedgeEnabled() { return llmHedgeEnabled; }
+    public int getLlmHedgeMinDelayMillis() { return llmHedgeMinDelayMillis; }
+    public int getLlmHedgeMaxDelayMillis() { return llmHedgeMaxDelayMillis; }
+    public double getLlmHedgeMaxRatio() { return llmHedgeMaxRatio; }
+    public boolean isLlmBreakerEnabled() { return llmBreakerEnabled; }
+    public int getLlmBreakerWindowSize() { return llmBreakerWindowSize; }
+    public int getLlmBreakerMinCalls() { return llmBreakerMinCalls; }
+    public double getLlmBreakerFailureRate() { return llmBreakerFailureRate; }
+    public int getLlmBreakerOpenMillis() { return llmBreakerOpenMillis; }
+    public boolean isLlmRouteEnabled() { return llmRouteEnabled; }
+    public List<String> getLlmRouteModels() { return llmRouteModels; }
+    public Map<LlmOperation, String> getLlmRouteModelOverrides() { return llmRouteModelOverrides; }
+    public Map<LlmOperation, Integer> getLlmRouteSloMillis() { return llmRouteSloMillis; }
+    public int getSegmentDeadlineMillis() { return segmentDeadlineMillis; }
+    public int getSegmentStaleQueueMillis() { return segmentStaleQueueMillis; }
+    public boolean isLlmExtractStreaming() { return llmExtractStreaming; }
+    public boolean isLlmJudgeStreaming() { return llmJudgeStreaming; }
+    public boolean isRecordEnabled() { return recordEnabled; }
+    public String getRecordDir() { return recordDir; }
+    public int getContextTokenBudget(LlmOperation op) {
+        Integer v = contextTokenBudgets.get(op);
+        return v == null ? 0 : v;
+    }
 }
\ No newline at end of file
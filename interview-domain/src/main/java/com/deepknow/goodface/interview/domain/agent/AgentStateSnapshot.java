@@ -0,0 +1,71 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agent 会话状态快照：用于跨实例恢复上下文（最近问题/陈述、补充、关键事实、最近提交片段、已提问题历史）。
+ */
+public class AgentStateSnapshot {
+    private final String lastQuestion;
+    private final List<String> recentQuestions;
+    private final List<String> recentUtterances;
+    private final String elaboration;
+    private final Map<String, String> facts;
+    private final List<String> recentCommitted;
+    private final long updatedAtMillis;
+    private final List<String> questionHistory;
+
+    public AgentStateSnapshot(String lastQuestion,
+                              List<String> recentQuestions,
+                              List<String> recentUtterances,
+                              String elaboration,
+                              Map<String, String> facts,
+                              List<String> recentCommitted,
+                              long updatedAtMillis) {
+        this(lastQuestion, recentQuestions, recentUtterances, elaboration, facts, recentCommitted, updatedAtMillis, null);
+    }
+
+    public AgentStateSnapshot(String lastQuestion,
+                              List<String> recentQuestions,
+                              List<String> recentUtterances,
+                              String elaboration,
+                              Map<String, String> facts,
+                              List<String> recentCommitted,
+                              long updatedAtMillis,
+                              List<String> questionHistory) {
+        this.lastQuestion = lastQuestion;
+        this.recentQuestions = recentQuestions == null ? Collections.emptyList() : recentQuestions;
+        this.recentUtterances = recentUtterances == null ? Collections.emptyList() : recentUtterances;
+        this.elaboration = elaboration == null ? "" : elaboration;
+        this.facts = facts == null ? new LinkedHashMap<>() : facts;
+        this.recentCommitted = recentCommitted == null ? Collections.emptyList() : recentCommitted;
+        this.updatedAtMillis = updatedAtMillis;
+        this.questionHistory = questionHistory == null ? Collections.emptyList() : questionHistory;
+    }
+
+    public String getLastQuestion() { return lastQuestion; }
+    public List<String> getRecentQuestions() { return recentQuestions; }
+    public List<String> getRecentUtterances() { return recentUtterances; }
+    public String getElaboration() { return elaboration; }
+    public Map<String, String> getFacts() { return facts; }
+    public List<String> getRecentCommitted() { return recentCommitted; }
+    public long getUpdatedAtMillis() { return updatedAtMillis; }
+    public List<String> getQuestionHistory() { return questionHistory; }
+
+    @Override
+    public String toString() {
+        return "AgentStateSnapshot{" +
+                "lastQuestion='" + lastQuestion + '\'' +
+                ", recentQuestions=" + recentQuestions.size() +
+                ", recentUtterances=" + recentUtterances.size() +
+                ", elaborationLen=" + elaboration.length() +
+                ", facts=" + facts.size() +
+                ", recentCommitted=" + recentCommitted.size() +
+                ", updatedAtMillis=" + updatedAtMillis +
+                ", questionHistory=" + questionHistory.size() +
+                '}';
+    }
+}
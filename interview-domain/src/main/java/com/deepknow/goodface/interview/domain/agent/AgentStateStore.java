@@ -0,0 +1,16 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+/**
+ * Agent 会话状态存储：在实例重启或重连落到其他副本时恢复上下文。
+ * 实现需容忍后端不可用（读失败返回 null，写失败仅记录日志）。
+ */
+public interface AgentStateStore {
+    /**
+     * 读取会话状态，不存在或读取失败时返回 null。
+     */
+    AgentStateSnapshot load(String sessionId);
+
+    void save(String sessionId, AgentStateSnapshot snapshot);
+
+    void delete(String sessionId);
+}
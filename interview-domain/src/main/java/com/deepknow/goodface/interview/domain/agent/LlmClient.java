@@ -3,6 +3,11 @@ package com.deepknow.goodface.interview.domain.agent;
 public interface LlmClient extends AutoCloseable {
     void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming);
     String extractQuestion(String text, String context);
+    /**
+     * 流式问题提取：首行完成即返回该行，输出以“无问题”开头时立即返回“无问题”，剩余生成被中止。
+     * 默认回退为非流式 {@link #extractQuestion}。
+     */
+    default String extractQuestionStreaming(String text, String context) { return extractQuestion(text, context); }
     String generateAnswer(String question, String context);
     /**
      * 直接使用LLM的流式输出，将增量片段通过回调返回。
@@ -17,6 +22,11 @@ public interface LlmClient extends AutoCloseable {
      */
     default void setSessionId(String sessionId) {}
 
+    /**
+     * 可选的调用监听：每次实际发出模型请求时回调一次（去重命中、熔断或截止时间拦截的调用不回调）；默认实现为空操作。
+     */
+    default void setCallListener(java.util.function.Consumer<LlmOperation> listener) {}
+
     /**
      * LLM 判定候选问题是否与最近问题同义/补充/全新/无问题。
      * 默认返回 null，表示未实现，由调用方自行降级处理。
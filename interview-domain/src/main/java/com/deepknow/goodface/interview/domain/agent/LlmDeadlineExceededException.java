@@ -0,0 +1,10 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+/**
+ * 片段截止时间内未拿到 LLM 结果：与熔断一样由调用方改用本地规则降级，过期片段随后在阶段检查处被放弃。
+ */
+public class LlmDeadlineExceededException extends LlmUnavailableException {
+    public LlmDeadlineExceededException(LlmOperation operation, long elapsedMillis) {
+        super("LLM deadline exceeded: op=" + operation.tag() + " elapsedMillis=" + elapsedMillis, operation);
+    }
+}
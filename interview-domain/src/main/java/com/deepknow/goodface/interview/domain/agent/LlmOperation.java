@@ -0,0 +1,26 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+/**
+ * LLM 调用类型：用于按调用区分上下文预算、指标与后续的路由/限流策略。
+ * richContext 为 true 的调用携带完整背景（简历/岗位描述），其余只携带最小上下文。
+ */
+public enum LlmOperation {
+    EXTRACT_QUESTION("extract_question", false),
+    JUDGE_EQUIVALENCE("judge_equivalence", false),
+    JUDGE_RELATION("judge_relation", false),
+    UPDATE_MEMORY("update_memory", false),
+    GENERATE_ANSWER("generate_answer", true);
+
+    private final String tag;
+    private final boolean richContext;
+
+    LlmOperation(String tag, boolean richContext) {
+        this.tag = tag;
+        this.richContext = richContext;
+    }
+
+    /** 指标标签与配置键使用的名称 */
+    public String tag() { return tag; }
+
+    public boolean isRichContext() { return richContext; }
+}
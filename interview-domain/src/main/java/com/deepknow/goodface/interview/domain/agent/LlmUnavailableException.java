@@ -0,0 +1,20 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+/**
+ * LLM 服务暂不可用（熔断打开，或见子类 {@link LlmDeadlineExceededException}）：分类类调用直接抛出，由调用方改用本地规则降级，不再等待超时。
+ */
+public class LlmUnavailableException extends RuntimeException {
+    private final LlmOperation operation;
+
+    public LlmUnavailableException(LlmOperation operation, String endpoint) {
+        super("LLM unavailable: op=" + operation.tag() + " endpoint=" + endpoint, null, false, false);
+        this.operation = operation;
+    }
+
+    protected LlmUnavailableException(String message, LlmOperation operation) {
+        super(message, null, false, false);
+        this.operation = operation;
+    }
+
+    public LlmOperation getOperation() { return operation; }
+}
@@ -20,5 +20,19 @@ public interface AudioStreamService {
 
     void flush(String wsSessionId);
 
+    /**
+     * 客户端心跳：没有音频时用于表明连接仍然存活，避免被空闲回收。
+     */
+    default void touch(String wsSessionId) {}
+
     void close(String wsSessionId);
+
+    /**
+     * 连接断开（非主动结束）：实现可在宽限期内保留 Agent，以便同一会话重连时直接复用。
+     * 默认行为等同于 flush + close。
+     */
+    default void detach(String wsSessionId) {
+        flush(wsSessionId);
+        close(wsSessionId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.deepknow.goodface.interview.domain.session.service;
+
+import com.deepknow.goodface.interview.domain.session.model.InterviewMessage;
+
+import java.util.List;
+
+public interface TranscriptService {
+    /** 按消息 ID 升序取 afterId（不含，null 表示从头）之后最多 limit 条 */
+    List<InterviewMessage> listPage(String sessionId, Long afterId, int limit);
+}
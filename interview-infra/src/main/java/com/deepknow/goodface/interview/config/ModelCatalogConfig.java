@@ -3,7 +3,31 @@ package com.deepknow.goodface.interview.config;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @EnableConfigurationProperties(ModelCatalogProperties.class)
 public class ModelCatalogConfig {
-}
\ No newline at end of file
+    private final ModelCatalogProperties props;
+
+    public ModelCatalogConfig(ModelCatalogProperties props) {
+        this.props = props;
+    }
+
+    @PostConstruct
+    public void init() {
+        // 将目录中的模型按“基础档在前、同档按配置顺序”写入系统属性，作为 LLM 路由的候选（快到慢）
+        List<String> basic = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        if (props.getAvailable() != null) {
+            for (ModelCatalogProperties.ModelSpec spec : props.getAvailable()) {
+                if (spec.getLlmModel() == null || spec.getLlmModel().isEmpty()) continue;
+                if ("basic".equalsIgnoreCase(spec.getTier())) basic.add(spec.getLlmModel()); else others.add(spec.getLlmModel());
+            }
+        }
+        basic.addAll(others);
+        if (!basic.isEmpty()) System.setProperty("llm.route.models", String.join(",", basic));
+    }
+}
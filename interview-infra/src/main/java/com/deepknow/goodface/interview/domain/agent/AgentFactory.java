@@ -1,6 +1,11 @@
 package com.deepknow.goodface.interview.domain.agent;
 
 import com.deepknow.goodface.interview.domain.agent.LLM.AliyunLlmClient;
+import com.deepknow.goodface.interview.domain.agent.LLM.CircuitBreaker;
+import com.deepknow.goodface.interview.domain.agent.LLM.HedgePolicy;
+import com.deepknow.goodface.interview.domain.agent.LLM.LlmAdmissionController;
+import com.deepknow.goodface.interview.domain.agent.LLM.LlmModelRouter;
+import com.deepknow.goodface.interview.domain.agent.LLM.SingleFlightLlmClient;
 import com.deepknow.goodface.interview.domain.agent.STT.AliyunSttClient;
 
 /**
@@ -14,6 +19,30 @@ public class AgentFactory {
     }
 
     public LlmClient createLlm(AgentConfig config) {
-        return new AliyunLlmClient();
+        AliyunLlmClient client = new AliyunLlmClient();
+        client.setBaseUrl(config == null ? null : config.getLlmBaseUrl());
+        client.setJudgeStreaming(config != null && config.isLlmJudgeStreaming());
+        if (config != null && config.isLlmAdmissionEnabled()) {
+            LlmAdmissionController.Limits limits = new LlmAdmissionController.Limits(config.getLlmAdmissionPermitsPerSecond(),
+                    config.getLlmAdmissionBurst(), config.getLlmAdmissionMaxInFlight(), config.getLlmAdmissionMaxQueue());
+            client.setAdmission(model -> LlmAdmissionController.shared(config.getLlmBaseUrl(), config.getLlmApiKey(), model, limits));
+        }
+        if (config != null && config.isLlmRouteEnabled()) {
+            client.setModelRouter(new LlmModelRouter(config.getLlmRouteModels(), config.getLlmModel(),
+                    config.getLlmRouteModelOverrides(), config.getLlmRouteSloMillis()));
+        }
+        String endpoint = config == null || config.getLlmBaseUrl() == null ? AliyunLlmClient.DEFAULT_BASE_URL : config.getLlmBaseUrl();
+        if (config != null && config.isLlmBreakerEnabled()) {
+            client.setCircuitBreaker(CircuitBreaker.shared(endpoint, new CircuitBreaker.Settings(config.getLlmBreakerWindowSize(),
+                    config.getLlmBreakerMinCalls(), config.getLlmBreakerFailureRate(), config.getLlmBreakerOpenMillis())));
+        }
+        if (config != null && config.isLlmHedgeEnabled()) {
+            client.setHedgePolicy(HedgePolicy.shared(endpoint, config.getLlmHedgeMinDelayMillis(),
+                    config.getLlmHedgeMaxDelayMillis(), config.getLlmHedgeMaxRatio()));
+        }
+        if (config != null && config.isLlmSingleFlight()) {
+            return new SingleFlightLlmClient(client, config.getLlmSingleFlightTtlMillis());
+        }
+        return client;
     }
 }
\ No newline at end of file
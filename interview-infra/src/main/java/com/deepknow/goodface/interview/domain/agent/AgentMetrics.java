@@ -0,0 +1,46 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Agent 与会话管线的指标入口：统一注册到 Micrometer 全局注册表。
+ * <p>
+ * Spring Boot 运行时会把 Prometheus 注册表挂到全局注册表上；压测工具等非 Spring 环境下同样可用（仅本地聚合）。
+ */
+public final class AgentMetrics {
+    private AgentMetrics() {}
+
+    public static MeterRegistry registry() {
+        return Metrics.globalRegistry;
+    }
+
+    public static void count(String name, String... tags) {
+        Counter.builder(name).tags(tags).register(Metrics.globalRegistry).increment();
+    }
+
+    public static void count(String name, double amount, String... tags) {
+        Counter.builder(name).tags(tags).register(Metrics.globalRegistry).increment(amount);
+    }
+
+    public static void recordMillis(String name, long millis, String... tags) {
+        Timer.builder(name).tags(tags).publishPercentileHistogram()
+                .register(Metrics.globalRegistry).record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+
+    public static void summary(String name, double value, String... tags) {
+        DistributionSummary.builder(name).tags(tags).register(Metrics.globalRegistry).record(value);
+    }
+
+    public static <T> T gauge(String name, T obj, ToDoubleFunction<T> fn, String... tags) {
+        Gauge.builder(name, obj, fn).tags(tags).strongReference(true).register(Metrics.globalRegistry);
+        return obj;
+    }
+}
@@ -1,17 +1,63 @@
 package com.deepknow.goodface.interview.domain.agent;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 统一的 Agent 调度器提供者，用于管理跨 Agent 的定时与延迟任务。
+ * <p>
+ * 软端点、去抖、重连宽限等高频重置的计时器使用共享时间轮 {@link #timer()}（20ms 精度），
+ * 到期任务仍在调度线程池上执行。
+ * 读流截止时间等只负责关闭连接的看门狗走独立时间轮 {@link #watchdog()}，由单独的守护线程执行，
+ * 不会因调度线程池被阻塞的分析任务占满而延迟触发。
+ * 记忆维护等不在回答关键路径上的 LLM 调用走有界后台线程池 {@link #background()}，队列满时由调用方计数并丢弃。
  */
 public final class AgentSchedulers {
     private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2);
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer("agent-timer", 20, 512, SCHEDULER);
+    private static final ExecutorService BACKGROUND = newBackground(8, 1024);
+    private static final HashedWheelTimer WATCHDOG = new HashedWheelTimer("agent-watchdog", 20, 512,
+            Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "agent-watchdog-exec");
+                t.setDaemon(true);
+                return t;
+            }));
 
     private AgentSchedulers() {}
 
     public static ScheduledExecutorService get() {
         return SCHEDULER;
     }
-}
\ No newline at end of file
+
+    public static HashedWheelTimer timer() {
+        return TIMER;
+    }
+
+    /**
+     * 看门狗时间轮：任务只允许做关闭连接之类不阻塞的收尾动作。
+     */
+    public static HashedWheelTimer watchdog() {
+        return WATCHDOG;
+    }
+
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    private static ExecutorService newBackground(int threads, int queueSize) {
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "agent-bg-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,104 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+import java.time.Duration;
+
+/**
+ * 片段级截止时间：片段进入管线时确定，通过 {@link #enter()} 绑定到当前线程，下游各阶段（LLM 请求超时、准入排队、记忆更新）据此取剩余时间。
+ * <p>
+ * 过期的工作直接放弃，按阶段计入 interview.segment.deadline.expired{stage}。
+ */
+public final class Deadline {
+    /** 不设截止时间。 */
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long atMillis;
+
+    private Deadline(long atMillis) {
+        this.atMillis = atMillis;
+    }
+
+    /**
+     * 从现在起 millis 毫秒后到期；millis ≤ 0 表示不设截止时间。
+     */
+    public static Deadline after(long millis) {
+        return since(System.currentTimeMillis(), millis);
+    }
+
+    /**
+     * 从 startMillis 起 millis 毫秒后到期；millis ≤ 0 表示不设截止时间。
+     */
+    public static Deadline since(long startMillis, long millis) {
+        return millis <= 0 ? NONE : new Deadline(startMillis + millis);
+    }
+
+    /**
+     * 当前线程绑定的截止时间，未绑定时为 {@link #NONE}。
+     */
+    public static Deadline current() {
+        Deadline d = CURRENT.get();
+        return d == null ? NONE : d;
+    }
+
+    /**
+     * 按当前截止时间收紧默认超时，至少 1 毫秒。
+     */
+    public static Duration timeout(long defaultMillis) {
+        return Duration.ofMillis(Math.max(1, Math.min(defaultMillis, current().remainingMillis())));
+    }
+
+    /**
+     * 取本截止时间与“从现在起 millis 毫秒”中较早者（用于单个阶段的更紧超时）。
+     */
+    public Deadline within(long millis) {
+        if (millis <= 0) return this;
+        long at = System.currentTimeMillis() + millis;
+        return at < atMillis ? new Deadline(at) : this;
+    }
+
+    public long remainingMillis() {
+        if (this == NONE) return Long.MAX_VALUE;
+        return Math.max(0, atMillis - System.currentTimeMillis());
+    }
+
+    public boolean isExpired() {
+        return this != NONE && System.currentTimeMillis() >= atMillis;
+    }
+
+    /**
+     * 已过期时按阶段计数并返回 true。
+     */
+    public boolean expire(String stage) {
+        if (!isExpired()) return false;
+        AgentMetrics.count("interview.segment.deadline.expired", "stage", stage);
+        return true;
+    }
+
+    /**
+     * 绑定到当前线程，关闭时恢复之前的截止时间。
+     */
+    public Scope enter() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    @Override
+    public String toString() {
+        return this == NONE ? "Deadline{none}" : "Deadline{remainingMillis=" + remainingMillis() + '}';
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) CURRENT.remove(); else CURRENT.set(previous);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.deepknow.goodface.interview.domain.session.model.SessionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -11,17 +12,26 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import com.deepknow.goodface.interview.domain.agent.LLM.RecordingLlmClient;
+import com.deepknow.goodface.interview.domain.agent.STT.RecordingSttClient;
+import com.deepknow.goodface.interview.domain.agent.strategy.AdaptiveEndpointer;
+import com.deepknow.goodface.interview.domain.agent.strategy.ContextMemoryMaintainer;
+import com.deepknow.goodface.interview.domain.agent.strategy.QuestionSimHashIndex;
+import com.deepknow.goodface.interview.domain.agent.strategy.RuleBasedQuestionClassifier;
+import com.deepknow.goodface.interview.domain.agent.strategy.SegmentLedger;
 import com.deepknow.goodface.interview.domain.agent.strategy.SttSegmentAssembler;
 import com.deepknow.goodface.interview.domain.session.util.ConversationContextBuilder;
+import com.deepknow.goodface.interview.domain.session.util.TokenEstimator;
 
 /**
  * 默认 Agent 实现：接收 STT 最终文本，触发 LLM 问题提取与答案生成（支持流式）。
  */
 public class DefaultInterviewAgent implements InterviewAgent {
     private static final Logger log = LoggerFactory.getLogger(DefaultInterviewAgent.class);
-    private static final java.util.concurrent.ScheduledExecutorService scheduler = com.deepknow.goodface.interview.domain.agent.AgentSchedulers.get();
+    private static final HashedWheelTimer timer = AgentSchedulers.timer();
 
     private final AgentFactory factory;
+    private final AgentStateStore stateStore;
     private SttClient sttClient;
     private LlmClient llmClient;
     private SttSegmentAssembler segmentAssembler;
@@ -29,6 +39,7 @@ public class DefaultInterviewAgent implements InterviewAgent {
     private String sessionId;
     private boolean llmStreamingEnabled = true;
     private boolean llmSimilarityEnabled = true;
+    private boolean llmExtractStreaming = true;
     private String lastQuestion;
     private java.util.ArrayDeque<String> recentQuestions;
     private int contextWindowSize = 3;
@@ -39,19 +50,46 @@ public class DefaultInterviewAgent implements InterviewAgent {
     private double similarityThreshold = 0.85;
     private int minCharsForDetection = 20;
     private boolean adaptiveSuppression = true;
-    private final StringBuilder pendingBuffer = new StringBuilder(512);
-    private java.util.concurrent.ScheduledFuture<?> pendingTask;
+    // 等待去抖合并的 final
+    private final java.util.List<PendingFinal> pendingFinals = new java.util.ArrayList<>();
+    private HashedWheelTimer.Timeout pendingTask;
+    private Runnable pendingFire;
     private boolean answerOnlyOnQuestion = true;
-    // 软端点与 partial 段提交
-    private int softEndpointMillis = 1500;
-    private int maxSegmentChars = 240;
-    private boolean earlyCommitPunctuation = true;
-    private final StringBuilder partialBuffer = new StringBuilder(512);
-    private java.util.concurrent.ScheduledFuture<?> softEndpointTask;
     private final java.util.ArrayDeque<String> recentCommittedNorm = new java.util.ArrayDeque<>(3);
+    // 自适应端点与“说完 -> 问题卡片”延迟统计
+    private AdaptiveEndpointer endpointer;
+    private volatile long lastSpeechAtMillis;
+    // 本地规则问题检测（为 null 表示关闭）
+    private RuleBasedQuestionClassifier questionClassifier;
+    // LLM 熔断时的本地降级判定（本地预判关闭时同样可用）
+    private RuleBasedQuestionClassifier heuristicClassifier;
+    // 已提问题的 SimHash 索引，用于在本地短路等价判定（为 null 表示关闭）
+    private QuestionSimHashIndex questionIndex;
+    // 按调用类型的上下文 token 预算（下标为 LlmOperation.ordinal）
+    private final int[] contextBudgets = new int[LlmOperation.values().length];
+    // 后台记忆维护（ELABORATION 后触发，不阻塞回答）
+    private ContextMemoryMaintainer memoryMaintainer;
+    // partial 与 final 两路片段的统一台账；回调在 start 时固定
+    private final SegmentLedger ledger = new SegmentLedger();
+    private AgentCallbacks callbacks;
+    // 每分钟音频的 LLM 调用数统计
+    private final java.util.concurrent.atomic.AtomicInteger llmCalls = new java.util.concurrent.atomic.AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicLong audioBytes = new java.util.concurrent.atomic.AtomicLong();
+    private int sttSampleRate = 16000;
+    // 片段截止时间（自提交起）、排队过久的丢弃阈值与等价判定的单次超时
+    private int segmentDeadlineMillis = 8000;
+    private int segmentStaleQueueMillis = 1500;
+    private int similarityTimeoutMillis = 2000;
+    // 会话录制（为 null 表示关闭）
+    private SessionRecorder recorder;
 
     public DefaultInterviewAgent(AgentFactory factory) {
+        this(factory, null);
+    }
+
+    public DefaultInterviewAgent(AgentFactory factory, AgentStateStore stateStore) {
         this.factory = factory;
+        this.stateStore = stateStore;
     }
 
     @Override
@@ -83,16 +121,26 @@ public class DefaultInterviewAgent implements InterviewAgent {
                       AgentCallbacks callbacks) {
         // 初始化 STT
         this.sessionId = ctx.getSessionId();
+        this.recorder = config.isRecordEnabled() ? SessionRecorder.open(Paths.get(config.getRecordDir()), sessionId) : null;
         sttClient = factory.createStt(config);
+        if (recorder != null) sttClient = new RecordingSttClient(sttClient, recorder);
         sttClient.init(config.getSttApiKey(), config.getSttModel(), config.getSttSampleRate(), config.getSttLanguage());
+        if (config.getSttSampleRate() > 0) this.sttSampleRate = config.getSttSampleRate();
 
         // 初始化 LLM
         llmClient = factory.createLlm(config);
+        if (recorder != null) llmClient = new RecordingLlmClient(llmClient, recorder);
         llmClient.setSessionId(this.sessionId);
+        // 只统计实际发出的请求，单飞去重命中的调用不计入
+        llmClient.setCallListener(op -> llmCalls.incrementAndGet());
         llmClient.init(config.getLlmApiKey(), config.getLlmModel(), config.getLlmTemperature(),
                 config.getLlmTopP(), config.getLlmMaxTokens(), config.isLlmStreaming());
         this.llmStreamingEnabled = config.isLlmStreaming();
         this.llmSimilarityEnabled = config.isLlmSimilarityEnabled();
+        this.llmExtractStreaming = config.isLlmExtractStreaming();
+        this.similarityTimeoutMillis = config.getLlmSimilarityTimeoutMillis();
+        this.segmentDeadlineMillis = config.getSegmentDeadlineMillis();
+        this.segmentStaleQueueMillis = config.getSegmentStaleQueueMillis();
         log.info("InterviewAgent starting. sessionId={}", this.sessionId);
 
         // 上下文构建器
@@ -101,6 +149,14 @@ public class DefaultInterviewAgent implements InterviewAgent {
         int maxUtter = config.getMaxUtterances();
         if (maxUtter < 1) maxUtter = 1;
         this.ctxBuilder = new ConversationContextBuilder(config.getUserPrompt(), ctxWin, maxUtter);
+        this.questionIndex = config.isSimhashEnabled()
+                ? new QuestionSimHashIndex(config.getSimhashSameMaxDistance(), config.getSimhashNewMinDistance(), 512)
+                : null;
+        for (LlmOperation op : LlmOperation.values()) contextBudgets[op.ordinal()] = config.getContextTokenBudget(op);
+        restoreState();
+        this.memoryMaintainer = new ContextMemoryMaintainer(AgentSchedulers.background(), ctxBuilder,
+                q -> llmClient.updateContextMemory(q, ctxBuilder.getRollingSummary(), contextFor(LlmOperation.UPDATE_MEMORY, q)),
+                sessionId);
 
         // 策略参数
         this.debounceMillis = config.getDebounceMillis();
@@ -116,18 +172,25 @@ public class DefaultInterviewAgent implements InterviewAgent {
         if (minChars < 1) minChars = 1;
         this.minCharsForDetection = minChars;
         this.adaptiveSuppression = config.isAdaptiveSuppression();
+        this.questionClassifier = config.isLocalDetectorEnabled()
+                ? new RuleBasedQuestionClassifier(config.getDetectorQuestionThreshold(), config.getDetectorNonQuestionThreshold())
+                : null;
+        this.heuristicClassifier = questionClassifier != null ? questionClassifier
+                : new RuleBasedQuestionClassifier(config.getDetectorQuestionThreshold(), config.getDetectorNonQuestionThreshold());
+        this.endpointer = new AdaptiveEndpointer(config.isAdaptiveEndpoint(),
+                softMs, config.getSoftEndpointMinMillis(), config.getSoftEndpointMaxMillis(),
+                this.debounceMillis, config.getDebounceMinMillis(), config.getDebounceMaxMillis());
 
         // STT 片段组装器
+        this.callbacks = callbacks;
+        this.pendingFire = this::processPending;
         this.segmentAssembler = new SttSegmentAssembler(
-                scheduler,
-                softMs,
+                timer,
+                endpointer,
                 maxSeg,
                 earlyPunc,
-                segment -> { processSegment(segment,
-                        callbacks.getOnQuestion(),
-                        callbacks.getOnAnswerDelta(),
-                        callbacks.getOnAnswerComplete(),
-                        callbacks.getOnError());
+                segment -> {
+                    processCommitted(SegmentLedger.Source.PARTIAL, segment);
                     log.debug("Segment metrics snapshot: {} sessionId={}", segmentAssembler.getMetricsSnapshot(), sessionId);
                 },
                 e -> log.warn("Soft endpoint process failed. sessionId=" + sessionId, e)
@@ -136,29 +199,24 @@ public class DefaultInterviewAgent implements InterviewAgent {
         final boolean[] sttFailed = { false };
         sttClient.startSession(ctx.getSessionId(),
                 partial -> {
+                    lastSpeechAtMillis = System.currentTimeMillis();
                     if (callbacks.getOnSttPartial() != null) callbacks.getOnSttPartial().accept(partial);
                     segmentAssembler.onPartial(partial);
                 },
                 fin -> {
+                    lastSpeechAtMillis = System.currentTimeMillis();
+                    endpointer.onFinal(lastSpeechAtMillis);
                     if (callbacks.getOnSttFinal() != null) callbacks.getOnSttFinal().accept(fin);
                     segmentAssembler.cancel();
                     segmentAssembler.clear();
                     log.debug("STT assembler metrics snapshot: {} sessionId={}", segmentAssembler.getMetricsSnapshot(), sessionId);
                     addRecentUtterance(fin);
-                    synchronized (pendingBuffer) {
-                        if (pendingTask != null) {
-                            try { pendingTask.cancel(false); } catch (Exception ignore) {}
-                            pendingTask = null;
-                        }
-                        if (pendingBuffer.length() > 0) pendingBuffer.append(' ');
-                        pendingBuffer.append(fin);
-                        pendingTask = scheduler.schedule(() -> {
-                            processPending(
-                                    callbacks.getOnQuestion(),
-                                    callbacks.getOnAnswerDelta(),
-                                    callbacks.getOnAnswerComplete(),
-                                    callbacks.getOnError());
-                        }, debounceMillis, java.util.concurrent.TimeUnit.MILLISECONDS);
+                    persistState();
+                    // 与 partial 片段的覆盖比对推迟到去抖到期，届时本句 partial 片段的分析结果已确定
+                    synchronized (pendingFinals) {
+                        pendingFinals.add(new PendingFinal(fin, lastSpeechAtMillis));
+                        // 未触发的去抖计时器原地顺延，已触发则新建
+                        pendingTask = timer.reschedule(pendingTask, pendingFire, endpointer.debounceMillis());
                     }
                 },
                 err -> {
@@ -171,6 +229,7 @@ public class DefaultInterviewAgent implements InterviewAgent {
 
     @Override
     public void sendAudio(byte[] pcmChunk) {
+        if (pcmChunk != null) audioBytes.addAndGet(pcmChunk.length);
         if (sttClient != null) sttClient.sendAudio(pcmChunk);
     }
 
@@ -181,8 +240,23 @@ public class DefaultInterviewAgent implements InterviewAgent {
 
     @Override
     public void close() {
+        if (memoryMaintainer != null) memoryMaintainer.close();
+        reportLlmCallRate();
+        persistState();
         runSafe(() -> { if (sttClient != null) sttClient.close(); }, "Agent STT close error");
         runSafe(() -> { if (llmClient != null) llmClient.close(); }, "Agent LLM close error");
+        if (recorder != null) recorder.close();
+    }
+
+    // 16-bit 单声道 PCM：按字节数折算音频时长，会话结束时导出每分钟音频的 LLM 调用数
+    private void reportLlmCallRate() {
+        double audioMinutes = audioBytes.get() / (2.0 * sttSampleRate) / 60.0;
+        if (audioMinutes < 0.1) return;
+        double rate = llmCalls.get() / audioMinutes;
+        AgentMetrics.summary("interview.llm.calls.per.audio.minute", rate);
+        log.info("LLM call rate: calls={} audioMinutes={} perMinute={} ledger={} sessionId={}",
+                llmCalls.get(), String.format("%.2f", audioMinutes), String.format("%.2f", rate),
+                ledger.getMetricsSnapshot(), sessionId);
     }
 
     private String getString(java.util.Map<String, Object> cfg, String key, String def) {
@@ -203,10 +277,14 @@ public class DefaultInterviewAgent implements InterviewAgent {
         if (ctxBuilder != null) ctxBuilder.addRecentQuestion(q);
     }
 
-    private String buildContextString() {
-        // 委托给上下文构建器
+    /**
+     * 按调用类型构建上下文：分类类调用只带最小上下文，回答生成带完整背景；超出预算时由构建器裁剪/压缩。
+     */
+    private String contextFor(LlmOperation op, String focus) {
         if (ctxBuilder == null) return "";
-        return ctxBuilder.buildContextString();
+        String ctx = ctxBuilder.buildContextString(contextBudgets[op.ordinal()], op.isRichContext(), focus);
+        AgentMetrics.summary("interview.llm.context.tokens", TokenEstimator.estimate(ctx), "op", op.tag());
+        return ctx;
     }
 
     private double getDouble(java.util.Map<String, Object> cfg, String key, double def) {
@@ -252,184 +330,165 @@ public class DefaultInterviewAgent implements InterviewAgent {
         return (double) inter.size() / (double) union.size();
     }
 
-    private void processPending(Consumer<String> onQuestion,
-                                Consumer<String> onAnswerDelta,
-                                Runnable onAnswerComplete,
-                                Consumer<Throwable> onError) {
-        String combined;
-        synchronized (pendingBuffer) {
-            combined = pendingBuffer.toString().trim();
-            pendingBuffer.setLength(0);
+    private void processPending() {
+        java.util.List<PendingFinal> finals;
+        synchronized (pendingFinals) {
+            finals = new java.util.ArrayList<>(pendingFinals);
+            pendingFinals.clear();
             pendingTask = null;
         }
+        // 已被 partial 片段分析过的部分不再进入合并
+        StringBuilder sb = new StringBuilder(256);
+        for (PendingFinal f : finals) {
+            String uncovered = ledger.uncoveredByPartials(f.text, f.atMillis);
+            if (uncovered.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(uncovered);
+        }
+        String combined = sb.toString().trim();
         if (combined.isEmpty()) return;
-        // 与最近已提交段做相似度判断，避免重复处理
-        String normCombined = normalize(combined);
-        if (isSimilarToRecentCommitted(normCombined)) {
-            log.debug("Skip pending combined due to similarity with recent committed");
+        processCommitted(SegmentLedger.Source.FINAL, combined);
+    }
+
+    /**
+     * 片段提交：截止时间从计时器到期起算（含在调度线程池中的排队时间）；排队期间已过期、
+     * 或排队过久且已有更晚提交的片段开始处理时直接丢弃，其余在截止时间作用域内走片段管线。
+     */
+    private void processCommitted(SegmentLedger.Source source, String text) {
+        long committedAt = HashedWheelTimer.firedAtMillis();
+        SegmentLedger.Segment seg = ledger.open(source, text, committedAt, Deadline.since(committedAt, segmentDeadlineMillis));
+        if (abandoned(seg, "queue")) return;
+        if (System.currentTimeMillis() - committedAt > segmentStaleQueueMillis && ledger.hasNewer(seg)) {
+            ledger.skip(seg, "stale");
             return;
         }
-        try {
-            if (normCombined.length() < minCharsForDetection) { return; }
-            String ctxStr = buildContextString();
-            String question = llmClient.extractQuestion(combined, ctxStr);
-            String normQ = normalize(question);
-            String normLast = normalize(lastQuestion);
-            boolean isNoQuestion = question != null && "无问题".equals(question.trim());
-            boolean isNewEnough;
-            if (llmSimilarityEnabled && !isNoQuestion && normQ != null && !normQ.isEmpty()) {
-                // 如果 lastQuestion 为空,说明这是第一个问题,直接标记为 NEW
-                if (lastQuestion == null || lastQuestion.trim().isEmpty()) {
-                    isNewEnough = true;
-                } else {
-                    com.deepknow.goodface.interview.domain.agent.EquivalenceResult eq = llmClient.judgeQuestionEquivalence(lastQuestion, question, ctxStr);
-                    String clazz = (eq == null || eq.getClazz() == null) ? "SAME" : eq.getClazz().trim().toUpperCase();
-                    if ("NONE".equals(clazz)) {
-                        isNoQuestion = true;
-                        isNewEnough = false;
-                    } else if ("NEW".equals(clazz)) {
-                        isNewEnough = true;
-                        String canonical = (eq.getCanonical() == null || eq.getCanonical().isEmpty()) ? question : eq.getCanonical();
-                        normQ = normalize(canonical);
-                        question = canonical;
-                    } else {
-                        isNewEnough = false;
-                        if ("ELABORATION".equals(clazz)) {
-                            // 累积补充并更新记忆
-                            ctxBuilder.addElaborationText(combined);
-                            try {
-                                com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult mem = llmClient.updateContextMemory(lastQuestion, ctxBuilder.getRollingSummary(), ctxStr);
-                                if (mem != null) {
-                                    String summary = mem.getSummary();
-                                    if (summary != null && !summary.isEmpty()) ctxBuilder.addElaborationText(summary);
-                                    java.util.Map<String, String> facts = mem.getFacts();
-                                    if (facts != null && !facts.isEmpty()) ctxBuilder.mergeFacts(facts);
-                                }
-                            } catch (Exception e) {
-                                log.debug("Memory update error ignored. sessionId={}", sessionId, e);
-                            }
-                        }
-                    }
-                }
-            } else {
-                isNewEnough = normQ != null && !normQ.isEmpty() && !normQ.equals(normLast) && jaccardSimilarity(question, lastQuestion) < similarityThreshold;
-            }
-            // 当无明确问题时，尝试判定是否为对最近问题的补充
-            if (isNoQuestion && lastQuestion != null && !lastQuestion.isEmpty()) {
-                com.deepknow.goodface.interview.domain.agent.EquivalenceResult rel = llmClient.judgeSegmentRelation(lastQuestion, combined, ctxStr);
-                String rClazz = (rel == null || rel.getClazz() == null) ? "NONE" : rel.getClazz().trim().toUpperCase();
-                if ("ELABORATION".equals(rClazz)) {
-                    ctxBuilder.addElaborationText(combined);
-                    try {
-                        com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult mem = llmClient.updateContextMemory(lastQuestion, ctxBuilder.getRollingSummary(), ctxStr);
-                        if (mem != null) {
-                            String summary = mem.getSummary();
-                            if (summary != null && !summary.isEmpty()) ctxBuilder.addElaborationText(summary);
-                            java.util.Map<String, String> facts = mem.getFacts();
-                            if (facts != null && !facts.isEmpty()) ctxBuilder.mergeFacts(facts);
-                        }
-                    } catch (Exception e) {
-                        log.debug("Memory update error ignored. sessionId={}", sessionId, e);
-                    }
-                }
-            }
-            if (!isNoQuestion && isNewEnough) {
-                lastQuestion = question;
-                addRecentQuestion(normQ);
-                if (onQuestion != null) onQuestion.accept(question);
-            }
-            // 若开启“仅在问题时回答”，则在非新问题情况下跳过回答生成
-            if (answerOnlyOnQuestion && (isNoQuestion || !isNewEnough)) {
-                return;
-            }
-
-            String inputForAnswer = (question != null && !isNoQuestion) ? question : combined;
-            if (llmStreamingEnabled) {
-                llmClient.generateAnswerStream(
-                        inputForAnswer,
-                        ctxStr,
-                        delta -> { if (onAnswerDelta != null) onAnswerDelta.accept(delta); },
-                        () -> { if (onAnswerComplete != null) onAnswerComplete.run(); log.debug("Context metrics snapshot: {} sessionId={}", ctxBuilder.getMetricsSnapshot(), sessionId); },
-                        ex -> { if (onError != null) onError.accept(ex); }
-                );
-            } else {
-                String answer = llmClient.generateAnswer(inputForAnswer, ctxStr);
-                if (onAnswerDelta != null && answer != null) onAnswerDelta.accept(answer);
-                if (onAnswerComplete != null) onAnswerComplete.run();
-            }
-            rememberCommitted(normCombined);
-        } catch (Exception ex) {
-            log.warn("LLM processing failed. sessionId=" + sessionId, ex);
-            if (onError != null) onError.accept(ex);
+        try (Deadline.Scope ignored = seg.deadline.enter()) {
+            processSegment(seg);
         }
     }
 
-    // ====== 软端点与 partial 处理辅助 ======
-
-    private void appendPartial(String partial) {
-        if (partial == null || partial.isEmpty()) return;
-        if (partialBuffer.length() > 0) partialBuffer.append(' ');
-        partialBuffer.append(partial.trim());
+    /**
+     * 片段已过期时按阶段计数并放弃。
+     */
+    private boolean abandoned(SegmentLedger.Segment seg, String stage) {
+        if (!seg.deadline.expire(stage)) return false;
+        log.debug("Segment deadline expired at {}: {} sessionId={}", stage, seg, sessionId);
+        ledger.skip(seg, "expired");
+        return true;
     }
 
-    private boolean shouldEarlyCommit(StringBuilder buf) {
-        if (buf == null) return false;
-        if (buf.length() >= maxSegmentChars) return true;
-        if (!earlyCommitPunctuation) return false;
-        String s = buf.toString();
-        return s.indexOf('？') >= 0 || s.indexOf('?') >= 0 || s.indexOf('。') >= 0 || s.indexOf('.') >= 0 || s.indexOf('!') >= 0 || s.indexOf('！') >= 0;
+    /**
+     * 本地规则预判：明确非问题直接跳过 LLM；明确问题跳过问题提取。未开启或“非仅问题作答”模式下不跳过非问题。
+     */
+    private RuleBasedQuestionClassifier.Verdict classifyLocally(String text) {
+        if (questionClassifier == null) return null;
+        RuleBasedQuestionClassifier.Verdict v = questionClassifier.classify(text);
+        if (v.label == RuleBasedQuestionClassifier.Label.NOT_QUESTION && !answerOnlyOnQuestion) {
+            v = new RuleBasedQuestionClassifier.Verdict(RuleBasedQuestionClassifier.Label.UNSURE, 0.5, v.score, -1);
+        }
+        AgentMetrics.count("interview.detector.decision", "result", v.label.name().toLowerCase());
+        log.debug("Local question detector: {} sessionId={}", v, sessionId);
+        return v;
     }
 
-    private void rescheduleSoftEndpoint(Consumer<String> onQuestion,
-                                        Consumer<String> onAnswerDelta,
-                                        Consumer<Throwable> onError,
-                                        Runnable onAnswerComplete) {
-        cancelSoftEndpoint();
-        softEndpointTask = scheduler.schedule(() -> {
-            try {
-                String segment = drainPartialBuffer();
-                if (!segment.isEmpty()) {
-                    processSegment(segment, onQuestion, onAnswerDelta, onAnswerComplete, onError);
-                }
-            } catch (Exception e) {
-                log.warn("Soft endpoint process failed. sessionId=" + sessionId, e);
+    /**
+     * 问题等价判定：先用 SimHash 索引在本地判定明显相同/明显不同/重新提问，仅模糊区间调用 LLM。
+     */
+    private EquivalenceResult judgeEquivalence(String question) {
+        if (questionIndex != null) {
+            QuestionSimHashIndex.Match m = questionIndex.decide(question, lastQuestion);
+            switch (m.decision) {
+                case SAME:
+                    AgentMetrics.count("interview.equivalence.decision", "result", "same");
+                    return new EquivalenceResult("SAME", lastQuestion, "simhash distance=" + m.distance);
+                case REASKED:
+                    // 隔了若干问题后重新问到旧问题：作为新问题出卡，沿用原问题文本
+                    AgentMetrics.count("interview.equivalence.decision", "result", "reasked");
+                    return new EquivalenceResult("NEW", m.matched, "simhash reasked distance=" + m.distance);
+                case NEW:
+                    AgentMetrics.count("interview.equivalence.decision", "result", "new");
+                    return new EquivalenceResult("NEW", question, "simhash distance=" + m.distance);
+                default:
+                    break;
             }
-        }, softEndpointMillis, TimeUnit.MILLISECONDS);
+        }
+        AgentMetrics.count("interview.equivalence.decision", "result", "llm");
+        try (Deadline.Scope ignored = Deadline.current().within(similarityTimeoutMillis).enter()) {
+            return llmClient.judgeQuestionEquivalence(lastQuestion, question, contextFor(LlmOperation.JUDGE_EQUIVALENCE, question));
+        } catch (LlmUnavailableException e) {
+            // 熔断或超时降级：按字符重合度判定
+            boolean isNew = jaccardSimilarity(question, lastQuestion) < similarityThreshold;
+            AgentMetrics.count("interview.llm.heuristic", "op", LlmOperation.JUDGE_EQUIVALENCE.tag(), "result", isNew ? "new" : "same");
+            return new EquivalenceResult(isNew ? "NEW" : "SAME", isNew ? question : lastQuestion, "heuristic");
+        }
     }
 
-    private void cancelSoftEndpoint() {
+    /**
+     * 问题提取（默认流式，首行完成即进入后续判定与出卡）；LLM 熔断时按本地规则分数降级，分数过半视为问题。
+     */
+    private String extractQuestion(String segment, RuleBasedQuestionClassifier.Verdict verdict) {
         try {
-            if (softEndpointTask != null) {
-                softEndpointTask.cancel(false);
-                softEndpointTask = null;
-            }
-        } catch (Exception ignored) {}
+            String ctx = contextFor(LlmOperation.EXTRACT_QUESTION, segment);
+            return llmExtractStreaming ? llmClient.extractQuestionStreaming(segment, ctx) : llmClient.extractQuestion(segment, ctx);
+        } catch (LlmUnavailableException e) {
+            RuleBasedQuestionClassifier.Verdict v = verdict != null ? verdict : heuristicClassifier.classify(segment);
+            boolean isQuestion = v.score >= 0.5;
+            AgentMetrics.count("interview.llm.heuristic", "op", LlmOperation.EXTRACT_QUESTION.tag(), "result", isQuestion ? "question" : "none");
+            return isQuestion ? RuleBasedQuestionClassifier.questionText(segment, v) : "无问题";
+        }
     }
 
-    private String drainPartialBuffer() {
-        String s = partialBuffer.toString().trim();
-        partialBuffer.setLength(0);
-        return s == null ? "" : s;
+    /**
+     * 无明确问题时的补充判定；LLM 熔断时不做补充累积。
+     */
+    private EquivalenceResult judgeRelation(String segment) {
+        try {
+            return llmClient.judgeSegmentRelation(lastQuestion, segment, contextFor(LlmOperation.JUDGE_RELATION, segment));
+        } catch (LlmUnavailableException e) {
+            AgentMetrics.count("interview.llm.heuristic", "op", LlmOperation.JUDGE_RELATION.tag(), "result", "none");
+            return new EquivalenceResult("NONE", "", "heuristic");
+        }
     }
 
-    private void clearPartialBuffer() {
-        partialBuffer.setLength(0);
+    private void emitQuestion(Consumer<String> onQuestion, String question) {
+        if (questionIndex != null) questionIndex.add(question);
+        long speechAt = lastSpeechAtMillis;
+        if (speechAt > 0) {
+            AgentMetrics.recordMillis("interview.question.latency", System.currentTimeMillis() - speechAt,
+                    "endpoint", endpointer != null && endpointer.isEnabled() ? "adaptive" : "static");
+        }
+        log.debug("Endpointer snapshot: {} sessionId={}", endpointer, sessionId);
+        if (recorder != null) recorder.question(question);
+        if (onQuestion != null) onQuestion.accept(question);
     }
 
-    private void processSegment(String segment,
-                                Consumer<String> onQuestion,
-                                Consumer<String> onAnswerDelta,
-                                Runnable onAnswerComplete,
-                                Consumer<Throwable> onError) {
+    // ====== 统一片段管线：partial 软端点与 final 去抖共用 ======
+
+    /**
+     * 单条片段管线：相似去重 -> 本地预判 -> 问题提取 -> 等价/关系判定 -> 出卡 -> 回答；台账记录片段状态。
+     * 每个 LLM 阶段与出卡/回答开始前检查片段截止时间，过期即放弃；记忆更新沿用该截止时间。
+     */
+    private void processSegment(SegmentLedger.Segment seg) {
+        Consumer<String> onQuestion = callbacks.getOnQuestion();
+        Consumer<String> onAnswerDelta = callbacks.getOnAnswerDelta();
+        Runnable onAnswerComplete = callbacks.getOnAnswerComplete();
+        Consumer<Throwable> onError = callbacks.getOnError();
+        String segment = seg.text;
         String normSeg = normalize(segment);
         if (isSimilarToRecentCommitted(normSeg)) {
-            log.debug("Skip partial segment due to similarity with recent committed");
+            log.debug("Skip segment due to similarity with recent committed: {} sessionId={}", seg, sessionId);
+            ledger.skip(seg, "similar");
             return;
         }
         try {
-            if (normSeg.length() < minCharsForDetection) { return; }
-            String ctxStr = buildContextString();
-            String question = llmClient.extractQuestion(segment, ctxStr);
+            if (normSeg.length() < minCharsForDetection) { ledger.skip(seg, "too_short"); return; }
+            RuleBasedQuestionClassifier.Verdict verdict = classifyLocally(segment);
+            if (verdict != null && verdict.label == RuleBasedQuestionClassifier.Label.NOT_QUESTION) { ledger.skip(seg, "not_question"); return; }
+            boolean localQuestion = verdict != null && verdict.label == RuleBasedQuestionClassifier.Label.QUESTION;
+            if (!localQuestion && abandoned(seg, "extract")) return;
+            String question = localQuestion
+                    ? RuleBasedQuestionClassifier.questionText(segment, verdict)
+                    : extractQuestion(segment, verdict);
             String normQ = normalize(question);
             String normLast = normalize(lastQuestion);
             boolean isNoQuestion = question != null && "无问题".equals(question.trim());
@@ -439,7 +498,8 @@ public class DefaultInterviewAgent implements InterviewAgent {
                 if (lastQuestion == null || lastQuestion.trim().isEmpty()) {
                     isNewEnough = true;
                 } else {
-                    com.deepknow.goodface.interview.domain.agent.EquivalenceResult eq = llmClient.judgeQuestionEquivalence(lastQuestion, question, ctxStr);
+                    if (abandoned(seg, "equivalence")) return;
+                    com.deepknow.goodface.interview.domain.agent.EquivalenceResult eq = judgeEquivalence(question);
                     String clazz = (eq == null || eq.getClazz() == null) ? "SAME" : eq.getClazz().trim().toUpperCase();
                     if ("NONE".equals(clazz)) {
                         isNoQuestion = true;
@@ -452,19 +512,9 @@ public class DefaultInterviewAgent implements InterviewAgent {
                     } else {
                         isNewEnough = false;
                         if ("ELABORATION".equals(clazz)) {
-                            // 累积补充并更新记忆
+                            // 累积补充；记忆更新在后台合并执行，不阻塞回答
                             ctxBuilder.addElaborationText(segment);
-                            try {
-                                com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult mem = llmClient.updateContextMemory(lastQuestion, ctxBuilder.getRollingSummary(), ctxStr);
-                                if (mem != null) {
-                                    String summary = mem.getSummary();
-                                    if (summary != null && !summary.isEmpty()) ctxBuilder.addElaborationText(summary);
-                                    java.util.Map<String, String> facts = mem.getFacts();
-                                    if (facts != null && !facts.isEmpty()) ctxBuilder.mergeFacts(facts);
-                                }
-                            } catch (Exception e) {
-                                log.debug("Memory update error ignored. sessionId={}", sessionId, e);
-                            }
+                            memoryMaintainer.request(lastQuestion, seg.deadline);
                         }
                     }
                 }
@@ -473,47 +523,48 @@ public class DefaultInterviewAgent implements InterviewAgent {
             }
             // 当无明确问题时，尝试判定是否为对最近问题的补充
             if (isNoQuestion && lastQuestion != null && !lastQuestion.isEmpty()) {
-                com.deepknow.goodface.interview.domain.agent.EquivalenceResult rel = llmClient.judgeSegmentRelation(lastQuestion, segment, ctxStr);
+                if (abandoned(seg, "relation")) return;
+                com.deepknow.goodface.interview.domain.agent.EquivalenceResult rel = judgeRelation(segment);
                 String rClazz = (rel == null || rel.getClazz() == null) ? "NONE" : rel.getClazz().trim().toUpperCase();
                 if ("ELABORATION".equals(rClazz)) {
                     ctxBuilder.addElaborationText(segment);
-                    try {
-                        com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult mem = llmClient.updateContextMemory(lastQuestion, ctxBuilder.getRollingSummary(), ctxStr);
-                        if (mem != null) {
-                            String summary = mem.getSummary();
-                            if (summary != null && !summary.isEmpty()) ctxBuilder.addElaborationText(summary);
-                            java.util.Map<String, String> facts = mem.getFacts();
-                            if (facts != null && !facts.isEmpty()) ctxBuilder.mergeFacts(facts);
-                        }
-                    } catch (Exception e) {
-                        log.debug("Memory update error ignored. sessionId={}", sessionId, e);
-                    }
+                    memoryMaintainer.request(lastQuestion, seg.deadline);
                 }
             }
             if (!isNoQuestion && isNewEnough) {
+                if (abandoned(seg, "question")) return;
                 lastQuestion = question;
                 addRecentQuestion(normQ);
-                if (onQuestion != null) onQuestion.accept(question);
+                emitQuestion(onQuestion, question);
             }
+            // 分析完成即登记，避免另一路在回答期间重复分析同一内容
+            ledger.commit(seg);
+            rememberCommitted(normSeg);
             if (answerOnlyOnQuestion && (isNoQuestion || !isNewEnough)) {
                 return;
             }
+            if (abandoned(seg, "answer")) return;
             String inputForAnswer = (question != null && !isNoQuestion) ? question : segment;
+            String ctxStr = contextFor(LlmOperation.GENERATE_ANSWER, inputForAnswer);
             if (llmStreamingEnabled) {
                 llmClient.generateAnswerStream(
                         inputForAnswer,
                         ctxStr,
                         delta -> { if (onAnswerDelta != null) onAnswerDelta.accept(delta); },
-                        () -> { if (onAnswerComplete != null) onAnswerComplete.run(); },
+                        () -> {
+                            ledger.answer(seg);
+                            if (onAnswerComplete != null) onAnswerComplete.run();
+                            log.debug("Context metrics snapshot: {} sessionId={}", ctxBuilder.getMetricsSnapshot(), sessionId);
+                        },
                         ex -> { if (onError != null) onError.accept(ex); }
                 );
             } else {
                 String answer = llmClient.generateAnswer(inputForAnswer, ctxStr);
+                ledger.answer(seg);
                 if (onAnswerDelta != null && answer != null) onAnswerDelta.accept(answer);
                 if (onAnswerComplete != null) onAnswerComplete.run();
                 log.debug("Context metrics snapshot: {} sessionId={}", ctxBuilder.getMetricsSnapshot(), sessionId);
             }
-            rememberCommitted(normSeg);
         } catch (Exception ex) {
             log.warn("LLM processing failed. sessionId=" + sessionId, ex);
             if (onError != null) onError.accept(ex);
@@ -521,6 +572,50 @@ public class DefaultInterviewAgent implements InterviewAgent {
     }
 
     private void rememberCommitted(String norm) {
+        rememberCommittedNoPersist(norm);
+        persistState();
+    }
+
+    // ====== 会话状态外置：启动时恢复，变更后写入（由存储实现负责写后合并） ======
+
+    private void restoreState() {
+        if (stateStore == null || sessionId == null) return;
+        try {
+            AgentStateSnapshot snapshot = stateStore.load(sessionId);
+            if (snapshot == null) return;
+            ctxBuilder.restore(snapshot.getRecentQuestions(), snapshot.getRecentUtterances(),
+                    snapshot.getElaboration(), snapshot.getFacts());
+            this.lastQuestion = snapshot.getLastQuestion();
+            if (questionIndex != null) {
+                for (String q : snapshot.getQuestionHistory()) questionIndex.add(q);
+            }
+            recentCommittedNorm.clear();
+            for (String c : snapshot.getRecentCommitted()) rememberCommittedNoPersist(c);
+            log.info("Agent state restored: {} sessionId={}", snapshot, sessionId);
+        } catch (Exception e) {
+            log.warn("Agent state restore failed. sessionId=" + sessionId, e);
+        }
+    }
+
+    private void persistState() {
+        if (stateStore == null || sessionId == null || ctxBuilder == null) return;
+        try {
+            AgentStateSnapshot snapshot = new AgentStateSnapshot(
+                    lastQuestion,
+                    ctxBuilder.getRecentQuestions(),
+                    ctxBuilder.getRecentUtterances(),
+                    ctxBuilder.getElaborationText(),
+                    ctxBuilder.getFacts(),
+                    new java.util.ArrayList<>(recentCommittedNorm),
+                    System.currentTimeMillis(),
+                    questionIndex == null ? null : questionIndex.questions());
+            stateStore.save(sessionId, snapshot);
+        } catch (Exception e) {
+            log.debug("Agent state persist failed. sessionId={}", sessionId, e);
+        }
+    }
+
+    private void rememberCommittedNoPersist(String norm) {
         if (norm == null || norm.isEmpty()) return;
         if (recentCommittedNorm.size() >= 3) recentCommittedNorm.pollFirst();
         recentCommittedNorm.offerLast(norm);
@@ -543,4 +638,14 @@ public class DefaultInterviewAgent implements InterviewAgent {
             log.warn(warnTag + ". sessionId=" + sessionId, e);
         }
     }
-}
\ No newline at end of file
+
+    private static final class PendingFinal {
+        final String text;
+        final long atMillis;
+
+        PendingFinal(String text, long atMillis) {
+            this.text = text;
+            this.atMillis = atMillis;
+        }
+    }
+}
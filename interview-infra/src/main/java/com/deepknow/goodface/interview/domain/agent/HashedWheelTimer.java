@@ -0,0 +1,240 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮：为软端点、去抖等高频重置的短定时器提供 O(1) 的创建、重置与取消。
+ * <p>
+ * 与 ScheduledThreadPoolExecutor 相比：
+ * <ul>
+ *   <li>重置（{@link Timeout#reschedule(long)}）只改写截止时间，不产生取消残留；到期扫描时按新截止时间重新落桶；</li>
+ *   <li>新建定时器经无锁队列交给时间轮线程入桶，调用方不竞争堆锁；</li>
+ *   <li>精度为一个 tick（默认 20ms），对端点类计时器足够。</li>
+ * </ul>
+ * 到期任务交给 dispatcher 执行，时间轮线程本身只做簿记，不执行业务逻辑。
+ */
+public final class HashedWheelTimer {
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int ACTIVE = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    // 当前线程正在执行的到期任务的派发时间
+    private static final ThreadLocal<Long> FIRED_AT = new ThreadLocal<>();
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Executor dispatcher;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private final Timer tickLag;
+    private volatile long maxTickLagMillis;
+    private volatile boolean running = true;
+
+    public HashedWheelTimer(String name, long tickMillis, int wheelSize, Executor dispatcher) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(16, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) wheel.add(new ArrayList<>());
+        this.dispatcher = dispatcher;
+        this.tickLag = Timer.builder("interview.timer.tick.lag").tag("timer", name)
+                .register(AgentMetrics.registry());
+        AgentMetrics.gauge("interview.timer.pending", pending, AtomicInteger::get, "timer", name);
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 新建一次性定时器。
+     */
+    public Timeout newTimeout(Runnable task, long delayMillis) {
+        Timeout t = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)));
+        pending.incrementAndGet();
+        incoming.add(t);
+        return t;
+    }
+
+    /**
+     * 若已有定时器仍未触发则原地重置，否则新建；返回当前有效的定时器。
+     */
+    public Timeout reschedule(Timeout existing, Runnable task, long delayMillis) {
+        if (existing != null && existing.reschedule(delayMillis)) return existing;
+        return newTimeout(task, delayMillis);
+    }
+
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    public long maxTickLagMillis() {
+        return maxTickLagMillis;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                }
+            }
+            long now = System.nanoTime();
+            long lagNanos = Math.max(0, now - deadline);
+            tickLag.record(lagNanos, TimeUnit.NANOSECONDS);
+            long lagMillis = TimeUnit.NANOSECONDS.toMillis(lagNanos);
+            if (lagMillis > maxTickLagMillis) maxTickLagMillis = lagMillis;
+            try {
+                transferIncoming(tick);
+                expireBucket(tick, now);
+            } catch (Throwable t) {
+                log.warn("Timer tick failed: tick={}", tick, t);
+            }
+            tick++;
+        }
+    }
+
+    private void transferIncoming(long currentTick) {
+        // 每个 tick 限量搬运，避免突发创建拖慢本轮到期处理
+        for (int i = 0; i < 100_000; i++) {
+            Timeout t = incoming.poll();
+            if (t == null) return;
+            if (t.state != ACTIVE) continue;
+            place(t, currentTick);
+        }
+    }
+
+    private void place(Timeout t, long currentTick) {
+        long ticks = (t.deadlineNanos - startNanos) / tickNanos;
+        // 已过期的放入当前桶，本 tick 即处理
+        long target = Math.max(ticks, currentTick);
+        wheel.get((int) (target & mask)).add(t);
+    }
+
+    private void expireBucket(long tick, long now) {
+        List<Timeout> bucket = wheel.get((int) (tick & mask));
+        if (bucket.isEmpty()) return;
+        List<Timeout> moved = null;
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout t = it.next();
+            int outcome = t.expireIfDue(now);
+            if (outcome == ACTIVE) {
+                // 截止时间被重置到更晚：若已不属于本桶则迁移，否则留待下一圈
+                long ticks = (t.deadlineNanos - startNanos) / tickNanos;
+                if ((ticks & mask) != (tick & mask)) {
+                    it.remove();
+                    if (moved == null) moved = new ArrayList<>();
+                    moved.add(t);
+                }
+                continue;
+            }
+            it.remove();
+            if (outcome == EXPIRED) dispatch(t);
+        }
+        if (moved != null) {
+            for (Timeout t : moved) place(t, tick + 1);
+        }
+    }
+
+    /**
+     * 当前线程正在执行的到期任务被派发的时间（不含在 dispatcher 中排队的时间）；非计时器任务返回当前时间。
+     */
+    public static long firedAtMillis() {
+        Long at = FIRED_AT.get();
+        return at == null ? System.currentTimeMillis() : at;
+    }
+
+    private void dispatch(Timeout t) {
+        long firedAt = System.currentTimeMillis();
+        try {
+            dispatcher.execute(() -> {
+                FIRED_AT.set(firedAt);
+                try {
+                    t.task.run();
+                } catch (Throwable e) {
+                    log.warn("Timer task failed", e);
+                } finally {
+                    FIRED_AT.remove();
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Timer dispatch rejected", e);
+        }
+    }
+
+    /**
+     * 定时器句柄。
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private volatile long deadlineNanos;
+        private volatile int state = ACTIVE;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 以当前时刻为起点重置延迟；已触发或已取消时返回 false。
+         */
+        public synchronized boolean reschedule(long delayMillis) {
+            if (state != ACTIVE) return false;
+            long next = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+            boolean earlier = deadlineNanos - next > tickNanos;
+            deadlineNanos = next;
+            // 提前到期需重新入桶（旧桶中的残留条目在定时器触发后被扫描丢弃）；推迟则由扫描时惰性迁移
+            if (earlier) incoming.add(this);
+            return true;
+        }
+
+        public synchronized boolean cancel() {
+            if (state != ACTIVE) return false;
+            state = CANCELLED;
+            pending.decrementAndGet();
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        // 返回处理结果：EXPIRED 需执行；CANCELLED 需移除；ACTIVE 表示尚未到期
+        private synchronized int expireIfDue(long now) {
+            if (state != ACTIVE) return CANCELLED;
+            if (deadlineNanos - now > tickNanos / 2) return ACTIVE;
+            state = EXPIRED;
+            pending.decrementAndGet();
+            return EXPIRED;
+        }
+    }
+}
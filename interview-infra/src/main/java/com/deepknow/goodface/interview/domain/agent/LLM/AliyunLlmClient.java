@@ -1,6 +1,13 @@
 package com.deepknow.goodface.interview.domain.agent.LLM;
 
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.AgentSchedulers;
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+import com.deepknow.goodface.interview.domain.agent.HashedWheelTimer;
 import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmDeadlineExceededException;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.LlmUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -11,9 +18,20 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * 阿里云百炼文本模型客户端（REST）。
@@ -21,11 +39,11 @@ import java.util.Map;
  */
 public class AliyunLlmClient implements LlmClient {
     private static final Logger log = LoggerFactory.getLogger(AliyunLlmClient.class);
-    private static final String GEN_URL = "https://dashscope.aliyuncs.com/api/v1/services/aigc/text-generation/generation";
-    // 阿里云 OpenAI 兼容接口（流式）
-    private static final String CHAT_COMPAT_URL = "https://dashscope.aliyuncs.com/compatible/v1/chat/completions";
+    public static final String DEFAULT_BASE_URL = "https://dashscope.aliyuncs.com";
+    private static final String GEN_PATH = "/api/v1/services/aigc/text-generation/generation";
 
     private final ObjectMapper mapper = new ObjectMapper();
+    private DashScopeRequestTemplate template;
     private HttpClient httpClient;
     private String apiKey;
     private String model;
@@ -34,9 +52,44 @@ public class AliyunLlmClient implements LlmClient {
     private int maxTokens;
     private boolean streaming;
     private String sessionId;
+    // 可覆盖的服务地址，便于指向本地 Mock 服务做压测
+    private String genUrl = DEFAULT_BASE_URL + GEN_PATH;
+    // 进程级准入控制，按模型取共享控制器（null 表示不限流）
+    private Function<String, LlmAdmissionController> admission;
+    // 按服务地址共享的熔断器与分类调用对冲策略（null 表示关闭）
+    private CircuitBreaker breaker;
+    private HedgePolicy hedgePolicy;
+    // 按调用类型的模型路由（null 表示所有调用使用 init 时的模型）
+    private LlmModelRouter router;
+    // 等价/关系判定走流式，解析出所需字段即中止生成
+    private boolean judgeStreaming;
+    // 实际发出请求时回调（对冲的第二个请求不重复计入）
+    private Consumer<LlmOperation> callListener;
 
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
 
+    @Override
+    public void setCallListener(Consumer<LlmOperation> listener) { this.callListener = listener; }
+
+    public void setAdmission(Function<String, LlmAdmissionController> admission) { this.admission = admission; }
+
+    public void setCircuitBreaker(CircuitBreaker breaker) { this.breaker = breaker; }
+
+    public void setHedgePolicy(HedgePolicy hedgePolicy) { this.hedgePolicy = hedgePolicy; }
+
+    public void setModelRouter(LlmModelRouter router) { this.router = router; }
+
+    public void setJudgeStreaming(boolean judgeStreaming) { this.judgeStreaming = judgeStreaming; }
+
+    /**
+     * 覆盖 DashScope 服务根地址（如 http://127.0.0.1:18080），需在 init 前调用。
+     */
+    public void setBaseUrl(String baseUrl) {
+        String base = (baseUrl == null || baseUrl.trim().isEmpty()) ? DEFAULT_BASE_URL : baseUrl.trim();
+        while (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+        this.genUrl = base + GEN_PATH;
+    }
+
     @Override
     public void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming) {
         this.apiKey = apiKey;
@@ -45,9 +98,10 @@ public class AliyunLlmClient implements LlmClient {
         this.topP = topP;
         this.maxTokens = maxTokens;
         this.streaming = streaming;
+        this.template = new DashScopeRequestTemplate(temperature, topP, maxTokens);
         this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
-        log.info("LLM init: model={} temperature={} topP={} maxTokens={} streaming={} sessionId={}",
-                model, temperature, topP, maxTokens, streaming, this.sessionId);
+        log.info("LLM init: model={} temperature={} topP={} maxTokens={} streaming={} url={} sessionId={}",
+                model, temperature, topP, maxTokens, streaming, genUrl, this.sessionId);
     }
 
     private String preview(String s, int max) {
@@ -60,26 +114,63 @@ public class AliyunLlmClient implements LlmClient {
     public String extractQuestion(String text, String context) {
         try {
             String system = "你是面试问题识别器，从文本中识别是否包含明确问题，若有则抽取该问题。";
-            String user = "文本：" + (text == null ? "" : text) + "\n上下文：" + (context == null ? "" : context) + "\n请返回识别到的问题或返回'无问题'。";
-            JsonNode root = call(model, system, user);
+            JsonNode root = call(LlmOperation.EXTRACT_QUESTION, modelFor(LlmOperation.EXTRACT_QUESTION), system,
+                    "文本：", text, "\n上下文：", context, "\n请返回识别到的问题或返回'无问题'。");
             JsonNode output = root.path("output").path("choices");
             if (output.isArray() && output.size() > 0) {
                 JsonNode content = output.get(0).path("message").path("content");
                 return content.asText("");
             }
             return "无问题";
+        } catch (LlmUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("LLM extractQuestion failed. sessionId=" + this.sessionId, e);
             return "无问题";
         }
     }
 
+    @Override
+    public String extractQuestionStreaming(String text, String context) {
+        try {
+            String system = "你是面试问题识别器，从文本中识别是否包含明确问题，若有则抽取该问题。";
+            String content = streamUntil(LlmOperation.EXTRACT_QUESTION, modelFor(LlmOperation.EXTRACT_QUESTION), system,
+                    AliyunLlmClient::extractionDone, "文本：", text, "\n上下文：", context, "\n请返回识别到的问题或返回'无问题'。");
+            return extractedLine(content);
+        } catch (LlmUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("LLM extractQuestionStreaming failed. sessionId=" + this.sessionId, e);
+            return "无问题";
+        }
+    }
+
+    // 流式提取：输出以“无问题”开头，或首个非空行已完成
+    private static boolean extractionDone(CharSequence acc) {
+        String head = stripLeading(acc);
+        return head.startsWith("无问题") || head.indexOf('\n') > 0;
+    }
+
+    private static String extractedLine(CharSequence acc) {
+        String head = stripLeading(acc);
+        if (head.isEmpty() || head.startsWith("无问题")) return "无问题";
+        int nl = head.indexOf('\n');
+        return (nl < 0 ? head : head.substring(0, nl)).trim();
+    }
+
+    // 去掉前导空白与引号
+    private static String stripLeading(CharSequence acc) {
+        int i = 0;
+        while (i < acc.length() && (Character.isWhitespace(acc.charAt(i)) || "\"'“‘「『`".indexOf(acc.charAt(i)) >= 0)) i++;
+        return acc.subSequence(i, acc.length()).toString();
+    }
+
     @Override
     public String generateAnswer(String question, String context) {
         try {
             String system = "你是面试候选人助手，基于提供的背景与岗位需求，生成简洁、具体、专业的中文回答，避免虚构事实。";
-            String user = "问题：" + (question == null ? "" : question) + "\n上下文：" + (context == null ? "" : context) + "\n请直接给出答案：";
-            JsonNode root = call(model, system, user);
+            JsonNode root = call(LlmOperation.GENERATE_ANSWER, modelFor(LlmOperation.GENERATE_ANSWER), system,
+                    "问题：", question, "\n上下文：", context, "\n请直接给出答案：");
             JsonNode output = root.path("output").path("choices");
             if (output.isArray() && output.size() > 0) {
                 JsonNode content = output.get(0).path("message").path("content");
@@ -92,50 +183,347 @@ public class AliyunLlmClient implements LlmClient {
         }
     }
 
-    private JsonNode call(String model, String system, String user) throws Exception {
-        Map<String, Object> root = new HashMap<>();
-        root.put("model", model);
-        Map<String, Object> params = new HashMap<>();
-        params.put("temperature", temperature);
-        params.put("top_p", topP);
-        params.put("max_tokens", maxTokens);
-        params.put("enable_streaming", false); // 统一走非流式，服务端再分片推送
-        // 统一返回为消息格式，便于稳定解析
-        params.put("result_format", "message");
-        root.put("parameters", params);
-
-        // messages 风格
-        Map<String, Object> mSystem = new HashMap<>();
-        mSystem.put("role", "system");
-        mSystem.put("content", system);
-        Map<String, Object> mUser = new HashMap<>();
-        mUser.put("role", "user");
-        mUser.put("content", user);
-        root.put("input", Map.of("messages", new Object[]{mSystem, mUser}));
-
-        String body = mapper.writeValueAsString(root);
-        HttpRequest req = HttpRequest.newBuilder(URI.create(GEN_URL))
-                .timeout(Duration.ofSeconds(30))
+    /**
+     * 非流式调用；user 各片段依次写入用户消息。
+     */
+    private JsonNode call(LlmOperation op, String model, String system, CharSequence... user) throws Exception {
+        // 对冲时同一请求体可能被两个请求并发发送，不归还缓冲区
+        DashScopeRequestTemplate.Body body = template.body(model, false, system, hedgePolicy == null, user);
+        HttpRequest req = HttpRequest.newBuilder(URI.create(genUrl))
+                .timeout(requestTimeout(op, 30_000))
                 .header("Authorization", "Bearer " + apiKey)
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .POST(body.publisher())
                 .build();
 
-        HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        long start = System.currentTimeMillis();
+        HttpResponse<String> resp;
+        try {
+            resp = send(op, model, req);
+            // 失败（含超时）时请求体可能仍在发送，只在收到响应后归还
+            body.close();
+        } catch (LlmUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            // 截止时间到期不代表模型失败，不计入路由统计，交由调用方降级
+            if (deadlineFor(op).isExpired()) throw new LlmDeadlineExceededException(op, System.currentTimeMillis() - start);
+            if (!(e instanceof LlmAdmissionException)) routed(op, model, start, false);
+            throw e;
+        }
+        routed(op, model, start, resp.statusCode() / 100 == 2);
         log.info("LLM call status: {} model={} streaming=false sessionId={}", resp.statusCode(), model, this.sessionId);
         if (resp.statusCode() / 100 != 2) {
+            onHttpError(resp.statusCode(), model);
             throw new RuntimeException("LLM HTTP " + resp.statusCode() + ": " + resp.body());
         }
         String bodyStr = resp.body();
         try {
-            return mapper.readTree(bodyStr);
+            JsonNode json = mapper.readTree(bodyStr);
+            recordUsage(op, json);
+            return json;
         } finally {
             log.debug("LLM call body preview: {} sessionId={}", preview(bodyStr, 200), this.sessionId);
         }
     }
 
+    /**
+     * 流式调用：累积增量输出，{@code done} 判定结果已足够时关闭连接、中止剩余生成，返回累积文本。
+     * 熔断、准入、路由与截止时间的处理与非流式一致；读流期间到达截止时间时由看门狗关闭连接。
+     */
+    private String streamUntil(LlmOperation op, String model, String system,
+                               Predicate<CharSequence> done, CharSequence... user) throws Exception {
+        Deadline deadline = deadlineFor(op);
+        if (deadline.isExpired()) throw new LlmDeadlineExceededException(op, 0);
+        DashScopeRequestTemplate.Body body = template.body(model, true, system, true, user);
+        HttpRequest req = HttpRequest.newBuilder(URI.create(genUrl))
+                .timeout(requestTimeout(op, 30_000))
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(body.publisher())
+                .build();
+        CircuitBreaker cb = breaker;
+        if (cb != null && !cb.tryAcquire()) {
+            AgentMetrics.count("interview.llm.fallback", "op", op.tag(), "reason", "breaker_open");
+            throw new LlmUnavailableException(op, cb.getEndpoint());
+        }
+        long start = System.currentTimeMillis();
+        try (LlmAdmissionController.Permit ignored = admit(op, model)) {
+            HttpResponse<java.io.InputStream> resp;
+            try {
+                sent(op);
+                resp = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (Exception e) {
+                if (cb != null) {
+                    if (deadline.isExpired()) cb.onIgnored(); else cb.onFailure();
+                }
+                throw e;
+            }
+            body.close();
+            if (cb != null) {
+                if (isEndpointFailure(resp.statusCode())) cb.onFailure(); else cb.onSuccess();
+            }
+            if (resp.statusCode() / 100 != 2) {
+                onHttpError(resp.statusCode(), model);
+                try (java.io.InputStream es = resp.body()) {
+                    throw new RuntimeException("LLM stream HTTP " + resp.statusCode() + " body=" + preview(new String(es.readAllBytes(), StandardCharsets.UTF_8), 200));
+                }
+            }
+            StringBuilder acc = new StringBuilder();
+            boolean early = false;
+            JsonNode lastUsage = null;
+            try (java.io.InputStream is = resp.body()) {
+                HashedWheelTimer.Timeout watchdog = deadline == Deadline.NONE ? null
+                        : AgentSchedulers.watchdog().newTimeout(() -> closeQuietly(is), deadline.remainingMillis());
+                try {
+                    java.io.BufferedReader br = new java.io.BufferedReader(new java.io.InputStreamReader(is, StandardCharsets.UTF_8));
+                    String line;
+                    while (!early && (line = br.readLine()) != null) {
+                        if (!line.startsWith("data:")) continue;
+                        String data = line.substring(5).trim();
+                        if (data.isEmpty() || "[DONE]".equalsIgnoreCase(data)) continue;
+                        JsonNode node = mapper.readTree(data);
+                        if (node.has("usage")) lastUsage = node;
+                        JsonNode choices = node.path("output").path("choices");
+                        if (choices.isArray() && choices.size() > 0) {
+                            acc.append(choices.get(0).path("message").path("content").asText(""));
+                            early = done.test(acc);
+                        }
+                    }
+                } finally {
+                    if (watchdog != null) watchdog.cancel();
+                }
+            }
+            routed(op, model, start, true);
+            recordUsage(op, lastUsage);
+            AgentMetrics.count("interview.llm.stream.early", "op", op.tag(), "result", early ? "aborted" : "completed");
+            log.debug("LLM stream result: op={} early={} chars={} model={} sessionId={}", op.tag(), early, acc.length(), model, this.sessionId);
+            return acc.toString();
+        } catch (Exception e) {
+            boolean rejected = e instanceof LlmAdmissionException;
+            if (rejected && cb != null) cb.onIgnored();
+            // 截止时间到期不代表模型失败，不计入路由统计，交由调用方降级
+            if (deadline.isExpired()) throw new LlmDeadlineExceededException(op, System.currentTimeMillis() - start);
+            if (!rejected) routed(op, model, start, false);
+            throw e;
+        }
+    }
+
+    /**
+     * 判定类调用：fields 非空时走流式，增量解析出 {@code ready} 所需字段（或首个对象结束）即中止；否则走非流式。返回模型输出文本。
+     */
+    private String judge(LlmOperation op, String system, StreamingJsonFields fields,
+                         Predicate<StreamingJsonFields> ready, CharSequence... user) throws Exception {
+        if (fields == null) {
+            JsonNode output = call(op, modelFor(op), system, user).path("output").path("choices");
+            return output.isArray() && output.size() > 0 ? output.get(0).path("message").path("content").asText("") : null;
+        }
+        return streamUntil(op, modelFor(op), system, acc -> {
+            fields.feed(acc);
+            return fields.isClosed() || ready.test(fields);
+        }, user);
+    }
+
+    private static void closeQuietly(java.io.InputStream is) {
+        try { is.close(); } catch (Exception ignore) {}
+    }
+
     private String safe(String s) { return s == null ? "" : s; }
 
+    /**
+     * 发送非流式请求：熔断打开时直接抛出 {@link LlmUnavailableException}，片段已过期时抛出 {@link LlmDeadlineExceededException}；
+     * 分类调用按对冲策略必要时发出第二个请求。
+     */
+    private HttpResponse<String> send(LlmOperation op, String model, HttpRequest req) throws Exception {
+        Deadline deadline = deadlineFor(op);
+        if (deadline.isExpired()) throw new LlmDeadlineExceededException(op, 0);
+        CircuitBreaker cb = breaker;
+        if (cb != null && !cb.tryAcquire()) {
+            AgentMetrics.count("interview.llm.fallback", "op", op.tag(), "reason", "breaker_open");
+            throw new LlmUnavailableException(op, cb.getEndpoint());
+        }
+        HttpResponse<String> resp;
+        try {
+            long delay = hedgePolicy == null ? -1 : hedgePolicy.delayMillis(op);
+            resp = delay > 0 ? sendHedged(op, model, req, delay) : sendOnce(op, model, req);
+        } catch (LlmAdmissionException e) {
+            if (cb != null) cb.onIgnored();
+            throw e;
+        } catch (Exception e) {
+            // 截止时间导致的超时不计入熔断统计
+            if (cb != null) {
+                if (deadline.isExpired()) cb.onIgnored(); else cb.onFailure();
+            }
+            throw e;
+        }
+        if (cb != null) {
+            if (isEndpointFailure(resp.statusCode())) cb.onFailure(); else cb.onSuccess();
+        }
+        return resp;
+    }
+
+    // HttpClient 的请求超时只覆盖到响应头，有截止时间时异步发送并按剩余时间等待，读响应体超时也能及时返回
+    private HttpResponse<String> sendOnce(LlmOperation op, String model, HttpRequest req) throws Exception {
+        long start = System.currentTimeMillis();
+        Deadline deadline = deadlineFor(op);
+        if (deadline != Deadline.NONE) {
+            LlmAdmissionController.Permit permit = admit(op, model);
+            sent(op);
+            HttpResponse<String> resp = await(sendAsync(req, permit), op, deadline, start);
+            recordLatency(op, resp, System.currentTimeMillis() - start);
+            return resp;
+        }
+        try (LlmAdmissionController.Permit ignored = admit(op, model)) {
+            sent(op);
+            HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            recordLatency(op, resp, System.currentTimeMillis() - start);
+            return resp;
+        }
+    }
+
+    // 首个请求在对冲延迟内未返回时，预算与准入允许的情况下再发一个，取先成功者，中止另一个的响应体接收
+    private HttpResponse<String> sendHedged(LlmOperation op, String model, HttpRequest req, long delayMillis) throws Exception {
+        long start = System.currentTimeMillis();
+        AbortableStringBody primaryBody = new AbortableStringBody();
+        LlmAdmissionController.Permit permit = admit(op, model);
+        sent(op);
+        CompletableFuture<HttpResponse<String>> primary = sendAsync(req, permit, primaryBody);
+        try {
+            HttpResponse<String> resp = primary.get(delayMillis, TimeUnit.MILLISECONDS);
+            recordLatency(op, resp, System.currentTimeMillis() - start);
+            return resp;
+        } catch (TimeoutException ignored) {
+            // 超过对冲延迟
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        LlmAdmissionController.Permit hedgePermit = null;
+        if (!hedgePolicy.tryHedge() || (admission != null && (hedgePermit = admission.apply(model).tryAcquire(op)) == null)) {
+            AgentMetrics.count("interview.llm.hedge", "op", op.tag(), "result", "skipped");
+            HttpResponse<String> resp = await(primary, op, deadlineFor(op), start);
+            recordLatency(op, resp, System.currentTimeMillis() - start);
+            return resp;
+        }
+        AbortableStringBody backupBody = new AbortableStringBody();
+        CompletableFuture<HttpResponse<String>> backup = sendAsync(req, hedgePermit, backupBody);
+        HttpResponse<String> resp;
+        try {
+            resp = await(firstSuccessful(primary, backup), op, deadlineFor(op), start);
+        } catch (Exception e) {
+            primaryBody.abort();
+            backupBody.abort();
+            throw e;
+        }
+        boolean backupWon = backup.isDone() && !backup.isCompletedExceptionally() && backup.getNow(null) == resp;
+        AgentMetrics.count("interview.llm.hedge", "op", op.tag(), "result", backupWon ? "won" : "lost");
+        if (backupWon) primaryBody.abort(); else backupBody.abort();
+        // 首个请求被取消时按已等待时长（不低于对冲延迟）记样本，保证长尾仍进入统计
+        recordLatency(op, resp, System.currentTimeMillis() - start);
+        return resp;
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest req, LlmAdmissionController.Permit permit) {
+        return sendAsync(req, permit, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest req, LlmAdmissionController.Permit permit,
+                                                              HttpResponse.BodyHandler<String> handler) {
+        CompletableFuture<HttpResponse<String>> f = httpClient.sendAsync(req, handler);
+        if (permit != null) f.whenComplete((r, e) -> permit.close());
+        return f;
+    }
+
+    private static <T> T await(CompletableFuture<T> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // 等待至截止时间为止；到期后请求仍在后台完成并归还准入，调用方不再等待
+    private static <T> T await(CompletableFuture<T> f, LlmOperation op, Deadline deadline, long startMillis) throws Exception {
+        if (deadline == Deadline.NONE) return await(f);
+        try {
+            return f.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new LlmDeadlineExceededException(op, System.currentTimeMillis() - startMillis);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable c = e.getCause();
+        return c instanceof Exception ? (Exception) c : e;
+    }
+
+    // 先返回 2xx 者胜出；两个都不成功时返回后完成的响应或异常
+    private static CompletableFuture<HttpResponse<String>> firstSuccessful(CompletableFuture<HttpResponse<String>> a,
+                                                                          CompletableFuture<HttpResponse<String>> b) {
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        AtomicInteger done = new AtomicInteger();
+        java.util.function.BiConsumer<HttpResponse<String>, Throwable> handler = (r, e) -> {
+            boolean ok = e == null && r != null && r.statusCode() / 100 == 2;
+            if (ok) {
+                result.complete(r);
+            } else if (done.incrementAndGet() == 2) {
+                if (r != null) result.complete(r); else result.completeExceptionally(e);
+            }
+        };
+        a.whenComplete(handler);
+        b.whenComplete(handler);
+        return result;
+    }
+
+    private void recordLatency(LlmOperation op, HttpResponse<String> resp, long millis) {
+        if (hedgePolicy != null && resp != null && resp.statusCode() / 100 == 2) hedgePolicy.recordLatency(op, millis);
+    }
+
+    private static boolean isEndpointFailure(int status) {
+        return status >= 500 || status == 429;
+    }
+
+    private LlmAdmissionController.Permit admit(LlmOperation op, String model) {
+        return admission == null ? null : admission.apply(model).acquire(op);
+    }
+
+    private void sent(LlmOperation op) {
+        Consumer<LlmOperation> l = callListener;
+        if (l != null) l.accept(op);
+    }
+
+    // 回答生成不受片段截止时间约束（返回 NONE）；仅准入排队（LlmAdmissionController.acquire 读取 Deadline.current()）会因片段截止时间放弃
+    private static Deadline deadlineFor(LlmOperation op) {
+        return op == LlmOperation.GENERATE_ANSWER ? Deadline.NONE : Deadline.current();
+    }
+
+    private static Duration requestTimeout(LlmOperation op, long defaultMillis) {
+        return op == LlmOperation.GENERATE_ANSWER ? Duration.ofMillis(defaultMillis) : Deadline.timeout(defaultMillis);
+    }
+
+    private String modelFor(LlmOperation op) {
+        return router == null ? model : router.select(op);
+    }
+
+    private void routed(LlmOperation op, String model, long startMillis, boolean success) {
+        if (router != null) router.record(op, model, System.currentTimeMillis() - startMillis, success);
+    }
+
+    private void onHttpError(int status, String model) {
+        if (status == 429 && admission != null) admission.apply(model).onThrottled();
+    }
+
+    // 按调用类型导出服务端统计的 prompt / 输出 token 数（响应无 usage 时跳过；流式中止时为中止前已生成的量）
+    private void recordUsage(LlmOperation op, JsonNode node) {
+        JsonNode usage = node == null ? null : node.path("usage");
+        if (usage == null) return;
+        JsonNode input = usage.path("input_tokens");
+        if (input.isNumber()) AgentMetrics.summary("interview.llm.prompt.tokens", input.asDouble(), "op", op.tag());
+        JsonNode output = usage.path("output_tokens");
+        if (output.isNumber()) AgentMetrics.summary("interview.llm.completion.tokens", output.asDouble(), "op", op.tag());
+    }
+
     @Override
     public void close() {}
 
@@ -144,84 +532,95 @@ public class AliyunLlmClient implements LlmClient {
                                      java.util.function.Consumer<String> onDelta,
                                      Runnable onComplete,
                                      java.util.function.Consumer<Throwable> onError) {
+        String streamModel = modelFor(LlmOperation.GENERATE_ANSWER);
         try {
             log.info("LLM stream start: model={} qLen={} ctxLen={} temp={} topP={} maxTokens={} sessionId={}",
-                    model, question == null ? 0 : question.length(), context == null ? 0 : context.length(),
+                    streamModel, question == null ? 0 : question.length(), context == null ? 0 : context.length(),
                     temperature, topP, maxTokens, this.sessionId);
             String system = "你是面试候选人助手，基于提供的背景与岗位需求，生成简洁、具体、专业的中文回答，避免虚构事实。";
-            String user = "问题：" + safe(question) + "\n上下文：" + safe(context) + "\n请直接给出答案：";
-
             // DashScope 原生文本生成接口（流式）
-            Map<String, Object> root = new HashMap<>();
-            root.put("model", model);
-            Map<String, Object> params = new HashMap<>();
-            params.put("temperature", temperature);
-            params.put("top_p", topP);
-            params.put("max_tokens", maxTokens);
-            params.put("enable_streaming", true);
-            // 某些模型支持增量输出标志
-            params.put("incremental_output", true);
-            params.put("result_format", "message");
-            root.put("parameters", params);
-
-            Map<String, Object> mSystem = new HashMap<>();
-            mSystem.put("role", "system");
-            mSystem.put("content", system);
-            Map<String, Object> mUser = new HashMap<>();
-            mUser.put("role", "user");
-            mUser.put("content", user);
-            root.put("input", Map.of("messages", new Object[]{mSystem, mUser}));
-
-            String body = mapper.writeValueAsString(root);
-            HttpRequest req = HttpRequest.newBuilder(URI.create(GEN_URL))
+            DashScopeRequestTemplate.Body body = template.body(streamModel, true, system, true,
+                    "问题：", question, "\n上下文：", context, "\n请直接给出答案：");
+            HttpRequest req = HttpRequest.newBuilder(URI.create(genUrl))
                     .timeout(Duration.ofSeconds(60))
                     .header("Authorization", "Bearer " + apiKey)
                     .header("Content-Type", "application/json")
                     .header("Accept", "text/event-stream")
-                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .POST(body.publisher())
                     .build();
 
-            HttpResponse<java.io.InputStream> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
-            log.info("LLM stream status: {} model={} sessionId={}", resp.statusCode(), model, this.sessionId);
-            if (resp.statusCode() / 100 != 2) {
-                String errBody = "";
-                try (java.io.InputStream es = resp.body()) {
-                    errBody = new String(es.readAllBytes(), StandardCharsets.UTF_8);
-                } catch (Exception ignore) {}
-                throw new RuntimeException("LLM stream HTTP " + resp.statusCode() + " body=" + preview(errBody, 200));
+            CircuitBreaker cb = breaker;
+            if (cb != null && !cb.tryAcquire()) {
+                AgentMetrics.count("interview.llm.fallback", "op", LlmOperation.GENERATE_ANSWER.tag(), "reason", "breaker_open");
+                throw new LlmUnavailableException(LlmOperation.GENERATE_ANSWER, cb.getEndpoint());
             }
+            // 准入许可覆盖整个流，流结束后归还在途名额
+            try (LlmAdmissionController.Permit ignored = admit(LlmOperation.GENERATE_ANSWER, streamModel)) {
+                long start = System.currentTimeMillis();
+                HttpResponse<java.io.InputStream> resp;
+                try {
+                    sent(LlmOperation.GENERATE_ANSWER);
+                    resp = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
+                } catch (Exception e) {
+                    if (cb != null) cb.onFailure();
+                    routed(LlmOperation.GENERATE_ANSWER, streamModel, start, false);
+                    throw e;
+                }
+                body.close();
+                if (cb != null) {
+                    if (isEndpointFailure(resp.statusCode())) cb.onFailure(); else cb.onSuccess();
+                }
+                log.info("LLM stream status: {} model={} sessionId={}", resp.statusCode(), streamModel, this.sessionId);
+                if (resp.statusCode() / 100 != 2) {
+                    onHttpError(resp.statusCode(), streamModel);
+                    routed(LlmOperation.GENERATE_ANSWER, streamModel, start, false);
+                    String errBody = "";
+                    try (java.io.InputStream es = resp.body()) {
+                        errBody = new String(es.readAllBytes(), StandardCharsets.UTF_8);
+                    } catch (Exception ignore) {}
+                    throw new RuntimeException("LLM stream HTTP " + resp.statusCode() + " body=" + preview(errBody, 200));
+                }
 
-            int chunkCount = 0;
-            int totalChars = 0;
+                int chunkCount = 0;
+                int totalChars = 0;
+                JsonNode lastUsage = null;
 
-            try (java.io.InputStream is = resp.body()) {
-                java.io.BufferedReader br = new java.io.BufferedReader(new java.io.InputStreamReader(is, StandardCharsets.UTF_8));
-                String line;
-                while ((line = br.readLine()) != null) {
-                    if (line.startsWith("data:")) {
-                        String data = line.substring(5).trim();
-                        if (!data.isEmpty() && !"[DONE]".equalsIgnoreCase(data)) {
-                            try {
-                                JsonNode node = mapper.readTree(data);
-                                JsonNode choices = node.path("output").path("choices");
-                                if (choices.isArray() && choices.size() > 0) {
-                                    JsonNode msg = choices.get(0).path("message").path("content");
-                                    String delta = msg.asText("");
-                                    if (delta != null && !delta.isEmpty()) {
-                                        chunkCount++;
-                                        totalChars += delta.length();
-                                        if (onDelta != null) onDelta.accept(delta);
+                try (java.io.InputStream is = resp.body()) {
+                    java.io.BufferedReader br = new java.io.BufferedReader(new java.io.InputStreamReader(is, StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (line.startsWith("data:")) {
+                            String data = line.substring(5).trim();
+                            if (!data.isEmpty() && !"[DONE]".equalsIgnoreCase(data)) {
+                                try {
+                                    JsonNode node = mapper.readTree(data);
+                                    if (node.has("usage")) lastUsage = node;
+                                    JsonNode choices = node.path("output").path("choices");
+                                    if (choices.isArray() && choices.size() > 0) {
+                                        JsonNode msg = choices.get(0).path("message").path("content");
+                                        String delta = msg.asText("");
+                                        if (delta != null && !delta.isEmpty()) {
+                                            // 流式回答按首包耗时统计路由延迟
+                                            if (chunkCount == 0) routed(LlmOperation.GENERATE_ANSWER, streamModel, start, true);
+                                            chunkCount++;
+                                            totalChars += delta.length();
+                                            if (onDelta != null) onDelta.accept(delta);
+                                        }
                                     }
+                                } catch (Exception e) {
+                                    log.warn("LLM stream parse failed. sessionId=" + this.sessionId, e);
                                 }
-                            } catch (Exception e) {
-                                log.warn("LLM stream parse failed. sessionId=" + this.sessionId, e);
                             }
                         }
                     }
                 }
-            }
 
-            log.info("LLM stream end: chunks={} totalChars={} sessionId={}", chunkCount, totalChars, this.sessionId);
+                recordUsage(LlmOperation.GENERATE_ANSWER, lastUsage);
+                log.info("LLM stream end: chunks={} totalChars={} sessionId={}", chunkCount, totalChars, this.sessionId);
+            } catch (LlmAdmissionException e) {
+                if (cb != null) cb.onIgnored();
+                throw e;
+            }
             if (onComplete != null) onComplete.run();
         } catch (Exception e) {
             log.warn("LLM stream failed. sessionId=" + this.sessionId, e);
@@ -233,33 +632,31 @@ public class AliyunLlmClient implements LlmClient {
     public com.deepknow.goodface.interview.domain.agent.EquivalenceResult judgeQuestionEquivalence(String lastQuestion, String candidate, String context) {
         try {
             String system = "你是面试问题去重器与规范化器。任务：根据‘最近问题’‘当前输入’‘上下文’判断是否为同题或只是补充，不要产生新问题。仅当确认为新问题时返回 NEW；否则返回 SAME 或 ELABORATION；若不存在问题返回 NONE。请严格输出 JSON。";
-            String user = "最近问题：" + safe(lastQuestion) +
-                    "\n当前输入：" + safe(candidate) +
-                    "\n上下文：" + safe(context) +
-                    "\n请返回 JSON：{\"class\": \"SAME|ELABORATION|NEW|NONE\", \"canonical\": \"...\", \"reason\": \"...\"}";
-            JsonNode root = call(model, system, user);
-            JsonNode output = root.path("output").path("choices");
-            String content = null;
-            if (output.isArray() && output.size() > 0) {
-                content = output.get(0).path("message").path("content").asText("");
-            }
-            if (content == null || content.isEmpty()) {
-                log.warn("LLM judgeQuestionEquivalence empty content. sessionId={}", this.sessionId);
-                return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "empty content");
-            }
-            JsonNode json;
-            try { json = mapper.readTree(content); } catch (Exception e) {
-                int start = content.indexOf('{');
-                int end = content.lastIndexOf('}');
-                if (start >= 0 && end > start) {
-                    String sub = content.substring(start, end + 1);
-                    try { json = mapper.readTree(sub); } catch (Exception e2) {
-                        log.warn("LLM judgeQuestionEquivalence parse failed. content preview={} sessionId={}", preview(content, 120), this.sessionId);
-                        return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "parse failed");
+            // 流式时仅 NEW 需要等到规范化问题文本，其余类别读到 class 即中止
+            StreamingJsonFields fields = judgeStreaming ? new StreamingJsonFields() : null;
+            String content = judge(LlmOperation.JUDGE_EQUIVALENCE, system, fields,
+                    f -> f.has("class") && (!"NEW".equalsIgnoreCase(f.get("class").trim()) || f.has("canonical")),
+                    "最近问题：", lastQuestion, "\n当前输入：", candidate, "\n上下文：", context,
+                    "\n请返回 JSON：{\"class\": \"SAME|ELABORATION|NEW|NONE\", \"canonical\": \"...\", \"reason\": \"...\"}");
+            JsonNode json = fields != null && fields.has("class") ? fields.toNode() : null;
+            if (json == null) {
+                if (content == null || content.isEmpty()) {
+                    log.warn("LLM judgeQuestionEquivalence empty content. sessionId={}", this.sessionId);
+                    return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "empty content");
+                }
+                try { json = mapper.readTree(content); } catch (Exception e) {
+                    int start = content.indexOf('{');
+                    int end = content.lastIndexOf('}');
+                    if (start >= 0 && end > start) {
+                        String sub = content.substring(start, end + 1);
+                        try { json = mapper.readTree(sub); } catch (Exception e2) {
+                            log.warn("LLM judgeQuestionEquivalence parse failed. content preview={} sessionId={}", preview(content, 120), this.sessionId);
+                            return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "parse failed");
+                        }
+                    } else {
+                        log.warn("LLM judgeQuestionEquivalence no json found. content preview={} sessionId={}", preview(content, 120), this.sessionId);
+                        return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "no json");
                     }
-                } else {
-                    log.warn("LLM judgeQuestionEquivalence no json found. content preview={} sessionId={}", preview(content, 120), this.sessionId);
-                    return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "no json");
                 }
             }
             String clazz = json.path("class").asText("SAME");
@@ -272,6 +669,8 @@ public class AliyunLlmClient implements LlmClient {
             com.deepknow.goodface.interview.domain.agent.EquivalenceResult res = new com.deepknow.goodface.interview.domain.agent.EquivalenceResult(cUpper, canonical, reason);
             log.info("LLM judgeQuestionEquivalence: {} sessionId={}", res, this.sessionId);
             return res;
+        } catch (LlmUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("LLM judgeQuestionEquivalence failed. sessionId=" + this.sessionId, e);
             return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("SAME", safe(candidate), "exception");
@@ -282,33 +681,29 @@ public class AliyunLlmClient implements LlmClient {
     public com.deepknow.goodface.interview.domain.agent.EquivalenceResult judgeSegmentRelation(String lastQuestion, String segment, String context) {
         try {
             String system = "你是段落关系判定器。当没有明确问题时，判断该段落是否是为最近问题的补充。仅在补充时返回 ELABORATION，否则返回 NONE。严格输出 JSON。";
-            String user = "最近问题：" + safe(lastQuestion) +
-                    "\n当前段落：" + safe(segment) +
-                    "\n上下文：" + safe(context) +
-                    "\n请返回 JSON：{\"class\": \"ELABORATION|NONE\", \"reason\": \"...\"}";
-            JsonNode root = call(model, system, user);
-            JsonNode output = root.path("output").path("choices");
-            String content = null;
-            if (output.isArray() && output.size() > 0) {
-                content = output.get(0).path("message").path("content").asText("");
-            }
-            if (content == null || content.isEmpty()) {
-                log.warn("LLM judgeSegmentRelation empty content. sessionId={}", this.sessionId);
-                return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "empty content");
-            }
-            JsonNode json;
-            try { json = mapper.readTree(content); } catch (Exception e) {
-                int start = content.indexOf('{');
-                int end = content.lastIndexOf('}');
-                if (start >= 0 && end > start) {
-                    String sub = content.substring(start, end + 1);
-                    try { json = mapper.readTree(sub); } catch (Exception e2) {
-                        log.warn("LLM judgeSegmentRelation parse failed. content preview={} sessionId={}", preview(content, 120), this.sessionId);
-                        return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "parse failed");
+            StreamingJsonFields fields = judgeStreaming ? new StreamingJsonFields() : null;
+            String content = judge(LlmOperation.JUDGE_RELATION, system, fields, f -> f.has("class"),
+                    "最近问题：", lastQuestion, "\n当前段落：", segment, "\n上下文：", context,
+                    "\n请返回 JSON：{\"class\": \"ELABORATION|NONE\", \"reason\": \"...\"}");
+            JsonNode json = fields != null && fields.has("class") ? fields.toNode() : null;
+            if (json == null) {
+                if (content == null || content.isEmpty()) {
+                    log.warn("LLM judgeSegmentRelation empty content. sessionId={}", this.sessionId);
+                    return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "empty content");
+                }
+                try { json = mapper.readTree(content); } catch (Exception e) {
+                    int start = content.indexOf('{');
+                    int end = content.lastIndexOf('}');
+                    if (start >= 0 && end > start) {
+                        String sub = content.substring(start, end + 1);
+                        try { json = mapper.readTree(sub); } catch (Exception e2) {
+                            log.warn("LLM judgeSegmentRelation parse failed. content preview={} sessionId={}", preview(content, 120), this.sessionId);
+                            return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "parse failed");
+                        }
+                    } else {
+                        log.warn("LLM judgeSegmentRelation no json found. content preview={} sessionId={}", preview(content, 120), this.sessionId);
+                        return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "no json");
                     }
-                } else {
-                    log.warn("LLM judgeSegmentRelation no json found. content preview={} sessionId={}", preview(content, 120), this.sessionId);
-                    return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "no json");
                 }
             }
             String clazz = json.path("class").asText("NONE");
@@ -320,6 +715,8 @@ public class AliyunLlmClient implements LlmClient {
             com.deepknow.goodface.interview.domain.agent.EquivalenceResult res = new com.deepknow.goodface.interview.domain.agent.EquivalenceResult(cUpper, "", reason);
             log.info("LLM judgeSegmentRelation: {} sessionId={}", res, this.sessionId);
             return res;
+        } catch (LlmUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("LLM judgeSegmentRelation failed. sessionId=" + this.sessionId, e);
             return new com.deepknow.goodface.interview.domain.agent.EquivalenceResult("NONE", "", "exception");
@@ -330,11 +727,9 @@ public class AliyunLlmClient implements LlmClient {
     public com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult updateContextMemory(String currentQuestion, String accumulatedContext, String recentContext) {
         try {
             String system = "你是对话摘要与事实抽取器。基于当前问题与已有上下文，生成简洁的滚动摘要（中文，3-5 条要点），并抽取关键事实为键值对。严格输出 JSON。";
-            String user = "当前问题：" + safe(currentQuestion) +
-                    "\n已累积上下文：" + safe(accumulatedContext) +
-                    "\n最近上下文：" + safe(recentContext) +
-                    "\n请返回 JSON：{\"summary\": \"...\", \"facts\": {\"key\": \"value\"}}";
-            JsonNode root = call(model, system, user);
+            JsonNode root = call(LlmOperation.UPDATE_MEMORY, modelFor(LlmOperation.UPDATE_MEMORY), system,
+                    "当前问题：", currentQuestion, "\n已累积上下文：", accumulatedContext, "\n最近上下文：", recentContext,
+                    "\n请返回 JSON：{\"summary\": \"...\", \"facts\": {\"key\": \"value\"}}");
             JsonNode output = root.path("output").path("choices");
             String content = null;
             if (output.isArray() && output.size() > 0) {
@@ -373,4 +768,55 @@ public class AliyunLlmClient implements LlmClient {
             return new com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult("", java.util.Collections.emptyMap());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 可中止的字符串响应体：对冲落败时取消响应体订阅，连接随之关闭，不再接收剩余生成内容。
+     * Java 11 的 {@code CompletableFuture.cancel} 不会中止 HTTP 交换；响应头到达前中止只能等到订阅建立时生效。
+     */
+    private static final class AbortableStringBody implements HttpResponse.BodyHandler<String> {
+        private final HttpResponse.BodySubscriber<String> delegate = HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean aborted;
+
+        @Override
+        public HttpResponse.BodySubscriber<String> apply(HttpResponse.ResponseInfo info) {
+            return new HttpResponse.BodySubscriber<String>() {
+                @Override
+                public CompletionStage<String> getBody() {
+                    return delegate.getBody();
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription = s;
+                    delegate.onSubscribe(s);
+                    if (aborted) abort();
+                }
+
+                @Override
+                public void onNext(List<ByteBuffer> item) {
+                    delegate.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    delegate.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    delegate.onComplete();
+                }
+            };
+        }
+
+        void abort() {
+            aborted = true;
+            Flow.Subscription s = subscription;
+            if (s == null) return;
+            s.cancel();
+            // 取消订阅后不会再有完成信号，主动结束响应体，使请求完成并归还准入
+            delegate.onError(new CancellationException("hedge lost"));
+        }
+    }
+}
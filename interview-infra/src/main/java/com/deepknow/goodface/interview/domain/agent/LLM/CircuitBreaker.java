@@ -0,0 +1,147 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按服务地址共享的熔断器：最近 windowSize 次调用中失败率超过阈值即打开，打开期间直接拒绝；
+ * openMillis 后进入半开，只放行一个探测请求，成功则关闭，失败则重新打开。
+ * <p>
+ * 失败指超时/网络异常、5xx 与 429；其余 4xx 视为请求本身问题，不计入。
+ * 状态见 interview.llm.breaker.state（0 关闭/1 半开/2 打开），拒绝次数见 interview.llm.breaker.rejected。
+ */
+public class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final Map<String, CircuitBreaker> SHARED = new ConcurrentHashMap<>();
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String endpoint;
+    private final Settings settings;
+    // 环形结果窗口：true 表示失败
+    private final boolean[] window;
+    private int index = 0;
+    private int calls = 0;
+    private int failures = 0;
+    private State state = State.CLOSED;
+    private long openedAt = 0;
+    private boolean probing = false;
+
+    public CircuitBreaker(String endpoint, Settings settings) {
+        this.endpoint = endpoint;
+        this.settings = settings;
+        this.window = new boolean[Math.max(1, settings.windowSize)];
+        AgentMetrics.gauge("interview.llm.breaker.state", this, b -> b.getState().ordinal(), "endpoint", endpoint);
+    }
+
+    /**
+     * 获取进程内共享的熔断器；参数来自服务端配置（各会话相同），同一地址只在首次调用时创建。
+     */
+    public static CircuitBreaker shared(String endpoint, Settings settings) {
+        return SHARED.computeIfAbsent(endpoint == null ? "" : endpoint, k -> new CircuitBreaker(k, settings));
+    }
+
+    public String getEndpoint() { return endpoint; }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= settings.openMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * 是否放行本次调用；放行后必须以 onSuccess/onFailure 报告结果。
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < settings.openMillis) {
+                AgentMetrics.count("interview.llm.breaker.rejected", "endpoint", endpoint);
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                AgentMetrics.count("interview.llm.breaker.rejected", "endpoint", endpoint);
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+            reset();
+            transition(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * 已放行但请求未实际发出（如准入被拒）：不计入统计，只释放半开探测名额。
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) probing = false;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+            openedAt = System.currentTimeMillis();
+            transition(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= settings.minCalls
+                && failures >= settings.failureRate * calls) {
+            openedAt = System.currentTimeMillis();
+            transition(State.OPEN);
+        }
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[index]) failures--;
+        } else {
+            calls++;
+        }
+        window[index] = failed;
+        if (failed) failures++;
+        index = (index + 1) % window.length;
+    }
+
+    private void reset() {
+        calls = 0;
+        failures = 0;
+        index = 0;
+    }
+
+    private void transition(State next) {
+        if (state == next) return;
+        log.info("LLM circuit breaker {} -> {} endpoint={} calls={} failures={}", state, next, endpoint, calls, failures);
+        state = next;
+        AgentMetrics.count("interview.llm.breaker.transition", "endpoint", endpoint, "to", next.name().toLowerCase());
+    }
+
+    public static class Settings {
+        public final int windowSize;
+        public final int minCalls;
+        public final double failureRate;
+        public final long openMillis;
+
+        public Settings(int windowSize, int minCalls, double failureRate, long openMillis) {
+            this.windowSize = windowSize;
+            this.minCalls = minCalls;
+            this.failureRate = failureRate;
+            this.openMillis = openMillis;
+        }
+    }
+}
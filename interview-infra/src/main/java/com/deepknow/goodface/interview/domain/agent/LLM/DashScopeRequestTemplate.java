@@ -0,0 +1,228 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话级 DashScope 请求模板：模型、生成参数与系统提示在首次使用时预序列化为字节前缀，
+ * 每次请求只把用户消息的各片段经 {@link JsonGenerator} 直接编码进池化缓冲区，不再构建嵌套 Map，也不拼接长上下文字符串。
+ * <p>
+ * 请求体通过 {@link Body#publisher()} 直接引用缓冲区；调用结束（含流式读完）后关闭 Body 归还缓冲区，
+ * 可能被对冲等并发重发的请求体不归还（{@link #body} 的 pooled 参数为 false）。
+ */
+public class DashScopeRequestTemplate {
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    private static final byte[] TAIL = "}]}}".getBytes(StandardCharsets.UTF_8);
+    private static final int POOL_SIZE = 4;
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+
+    private final double temperature;
+    private final double topP;
+    private final int maxTokens;
+    private final Map<Head, byte[]> heads = new ConcurrentHashMap<>();
+    private final Queue<Buffer> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    public DashScopeRequestTemplate(double temperature, double topP, int maxTokens) {
+        this.temperature = temperature;
+        this.topP = topP;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * 写出一次请求体；userParts 依次拼成用户消息（null 视为空串）。
+     */
+    public Body body(String model, boolean streaming, String system, boolean pooled, CharSequence... userParts) throws IOException {
+        byte[] head = heads.computeIfAbsent(new Head(model, streaming, system), this::writeHead);
+        Buffer buf = pooled ? acquire() : new Buffer(head.length + INITIAL_CAPACITY);
+        buf.write(head);
+        try (JsonGenerator g = FACTORY.createGenerator(buf)) {
+            g.writeString(new PartsReader(userParts), -1);
+        }
+        buf.write(TAIL);
+        return new Body(buf, pooled);
+    }
+
+    // {"model":..,"parameters":{..},"input":{"messages":[{"role":"system","content":..},{"role":"user","content":
+    private byte[] writeHead(Head h) {
+        Buffer buf = new Buffer(512);
+        try (JsonGenerator g = FACTORY.createGenerator(buf)) {
+            g.writeStartObject();
+            g.writeStringField("model", h.model);
+            g.writeObjectFieldStart("parameters");
+            g.writeNumberField("temperature", temperature);
+            g.writeNumberField("top_p", topP);
+            g.writeNumberField("max_tokens", maxTokens);
+            g.writeBooleanField("enable_streaming", h.streaming);
+            // 流式时只推送增量，便于边收边判定
+            if (h.streaming) g.writeBooleanField("incremental_output", true);
+            // 统一返回为消息格式，便于稳定解析
+            g.writeStringField("result_format", "message");
+            g.writeEndObject();
+            g.writeObjectFieldStart("input");
+            g.writeArrayFieldStart("messages");
+            g.writeStartObject();
+            g.writeStringField("role", "system");
+            g.writeStringField("content", h.system);
+            g.writeEndObject();
+            g.writeStartObject();
+            g.writeStringField("role", "user");
+            g.writeFieldName("content");
+            // 用户消息由 body() 续写，关闭生成器时不自动补全未闭合的结构
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // 字段值的冒号由生成器在写值时补，这里手动补上
+        buf.write(':');
+        return Arrays.copyOf(buf.bytes, buf.count);
+    }
+
+    private Buffer acquire() {
+        Buffer b = pool.poll();
+        if (b == null) return new Buffer(INITIAL_CAPACITY);
+        pooled.decrementAndGet();
+        b.count = 0;
+        return b;
+    }
+
+    private void release(Buffer b) {
+        if (b.bytes.length > MAX_POOLED_CAPACITY) return;
+        if (pooled.incrementAndGet() > POOL_SIZE) {
+            pooled.decrementAndGet();
+            return;
+        }
+        pool.offer(b);
+    }
+
+    /**
+     * 一次请求体；关闭后缓冲区归还模板，不得再使用 {@link #publisher()}。
+     */
+    public final class Body implements AutoCloseable {
+        private Buffer buf;
+        private final boolean pooled;
+
+        private Body(Buffer buf, boolean pooled) {
+            this.buf = buf;
+            this.pooled = pooled;
+        }
+
+        public HttpRequest.BodyPublisher publisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(buf.bytes, 0, buf.count);
+        }
+
+        public int size() {
+            return buf == null ? 0 : buf.count;
+        }
+
+        @Override
+        public void close() {
+            Buffer b = buf;
+            buf = null;
+            if (b != null && pooled) release(b);
+        }
+    }
+
+    private static final class Buffer extends OutputStream {
+        byte[] bytes;
+        int count;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + extra));
+        }
+    }
+
+    // 依次读出各片段，避免先拼接成一个大字符串
+    private static final class PartsReader extends Reader {
+        private final CharSequence[] parts;
+        private int part;
+        private int pos;
+
+        PartsReader(CharSequence[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            int n = 0;
+            while (n < len && part < parts.length) {
+                CharSequence p = parts[part];
+                int remaining = p == null ? 0 : p.length() - pos;
+                if (remaining <= 0) {
+                    part++;
+                    pos = 0;
+                    continue;
+                }
+                int take = Math.min(remaining, len - n);
+                if (p instanceof String) {
+                    ((String) p).getChars(pos, pos + take, cbuf, off + n);
+                } else {
+                    for (int i = 0; i < take; i++) cbuf[off + n + i] = p.charAt(pos + i);
+                }
+                pos += take;
+                n += take;
+            }
+            return n == 0 && len > 0 ? -1 : n;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static final class Head {
+        final String model;
+        final boolean streaming;
+        final String system;
+
+        Head(String model, boolean streaming, String system) {
+            this.model = model == null ? "" : model;
+            this.streaming = streaming;
+            this.system = system == null ? "" : system;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Head)) return false;
+            Head h = (Head) o;
+            return streaming == h.streaming && model.equals(h.model) && system.equals(h.system);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(model, streaming, system);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分类类调用的对冲策略（按服务地址共享）：首个请求超过该调用类型近期成功耗时的 p95 仍未返回时，再发一个相同请求，取先返回者。
+ * <p>
+ * <ul>
+ *   <li>对冲延迟取最近 256 次成功耗时的 p95，并限制在 [minDelayMillis, maxDelayMillis]；样本不足 20 个时不对冲；</li>
+ *   <li>对冲预算：每次调用积累 maxHedgeRatio 个额度，每次对冲消耗 1 个，长期对冲比例不超过该值，避免放大故障期负载。</li>
+ * </ul>
+ */
+public class HedgePolicy {
+    private static final Map<String, HedgePolicy> SHARED = new ConcurrentHashMap<>();
+    private static final int SAMPLES = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_BUDGET = 10;
+
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+    private final double maxHedgeRatio;
+    private final Map<LlmOperation, LatencyWindow> samples = new EnumMap<>(LlmOperation.class);
+    private double budget = 1;
+
+    public HedgePolicy(long minDelayMillis, long maxDelayMillis, double maxHedgeRatio) {
+        this.minDelayMillis = Math.max(1, minDelayMillis);
+        this.maxDelayMillis = Math.max(this.minDelayMillis, maxDelayMillis);
+        this.maxHedgeRatio = Math.max(0, Math.min(1, maxHedgeRatio));
+    }
+
+    /**
+     * 获取进程内共享的策略；参数来自服务端配置（各会话相同），同一地址只在首次调用时创建。
+     */
+    public static HedgePolicy shared(String endpoint, long minDelayMillis, long maxDelayMillis, double maxHedgeRatio) {
+        return SHARED.computeIfAbsent(endpoint == null ? "" : endpoint,
+                k -> new HedgePolicy(minDelayMillis, maxDelayMillis, maxHedgeRatio));
+    }
+
+    public static boolean isHedgeable(LlmOperation op) {
+        return op == LlmOperation.EXTRACT_QUESTION || op == LlmOperation.JUDGE_EQUIVALENCE || op == LlmOperation.JUDGE_RELATION;
+    }
+
+    /**
+     * 本次调用的对冲延迟；返回 -1 表示不对冲（类型不适用或样本不足）。调用即计入预算积累。
+     */
+    public synchronized long delayMillis(LlmOperation op) {
+        if (!isHedgeable(op)) return -1;
+        budget = Math.min(MAX_BUDGET, budget + maxHedgeRatio);
+        LatencyWindow w = samples.get(op);
+        if (w == null || !w.isReady()) return -1;
+        return Math.max(minDelayMillis, Math.min(maxDelayMillis, w.p95()));
+    }
+
+    /**
+     * 申请一次对冲额度；预算不足时返回 false。
+     */
+    public synchronized boolean tryHedge() {
+        if (budget < 1) return false;
+        budget -= 1;
+        return true;
+    }
+
+    public synchronized void recordLatency(LlmOperation op, long millis) {
+        if (!isHedgeable(op)) return;
+        samples.computeIfAbsent(op, k -> new LatencyWindow(SAMPLES, MIN_SAMPLES)).add(millis);
+    }
+}
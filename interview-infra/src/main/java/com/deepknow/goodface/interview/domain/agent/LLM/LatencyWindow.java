@@ -0,0 +1,61 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import java.util.Arrays;
+
+/**
+ * 最近 N 次调用耗时的滑动窗口，p95 每 16 个样本重算一次（非线程安全，由调用方加锁）。
+ */
+class LatencyWindow {
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] ring;
+    private final int minSamples;
+    private int count = 0;
+    private int next = 0;
+    private int sinceRecompute = 0;
+    private long p95 = Long.MAX_VALUE;
+    private long lastAtMillis = 0;
+
+    LatencyWindow(int size, int minSamples) {
+        this.ring = new long[Math.max(1, size)];
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    void add(long millis) {
+        ring[next] = Math.max(0, millis);
+        next = (next + 1) % ring.length;
+        if (count < ring.length) count++;
+        lastAtMillis = System.currentTimeMillis();
+        if (++sinceRecompute >= RECOMPUTE_EVERY || count == minSamples) {
+            sinceRecompute = 0;
+            long[] copy = Arrays.copyOf(ring, count);
+            Arrays.sort(copy);
+            p95 = copy[Math.min(count - 1, (int) Math.ceil(count * 0.95) - 1)];
+        }
+    }
+
+    /**
+     * 清空样本，之后需重新积累 minSamples 个样本才有 p95。
+     */
+    void reset() {
+        count = 0;
+        next = 0;
+        sinceRecompute = 0;
+        p95 = Long.MAX_VALUE;
+    }
+
+    boolean isReady() {
+        return count >= minSamples;
+    }
+
+    /**
+     * 样本不足时返回 -1。
+     */
+    long p95() {
+        return isReady() ? p95 : -1;
+    }
+
+    long lastAtMillis() {
+        return lastAtMillis;
+    }
+}
@@ -0,0 +1,274 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程级 LLM 准入控制：同一“服务地址 + API Key + 模型”共享一个令牌桶（QPS）与在途上限。
+ * <p>
+ * 调用按类型分优先级：回答生成 > 问题提取 > 等价/关系判定 > 记忆更新。
+ * <ul>
+ *   <li>无排队且有余量时直接放行；否则按优先级排队，同优先级先到先得；</li>
+ *   <li>低优先级只能占用部分排队名额（判定 1/2、记忆 1/4），等待上限也更短；</li>
+ *   <li>队列满时高优先级请求挤掉队尾的低优先级请求；超时或被挤掉的请求抛出 {@link LlmAdmissionException}；</li>
+ *   <li>服务端返回 429 时清空令牌桶并预扣 0.5 秒额度，整体退避。</li>
+ * </ul>
+ * 排队耗时见 interview.llm.admission.wait{op}，准入结果见 interview.llm.admission{op,result=admitted|queued|shed|timeout|deadline}。
+ */
+public class LlmAdmissionController {
+    private static final Map<String, LlmAdmissionController> SHARED = new ConcurrentHashMap<>();
+    private static final double THROTTLE_BACKOFF_SECONDS = 0.5;
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final int maxInFlight;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TreeSet<Waiter> waiters = new TreeSet<>();
+    private final AtomicLong seq = new AtomicLong();
+    private double tokens;
+    private long refilledAtNanos = System.nanoTime();
+    private int inFlight = 0;
+
+    public LlmAdmissionController(String name, Limits limits) {
+        this.name = name;
+        this.permitsPerSecond = Math.max(0.1, limits.permitsPerSecond);
+        this.burst = Math.max(1, limits.burst);
+        this.maxInFlight = Math.max(1, limits.maxInFlight);
+        this.maxQueue = Math.max(0, limits.maxQueue);
+        this.tokens = this.burst;
+        AgentMetrics.gauge("interview.llm.admission.inflight", this, c -> c.inFlight, "model", name);
+        AgentMetrics.gauge("interview.llm.admission.queued", this, c -> c.queued(), "model", name);
+    }
+
+    /**
+     * 获取进程内共享的控制器；限额来自服务端配置（各会话相同），同一键只在首次调用时创建。
+     */
+    public static LlmAdmissionController shared(String baseUrl, String apiKey, String model, Limits limits) {
+        String key = (baseUrl == null ? "" : baseUrl) + "|" + (model == null ? "" : model) + "|"
+                + (apiKey == null ? 0 : apiKey.hashCode());
+        return SHARED.computeIfAbsent(key, k -> new LlmAdmissionController(model, limits));
+    }
+
+    /**
+     * 申请一次调用的准入；返回的许可需在调用结束（流式为整个流结束）后关闭。
+     */
+    public Permit acquire(LlmOperation op) {
+        Priority p = Priority.of(op);
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && tryTake(start)) {
+                AgentMetrics.count("interview.llm.admission", "op", op.tag(), "result", "admitted");
+                return new Permit(this);
+            }
+            if (!reserveQueueSlot(p)) {
+                throw reject(op, "shed", start);
+            }
+            Waiter me = new Waiter(p, seq.incrementAndGet());
+            waiters.add(me);
+            // 排队时长同时受片段截止时间约束
+            long budget = Deadline.current().remainingMillis();
+            String expiry = budget < p.maxWaitMillis ? "deadline" : "timeout";
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(Math.min(p.maxWaitMillis, budget));
+            try {
+                while (true) {
+                    if (me.shed) throw reject(op, "shed", start);
+                    long now = System.nanoTime();
+                    if (waiters.first() == me && tryTake(now)) {
+                        waiters.remove(me);
+                        changed.signalAll();
+                        AgentMetrics.count("interview.llm.admission", "op", op.tag(), "result", "queued");
+                        AgentMetrics.recordMillis("interview.llm.admission.wait",
+                                TimeUnit.NANOSECONDS.toMillis(now - start), "op", op.tag());
+                        return new Permit(this);
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) throw reject(op, expiry, start);
+                    long wait = remaining;
+                    if (inFlight < maxInFlight && tokens < 1) {
+                        wait = Math.min(wait, (long) ((1 - tokens) / permitsPerSecond * 1_000_000_000L) + 1);
+                    }
+                    changed.awaitNanos(wait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject(op, "timeout", start);
+            } finally {
+                if (waiters.remove(me)) changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 非阻塞申请：无排队且有余量时返回许可，否则返回 null（用于对冲等可放弃的附加请求）。
+     */
+    public Permit tryAcquire(LlmOperation op) {
+        lock.lock();
+        try {
+            if (!waiters.isEmpty() || !tryTake(System.nanoTime())) return null;
+        } finally {
+            lock.unlock();
+        }
+        AgentMetrics.count("interview.llm.admission", "op", op.tag(), "result", "admitted");
+        return new Permit(this);
+    }
+
+    /**
+     * 服务端限流（HTTP 429）反馈：清空令牌并预扣一段额度，后续请求自然退避。
+     */
+    public void onThrottled() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            tokens = Math.max(-burst, Math.min(tokens, 0) - permitsPerSecond * THROTTLE_BACKOFF_SECONDS);
+        } finally {
+            lock.unlock();
+        }
+        AgentMetrics.count("interview.llm.admission.throttled", "model", name);
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try { return inFlight; } finally { lock.unlock(); }
+    }
+
+    public int queued() {
+        lock.lock();
+        try { return waiters.size(); } finally { lock.unlock(); }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - 1);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryTake(long now) {
+        if (inFlight >= maxInFlight) return false;
+        refill(now);
+        if (tokens < 1) return false;
+        tokens -= 1;
+        inFlight++;
+        return true;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - refilledAtNanos;
+        if (elapsed <= 0) return;
+        tokens = Math.min(burst, tokens + elapsed / 1_000_000_000.0 * permitsPerSecond);
+        refilledAtNanos = now;
+    }
+
+    // 低优先级只能使用部分排队名额；队列满时高优先级挤掉队尾更低优先级的请求
+    private boolean reserveQueueSlot(Priority p) {
+        int limit = (int) (maxQueue * p.queueShare);
+        if (waiters.size() < limit) return true;
+        if (limit < maxQueue) return false;
+        Waiter last = waiters.isEmpty() ? null : waiters.last();
+        if (last == null || last.priority.ordinal() <= p.ordinal()) return false;
+        waiters.remove(last);
+        last.shed = true;
+        changed.signalAll();
+        return true;
+    }
+
+    private LlmAdmissionException reject(LlmOperation op, String result, long start) {
+        AgentMetrics.count("interview.llm.admission", "op", op.tag(), "result", result);
+        AgentMetrics.recordMillis("interview.llm.admission.wait",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), "op", op.tag());
+        return new LlmAdmissionException(op, result);
+    }
+
+    private enum Priority {
+        ANSWER(10_000, 1.0),
+        EXTRACT(3_000, 1.0),
+        JUDGE(2_000, 0.5),
+        MEMORY(1_000, 0.25);
+
+        final long maxWaitMillis;
+        final double queueShare;
+
+        Priority(long maxWaitMillis, double queueShare) {
+            this.maxWaitMillis = maxWaitMillis;
+            this.queueShare = queueShare;
+        }
+
+        static Priority of(LlmOperation op) {
+            switch (op) {
+                case GENERATE_ANSWER: return ANSWER;
+                case EXTRACT_QUESTION: return EXTRACT;
+                case JUDGE_EQUIVALENCE:
+                case JUDGE_RELATION: return JUDGE;
+                default: return MEMORY;
+            }
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+        final Priority priority;
+        final long seq;
+        boolean shed;
+
+        Waiter(Priority priority, long seq) {
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Waiter o) {
+            int c = Integer.compare(priority.ordinal(), o.priority.ordinal());
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    /**
+     * 准入许可：关闭时归还在途名额，重复关闭无副作用。
+     */
+    public static final class Permit implements AutoCloseable {
+        private LlmAdmissionController owner;
+
+        Permit(LlmAdmissionController owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void close() {
+            LlmAdmissionController o = owner;
+            owner = null;
+            if (o != null) o.release();
+        }
+    }
+
+    public static class Limits {
+        public final double permitsPerSecond;
+        public final int burst;
+        public final int maxInFlight;
+        public final int maxQueue;
+
+        public Limits(double permitsPerSecond, int burst, int maxInFlight, int maxQueue) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            this.maxInFlight = maxInFlight;
+            this.maxQueue = maxQueue;
+        }
+    }
+}
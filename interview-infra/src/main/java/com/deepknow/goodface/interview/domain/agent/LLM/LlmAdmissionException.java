@@ -0,0 +1,20 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+
+/**
+ * LLM 调用未获准入（排队超时或被高优先级请求挤掉）。不采集堆栈，调用方按普通失败降级处理。
+ */
+public class LlmAdmissionException extends RuntimeException {
+    private final LlmOperation operation;
+    private final String reason;
+
+    public LlmAdmissionException(LlmOperation operation, String reason) {
+        super("LLM admission rejected: op=" + operation.tag() + " reason=" + reason, null, false, false);
+        this.operation = operation;
+        this.reason = reason;
+    }
+
+    public LlmOperation getOperation() { return operation; }
+    public String getReason() { return reason; }
+}
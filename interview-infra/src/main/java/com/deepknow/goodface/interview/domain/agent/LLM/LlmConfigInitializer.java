@@ -23,9 +23,26 @@ public class LlmConfigInitializer {
             System.setProperty("llm.apiKey", props.getApiKey());
         }
         System.setProperty("llm.model", props.getModel());
+        if (props.getBaseUrl() != null && !props.getBaseUrl().isEmpty()) {
+            System.setProperty("llm.baseUrl", props.getBaseUrl());
+        }
         System.setProperty("llm.temperature", String.valueOf(props.getTemperature()));
         System.setProperty("llm.topP", String.valueOf(props.getTopP()));
         System.setProperty("llm.maxTokens", String.valueOf(props.getMaxTokens()));
         System.setProperty("llm.streaming", String.valueOf(props.isStreaming()));
+        System.setProperty("llm.admission.enabled", String.valueOf(props.isAdmissionEnabled()));
+        System.setProperty("llm.admission.permitsPerSecond", String.valueOf(props.getAdmissionPermitsPerSecond()));
+        System.setProperty("llm.admission.burst", String.valueOf(props.getAdmissionBurst()));
+        System.setProperty("llm.admission.maxInFlight", String.valueOf(props.getAdmissionMaxInFlight()));
+        System.setProperty("llm.admission.maxQueue", String.valueOf(props.getAdmissionMaxQueue()));
+        System.setProperty("llm.hedge.enabled", String.valueOf(props.isHedgeEnabled()));
+        System.setProperty("llm.hedge.minDelayMillis", String.valueOf(props.getHedgeMinDelayMillis()));
+        System.setProperty("llm.hedge.maxDelayMillis", String.valueOf(props.getHedgeMaxDelayMillis()));
+        System.setProperty("llm.hedge.maxRatio", String.valueOf(props.getHedgeMaxRatio()));
+        System.setProperty("llm.breaker.enabled", String.valueOf(props.isBreakerEnabled()));
+        System.setProperty("llm.breaker.windowSize", String.valueOf(props.getBreakerWindowSize()));
+        System.setProperty("llm.breaker.minCalls", String.valueOf(props.getBreakerMinCalls()));
+        System.setProperty("llm.breaker.failureRate", String.valueOf(props.getBreakerFailureRate()));
+        System.setProperty("llm.breaker.openMillis", String.valueOf(props.getBreakerOpenMillis()));
     }
 }
\ No newline at end of file
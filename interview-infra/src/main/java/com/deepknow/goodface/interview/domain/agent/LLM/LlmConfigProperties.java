@@ -8,10 +8,27 @@ public class LlmConfigProperties {
     private String apiKeyEnv = "DASHSCOPE_API_KEY";
     private String apiKey; // 直接配置的密钥（优先于 apiKeyEnv）
     private String model = "qwen-turbo";
+    private String baseUrl = "https://dashscope.aliyuncs.com"; // 可指向本地 Mock 服务
     private double temperature = 0.5;
     private double topP = 0.9;
     private int maxTokens = 512;
     private boolean streaming = true;
+    // 进程级准入控制：同一 Key + 模型共享 QPS 令牌桶与在途上限
+    private boolean admissionEnabled = true;
+    private double admissionPermitsPerSecond = 20;
+    private int admissionBurst = 40;
+    private int admissionMaxInFlight = 64;
+    private int admissionMaxQueue = 256;
+    // 分类调用对冲与熔断：按服务地址进程内共享
+    private boolean hedgeEnabled = false;
+    private int hedgeMinDelayMillis = 150;
+    private int hedgeMaxDelayMillis = 2000;
+    private double hedgeMaxRatio = 0.1;
+    private boolean breakerEnabled = true;
+    private int breakerWindowSize = 20;
+    private int breakerMinCalls = 10;
+    private double breakerFailureRate = 0.5;
+    private int breakerOpenMillis = 10000;
 
     public String getProvider() { return provider; }
     public void setProvider(String provider) { this.provider = provider; }
@@ -21,6 +38,8 @@ public class LlmConfigProperties {
     public void setApiKey(String apiKey) { this.apiKey = apiKey; }
     public String getModel() { return model; }
     public void setModel(String model) { this.model = model; }
+    public String getBaseUrl() { return baseUrl; }
+    public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
     public double getTemperature() { return temperature; }
     public void setTemperature(double temperature) { this.temperature = temperature; }
     public double getTopP() { return topP; }
@@ -29,4 +48,32 @@ public class LlmConfigProperties {
     public void setMaxTokens(int maxTokens) { this.maxTokens = maxTokens; }
     public boolean isStreaming() { return streaming; }
     public void setStreaming(boolean streaming) { this.streaming = streaming; }
+    public boolean isAdmissionEnabled() { return admissionEnabled; }
+    public void setAdmissionEnabled(boolean admissionEnabled) { this.admissionEnabled = admissionEnabled; }
+    public double getAdmissionPermitsPerSecond() { return admissionPermitsPerSecond; }
+    public void setAdmissionPermitsPerSecond(double admissionPermitsPerSecond) { this.admissionPermitsPerSecond = admissionPermitsPerSecond; }
+    public int getAdmissionBurst() { return admissionBurst; }
+    public void setAdmissionBurst(int admissionBurst) { this.admissionBurst = admissionBurst; }
+    public int getAdmissionMaxInFlight() { return admissionMaxInFlight; }
+    public void setAdmissionMaxInFlight(int admissionMaxInFlight) { this.admissionMaxInFlight = admissionMaxInFlight; }
+    public int getAdmissionMaxQueue() { return admissionMaxQueue; }
+    public void setAdmissionMaxQueue(int admissionMaxQueue) { this.admissionMaxQueue = admissionMaxQueue; }
+    public boolean isHedgeEnabled() { return hedgeEnabled; }
+    public void setHedgeEnabled(boolean hedgeEnabled) { this.hedgeEnabled = hedgeEnabled; }
+    public int getHedgeMinDelayMillis() { return hedgeMinDelayMillis; }
+    public void setHedgeMinDelayMillis(int hedgeMinDelayMillis) { this.hedgeMinDelayMillis = hedgeMinDelayMillis; }
+    public int getHedgeMaxDelayMillis() { return hedgeMaxDelayMillis; }
+    public void setHedgeMaxDelayMillis(int hedgeMaxDelayMillis) { this.hedgeMaxDelayMillis = hedgeMaxDelayMillis; }
+    public double getHedgeMaxRatio() { return hedgeMaxRatio; }
+    public void setHedgeMaxRatio(double hedgeMaxRatio) { this.hedgeMaxRatio = hedgeMaxRatio; }
+    public boolean isBreakerEnabled() { return breakerEnabled; }
+    public void setBreakerEnabled(boolean breakerEnabled) { this.breakerEnabled = breakerEnabled; }
+    public int getBreakerWindowSize() { return breakerWindowSize; }
+    public void setBreakerWindowSize(int breakerWindowSize) { this.breakerWindowSize = breakerWindowSize; }
+    public int getBreakerMinCalls() { return breakerMinCalls; }
+    public void setBreakerMinCalls(int breakerMinCalls) { this.breakerMinCalls = breakerMinCalls; }
+    public double getBreakerFailureRate() { return breakerFailureRate; }
+    public void setBreakerFailureRate(double breakerFailureRate) { this.breakerFailureRate = breakerFailureRate; }
+    public int getBreakerOpenMillis() { return breakerOpenMillis; }
+    public void setBreakerOpenMillis(int breakerOpenMillis) { this.breakerOpenMillis = breakerOpenMillis; }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按调用类型选择模型，并按实时延迟降级。
+ * <p>
+ * <ul>
+ *   <li>默认：回答生成使用会话选择的模型（档位），分类/记忆类调用使用候选列表中最快的模型（列表按快到慢排列）；可按类型覆盖；</li>
+ *   <li>各“模型 + 调用类型”的延迟在进程内共享统计（非流式为总耗时，流式回答为首包耗时，失败按 30 秒计）；</li>
+ *   <li>主模型近期 p95 超过该类型的 SLO 时，改用更快的候选模型；降级期间每 20 次调用探测一次主模型，样本 5 分钟未更新视为失效；</li>
+ *   <li>降级期间主模型的调用（探测）在 SLO 内成功时清空其窗口，按主模型重新积累样本，不必等旧的慢样本被逐个挤出。</li>
+ * </ul>
+ * 选择结果见 interview.llm.model.calls{op,model,route=primary|fallback|probe}，延迟见 interview.llm.model.latency{op,model}。
+ */
+public class LlmModelRouter {
+    static final long FAILURE_PENALTY_MILLIS = 30_000;
+    private static final Map<String, LatencyWindow> LATENCY = new ConcurrentHashMap<>();
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 10;
+    private static final int PROBE_EVERY = 20;
+    private static final long STALE_MILLIS = 5 * 60 * 1000L;
+
+    private final List<String> candidates;
+    private final Map<LlmOperation, String> primary = new EnumMap<>(LlmOperation.class);
+    private final Map<LlmOperation, Integer> sloMillis;
+    private final AtomicInteger degradedCalls = new AtomicInteger();
+
+    /**
+     * @param candidates   候选模型，按快到慢排列（通常来自模型目录）；为空时只使用会话模型
+     * @param sessionModel 会话选择的模型
+     * @param overrides    按调用类型指定的模型（可为空）
+     * @param sloMillis    按调用类型的延迟 SLO（≤0 不降级）
+     */
+    public LlmModelRouter(List<String> candidates, String sessionModel,
+                          Map<LlmOperation, String> overrides, Map<LlmOperation, Integer> sloMillis) {
+        List<String> list = new ArrayList<>();
+        if (candidates != null) {
+            for (String c : candidates) {
+                if (c != null && !c.trim().isEmpty() && !list.contains(c.trim())) list.add(c.trim());
+            }
+        }
+        this.candidates = Collections.unmodifiableList(list);
+        this.sloMillis = sloMillis == null ? Collections.emptyMap() : sloMillis;
+        String fastest = list.isEmpty() ? sessionModel : list.get(0);
+        for (LlmOperation op : LlmOperation.values()) {
+            String o = overrides == null ? null : overrides.get(op);
+            primary.put(op, o != null && !o.isEmpty() ? o : (op.isRichContext() ? sessionModel : fastest));
+        }
+    }
+
+    public String primaryModel(LlmOperation op) {
+        return primary.get(op);
+    }
+
+    /**
+     * 为本次调用选择模型。
+     */
+    public String select(LlmOperation op) {
+        String p = primary.get(op);
+        Integer slo = sloMillis.get(op);
+        long p95 = p95(p, op);
+        if (slo == null || slo <= 0 || p95 < 0 || p95 <= slo) return route(op, p, "primary");
+        if (degradedCalls.incrementAndGet() % PROBE_EVERY == 0) return route(op, p, "probe");
+        for (String c : candidates) {
+            if (c.equals(p)) continue;
+            long cp = p95(c, op);
+            boolean faster = cp >= 0 ? cp < p95 : rank(c) < rank(p);
+            if (faster) return route(op, c, "fallback");
+        }
+        return route(op, p, "primary");
+    }
+
+    /**
+     * 记录一次调用结果；失败按固定惩罚耗时计入，使持续失败的模型同样触发降级。
+     */
+    public void record(LlmOperation op, String model, long millis, boolean success) {
+        if (model == null) return;
+        AgentMetrics.recordMillis("interview.llm.model.latency", millis, "op", op.tag(), "model", model);
+        LatencyWindow w = LATENCY.computeIfAbsent(key(model, op), k -> new LatencyWindow(SAMPLES, MIN_SAMPLES));
+        Integer slo = sloMillis.get(op);
+        synchronized (w) {
+            if (success && slo != null && slo > 0 && millis <= slo && model.equals(primary.get(op)) && w.p95() > slo) {
+                w.reset();
+                AgentMetrics.count("interview.llm.model.recovered", "op", op.tag(), "model", model);
+            }
+            w.add(success ? millis : Math.max(millis, FAILURE_PENALTY_MILLIS));
+        }
+    }
+
+    private String route(LlmOperation op, String model, String route) {
+        AgentMetrics.count("interview.llm.model.calls", "op", op.tag(), "model", model, "route", route);
+        return model;
+    }
+
+    private int rank(String model) {
+        int i = candidates.indexOf(model);
+        return i < 0 ? Integer.MAX_VALUE : i;
+    }
+
+    private static long p95(String model, LlmOperation op) {
+        LatencyWindow w = LATENCY.get(key(model, op));
+        if (w == null) return -1;
+        synchronized (w) {
+            if (System.currentTimeMillis() - w.lastAtMillis() > STALE_MILLIS) return -1;
+            return w.p95();
+        }
+    }
+
+    private static String key(String model, LlmOperation op) {
+        return model + "|" + op.tag();
+    }
+}
@@ -0,0 +1,115 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.EquivalenceResult;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult;
+import com.deepknow.goodface.interview.domain.agent.SessionRecorder;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 录制装饰器：每次 LLM 调用的输入、结果（或异常类型）与耗时写入 {@link SessionRecorder}，行为与被装饰客户端一致。
+ * 流式回答按拼接后的全文记录一次。
+ */
+public class RecordingLlmClient implements LlmClient {
+    private final LlmClient delegate;
+    private final SessionRecorder recorder;
+
+    public RecordingLlmClient(LlmClient delegate, SessionRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    public LlmClient getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming) {
+        delegate.init(apiKey, model, temperature, topP, maxTokens, streaming);
+    }
+
+    @Override
+    public void setSessionId(String sessionId) {
+        delegate.setSessionId(sessionId);
+    }
+
+    @Override
+    public void setCallListener(Consumer<LlmOperation> listener) {
+        delegate.setCallListener(listener);
+    }
+
+    @Override
+    public String extractQuestion(String text, String context) {
+        return record(LlmOperation.EXTRACT_QUESTION, () -> delegate.extractQuestion(text, context), text, context);
+    }
+
+    @Override
+    public String extractQuestionStreaming(String text, String context) {
+        return record(LlmOperation.EXTRACT_QUESTION, () -> delegate.extractQuestionStreaming(text, context), text, context);
+    }
+
+    @Override
+    public String generateAnswer(String question, String context) {
+        return record(LlmOperation.GENERATE_ANSWER, () -> delegate.generateAnswer(question, context), question, context);
+    }
+
+    @Override
+    public void generateAnswerStream(String question, String context, Consumer<String> onDelta,
+                                     Runnable onComplete, Consumer<Throwable> onError) {
+        long at = recorder.offsetMillis();
+        long start = System.currentTimeMillis();
+        StringBuilder answer = new StringBuilder();
+        delegate.generateAnswerStream(question, context,
+                d -> {
+                    if (d != null) answer.append(d);
+                    if (onDelta != null) onDelta.accept(d);
+                },
+                () -> {
+                    recorder.llm(LlmOperation.GENERATE_ANSWER, at, System.currentTimeMillis() - start, answer.toString(), null, question, context);
+                    if (onComplete != null) onComplete.run();
+                },
+                e -> {
+                    recorder.llm(LlmOperation.GENERATE_ANSWER, at, System.currentTimeMillis() - start, answer.toString(), e, question, context);
+                    if (onError != null) onError.accept(e);
+                });
+    }
+
+    @Override
+    public EquivalenceResult judgeQuestionEquivalence(String lastQuestion, String candidate, String context) {
+        return record(LlmOperation.JUDGE_EQUIVALENCE, () -> delegate.judgeQuestionEquivalence(lastQuestion, candidate, context),
+                lastQuestion, candidate, context);
+    }
+
+    @Override
+    public EquivalenceResult judgeSegmentRelation(String lastQuestion, String segment, String context) {
+        return record(LlmOperation.JUDGE_RELATION, () -> delegate.judgeSegmentRelation(lastQuestion, segment, context),
+                lastQuestion, segment, context);
+    }
+
+    @Override
+    public MemoryUpdateResult updateContextMemory(String currentQuestion, String accumulatedContext, String recentContext) {
+        return record(LlmOperation.UPDATE_MEMORY, () -> delegate.updateContextMemory(currentQuestion, accumulatedContext, recentContext),
+                currentQuestion, accumulatedContext, recentContext);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private <T> T record(LlmOperation op, Supplier<T> call, String... in) {
+        long at = recorder.offsetMillis();
+        long start = System.currentTimeMillis();
+        try {
+            T out = call.get();
+            recorder.llm(op, at, System.currentTimeMillis() - start, out, null, in);
+            return out;
+        } catch (RuntimeException e) {
+            recorder.llm(op, at, System.currentTimeMillis() - start, null, e, in);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+import com.deepknow.goodface.interview.domain.agent.EquivalenceResult;
+import com.deepknow.goodface.interview.domain.agent.LlmClient;
+import com.deepknow.goodface.interview.domain.agent.LlmDeadlineExceededException;
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 分类类 LLM 调用的单飞去重装饰器。
+ * <p>
+ * 同一段语音可能同时经 partial 软端点（processSegment）与 final 去抖（processPending）各触发一次提取，
+ * 这里以“调用类型 + 归一化输入 + 上下文版本（上下文字符串哈希）”为键：
+ * <ul>
+ *   <li>相同键的并发请求共享同一个进行中的调用；</li>
+ *   <li>调用完成后的 ttlMillis 内，相同键直接返回缓存结果，覆盖前后脚的重复请求；</li>
+ *   <li>调用异常不缓存，由下一次请求重新发起；</li>
+ *   <li>共享方最多等到自身片段的截止时间，不受发起方截止时间影响。</li>
+ * </ul>
+ * 仅作用于 extractQuestion（含流式）/ judgeQuestionEquivalence / judgeSegmentRelation；回答生成与记忆更新直接透传。
+ */
+public class SingleFlightLlmClient implements LlmClient {
+    private static final int MAX_ENTRIES = 256;
+
+    private final LlmClient delegate;
+    private final long ttlMillis;
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    public SingleFlightLlmClient(LlmClient delegate, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    public LlmClient getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void init(String apiKey, String model, double temperature, double topP, int maxTokens, boolean streaming) {
+        delegate.init(apiKey, model, temperature, topP, maxTokens, streaming);
+    }
+
+    @Override
+    public void setSessionId(String sessionId) {
+        delegate.setSessionId(sessionId);
+    }
+
+    @Override
+    public void setCallListener(Consumer<LlmOperation> listener) {
+        delegate.setCallListener(listener);
+    }
+
+    @Override
+    public String extractQuestion(String text, String context) {
+        return singleFlight(new Key(LlmOperation.EXTRACT_QUESTION, normalize(text), null, context),
+                () -> delegate.extractQuestion(text, context));
+    }
+
+    @Override
+    public String extractQuestionStreaming(String text, String context) {
+        return singleFlight(new Key(LlmOperation.EXTRACT_QUESTION, normalize(text), null, context),
+                () -> delegate.extractQuestionStreaming(text, context));
+    }
+
+    @Override
+    public EquivalenceResult judgeQuestionEquivalence(String lastQuestion, String candidate, String context) {
+        return singleFlight(new Key(LlmOperation.JUDGE_EQUIVALENCE, normalize(candidate), normalize(lastQuestion), context),
+                () -> delegate.judgeQuestionEquivalence(lastQuestion, candidate, context));
+    }
+
+    @Override
+    public EquivalenceResult judgeSegmentRelation(String lastQuestion, String segment, String context) {
+        return singleFlight(new Key(LlmOperation.JUDGE_RELATION, normalize(segment), normalize(lastQuestion), context),
+                () -> delegate.judgeSegmentRelation(lastQuestion, segment, context));
+    }
+
+    @Override
+    public String generateAnswer(String question, String context) {
+        return delegate.generateAnswer(question, context);
+    }
+
+    @Override
+    public void generateAnswerStream(String question, String context, Consumer<String> onDelta,
+                                     Runnable onComplete, Consumer<Throwable> onError) {
+        delegate.generateAnswerStream(question, context, onDelta, onComplete, onError);
+    }
+
+    @Override
+    public MemoryUpdateResult updateContextMemory(String currentQuestion, String accumulatedContext, String recentContext) {
+        return delegate.updateContextMemory(currentQuestion, accumulatedContext, recentContext);
+    }
+
+    @Override
+    public void close() {
+        flights.clear();
+        delegate.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(Key key, Supplier<T> call) {
+        long now = System.currentTimeMillis();
+        Flight mine = new Flight();
+        while (true) {
+            Flight existing = flights.putIfAbsent(key, mine);
+            if (existing == null) break;
+            if (existing.isReusable(now, ttlMillis)) {
+                AgentMetrics.count("interview.llm.singleflight", "op", key.op.tag(),
+                        "result", existing.future.isDone() ? "cached" : "shared");
+                return (T) await(key.op, existing, call);
+            }
+            // 已过期：替换后重试
+            flights.remove(key, existing);
+        }
+        AgentMetrics.count("interview.llm.singleflight", "op", key.op.tag(), "result", "leader");
+        try {
+            T result = call.get();
+            mine.completedAt = System.currentTimeMillis();
+            mine.future.complete(result);
+            if (ttlMillis == 0) flights.remove(key, mine);
+            return result;
+        } catch (RuntimeException e) {
+            flights.remove(key, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (flights.size() > MAX_ENTRIES) evictExpired();
+        }
+    }
+
+    private static Object await(LlmOperation op, Flight flight, Supplier<?> fallback) {
+        Deadline deadline = Deadline.current();
+        long start = System.currentTimeMillis();
+        try {
+            if (deadline == Deadline.NONE) return flight.future.get();
+            return flight.future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new LlmDeadlineExceededException(op, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.get();
+        } catch (ExecutionException e) {
+            // 首个调用失败时由当前请求自行重试一次
+            return fallback.get();
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Key, Flight>> it = flights.entrySet().iterator();
+        while (it.hasNext()) {
+            Flight f = it.next().getValue();
+            if (f.future.isDone() && !f.isReusable(now, ttlMillis)) it.remove();
+        }
+    }
+
+    private static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        volatile long completedAt;
+
+        boolean isReusable(long now, long ttlMillis) {
+            if (!future.isDone()) return true;
+            return !future.isCompletedExceptionally() && now - completedAt <= ttlMillis;
+        }
+    }
+
+    private static final class Key {
+        final LlmOperation op;
+        final String input;
+        final String reference;
+        final int contextHash;
+        final int contextLength;
+
+        Key(LlmOperation op, String input, String reference, String context) {
+            this.op = op;
+            this.input = input;
+            this.reference = reference;
+            this.contextHash = context == null ? 0 : context.hashCode();
+            this.contextLength = context == null ? 0 : context.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return op == k.op && contextHash == k.contextHash && contextLength == k.contextLength
+                    && input.equals(k.input) && Objects.equals(reference, k.reference);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(op, input, reference, contextHash);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 增量 JSON 字段读取：逐段喂入模型输出，解析首个 JSON 对象的顶层字符串字段（对象前的说明文字与代码块标记被跳过）。
+ * <p>
+ * 基于 Jackson 非阻塞解析器，输入不完整时保留状态等待下一段；解析出错后停止接收，由调用方按完整文本兜底。非线程安全。
+ */
+final class StreamingJsonFields {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final Map<String, String> fields = new LinkedHashMap<>();
+    private JsonParser parser;
+    private int consumed;
+    private int depth;
+    private String field;
+    private boolean closed;
+    private boolean failed;
+
+    /**
+     * 喂入截至目前的累计输出，只处理上次之后新增的部分。
+     */
+    void feed(CharSequence acc) {
+        int end = acc.length();
+        // 代理对的高位留到下一段，避免按字符切分时拆开
+        if (end > consumed && Character.isHighSurrogate(acc.charAt(end - 1))) end--;
+        int from = consumed;
+        consumed = end;
+        if (closed || failed || from >= end) return;
+        try {
+            if (parser == null) {
+                int brace = indexOf(acc, '{', from, end);
+                if (brace < 0) return;
+                from = brace;
+                parser = FACTORY.createNonBlockingByteArrayParser();
+            }
+            byte[] bytes = acc.subSequence(from, end).toString().getBytes(StandardCharsets.UTF_8);
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+            JsonToken t;
+            while ((t = parser.nextToken()) != null && t != JsonToken.NOT_AVAILABLE) {
+                switch (t) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        depth++;
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        if (--depth == 0) {
+                            closed = true;
+                            return;
+                        }
+                        break;
+                    case FIELD_NAME:
+                        if (depth == 1) field = parser.getCurrentName();
+                        break;
+                    case VALUE_STRING:
+                        if (depth == 1 && field != null) fields.put(field, parser.getText());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    boolean has(String name) {
+        return fields.containsKey(name);
+    }
+
+    String get(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * 首个对象已完整读完。
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    ObjectNode toNode() {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (Map.Entry<String, String> e : fields.entrySet()) node.put(e.getKey(), e.getValue());
+        return node;
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,54 @@
+package com.deepknow.goodface.interview.domain.agent.STT;
+
+import com.deepknow.goodface.interview.domain.agent.SessionRecorder;
+import com.deepknow.goodface.interview.domain.agent.SttClient;
+
+import java.util.function.Consumer;
+
+/**
+ * 录制装饰器：partial/final 事件先写入 {@link SessionRecorder} 再交给原回调，音频原样透传（不录制音频）。
+ */
+public class RecordingSttClient implements SttClient {
+    private final SttClient delegate;
+    private final SessionRecorder recorder;
+
+    public RecordingSttClient(SttClient delegate, SessionRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void init(String apiKey, String model, int sampleRate, String language) {
+        delegate.init(apiKey, model, sampleRate, language);
+    }
+
+    @Override
+    public void startSession(String sessionId, Consumer<String> onPartial, Consumer<String> onFinal,
+                             Consumer<Throwable> onError, Runnable onReady) {
+        delegate.startSession(sessionId,
+                p -> {
+                    recorder.stt(false, p);
+                    if (onPartial != null) onPartial.accept(p);
+                },
+                f -> {
+                    recorder.stt(true, f);
+                    if (onFinal != null) onFinal.accept(f);
+                },
+                onError, onReady);
+    }
+
+    @Override
+    public void sendAudio(byte[] pcmChunk) {
+        delegate.sendAudio(pcmChunk);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
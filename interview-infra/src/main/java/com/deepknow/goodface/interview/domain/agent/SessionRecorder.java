@@ -0,0 +1,221 @@
+package com.deepknow.goodface.interview.domain.agent;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话录制：STT partial/final、出卡问题与每次 LLM 请求/响应按行追加写入 {@code <dir>/<sessionId>.rec.jsonl}，供离线回放。
+ * <p>
+ * 每行一个紧凑 JSON，t 为相对会话开始的毫秒数：
+ * <ul>
+ *   <li>{@code {"k":"H","session":..,"startedAt":..,"v":1}}：文件头</li>
+ *   <li>{@code {"k":"P"|"F","t":..,"x":..}}：STT partial / final</li>
+ *   <li>{@code {"k":"Q","t":..,"x":..}}：出卡问题</li>
+ *   <li>{@code {"k":"L","t":..,"op":..,"in":[..],"out":..,"ms":..,"err":..}}：LLM 调用（t 为发起时刻，ms 为耗时）</li>
+ * </ul>
+ * 写入失败只记一次日志并停止录制，不影响会话。线程安全。
+ */
+public class SessionRecorder implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SessionRecorder.class);
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    private static final ObjectMapper MAPPER = new ObjectMapper(FACTORY);
+
+    private final String sessionId;
+    private final Path file;
+    private final long startedAtMillis;
+    private Writer writer;
+
+    private SessionRecorder(String sessionId, Path file, Writer writer, long startedAtMillis) {
+        this.sessionId = sessionId;
+        this.file = file;
+        this.writer = writer;
+        this.startedAtMillis = startedAtMillis;
+    }
+
+    /**
+     * 打开（或续写）会话录制文件；失败时记录日志并返回 null。
+     */
+    public static SessionRecorder open(Path dir, String sessionId) {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(sanitize(sessionId) + ".rec.jsonl");
+            Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            SessionRecorder r = new SessionRecorder(sessionId, file, w, System.currentTimeMillis());
+            r.write("H", -1, g -> {
+                g.writeStringField("session", sessionId);
+                g.writeNumberField("startedAt", r.startedAtMillis);
+                g.writeNumberField("v", 1);
+            });
+            log.info("Session recording started: file={} sessionId={}", file, sessionId);
+            return r;
+        } catch (IOException e) {
+            log.warn("Session recording disabled: open failed. dir=" + dir + " sessionId=" + sessionId, e);
+            return null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 相对会话开始的毫秒数，用作 {@link #llm} 的发起时刻。
+     */
+    public long offsetMillis() {
+        return System.currentTimeMillis() - startedAtMillis;
+    }
+
+    public void stt(boolean isFinal, String text) {
+        write(isFinal ? "F" : "P", offsetMillis(), g -> g.writeStringField("x", text));
+    }
+
+    public void question(String question) {
+        write("Q", offsetMillis(), g -> g.writeStringField("x", question));
+    }
+
+    /**
+     * 记录一次 LLM 调用；out 为 String / {@link EquivalenceResult} / {@link MemoryUpdateResult} 或 null。
+     */
+    public void llm(LlmOperation op, long atMillis, long latencyMillis, Object out, Throwable error, String... in) {
+        write("L", atMillis, g -> {
+            g.writeStringField("op", op.tag());
+            g.writeArrayFieldStart("in");
+            for (String s : in) g.writeString(s);
+            g.writeEndArray();
+            g.writeFieldName("out");
+            writeResult(g, out);
+            g.writeNumberField("ms", latencyMillis);
+            if (error != null) g.writeStringField("err", error.getClass().getSimpleName());
+        });
+    }
+
+    private static void writeResult(JsonGenerator g, Object out) throws IOException {
+        if (out instanceof EquivalenceResult) {
+            EquivalenceResult r = (EquivalenceResult) out;
+            g.writeStartObject();
+            g.writeStringField("class", r.getClazz());
+            g.writeStringField("canonical", r.getCanonical());
+            g.writeStringField("reason", r.getReason());
+            g.writeEndObject();
+        } else if (out instanceof MemoryUpdateResult) {
+            MemoryUpdateResult r = (MemoryUpdateResult) out;
+            g.writeStartObject();
+            g.writeStringField("summary", r.getSummary());
+            g.writeObjectFieldStart("facts");
+            for (Map.Entry<String, String> e : r.getFacts().entrySet()) g.writeStringField(e.getKey(), e.getValue());
+            g.writeEndObject();
+            g.writeEndObject();
+        } else if (out == null) {
+            g.writeNull();
+        } else {
+            g.writeString(String.valueOf(out));
+        }
+    }
+
+    private interface Body {
+        void write(JsonGenerator g) throws IOException;
+    }
+
+    private synchronized void write(String kind, long t, Body body) {
+        if (writer == null) return;
+        try {
+            try (JsonGenerator g = FACTORY.createGenerator(writer)) {
+                g.writeStartObject();
+                g.writeStringField("k", kind);
+                if (t >= 0) g.writeNumberField("t", t);
+                body.write(g);
+                g.writeEndObject();
+            }
+            writer.write('\n');
+            // final 与出卡是低频事件，顺带落盘，进程异常退出时最多丢失最近一句的 partial
+            if (!"P".equals(kind) && !"L".equals(kind)) writer.flush();
+        } catch (IOException e) {
+            log.warn("Session recording stopped: write failed. file=" + file + " sessionId=" + sessionId, e);
+            AgentMetrics.count("interview.record.failed");
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) return;
+        closeQuietly();
+        log.info("Session recording closed: file={} sessionId={}", file, sessionId);
+    }
+
+    private void closeQuietly() {
+        try { writer.close(); } catch (IOException ignore) {}
+        writer = null;
+    }
+
+    private static String sanitize(String sessionId) {
+        String s = sessionId == null || sessionId.isEmpty() ? "unknown" : sessionId;
+        return s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * 读取录制文件，忽略无法解析的行（如进程退出时写了一半的末行）。
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                JsonNode n;
+                try { n = MAPPER.readTree(line); } catch (IOException e) { continue; }
+                out.add(new Entry(n));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 录制文件中的一行。
+     */
+    public static final class Entry {
+        /** H / P / F / Q / L */
+        public final char kind;
+        public final long offsetMillis;
+        public final String text;
+        public final LlmOperation op;
+        public final List<String> in;
+        public final JsonNode out;
+        public final long latencyMillis;
+        public final String error;
+
+        private Entry(JsonNode n) {
+            String k = n.path("k").asText("");
+            this.kind = k.isEmpty() ? '?' : k.charAt(0);
+            this.offsetMillis = n.path("t").asLong(0);
+            this.text = n.has("x") ? n.path("x").asText() : n.path("session").asText(null);
+            LlmOperation o = null;
+            for (LlmOperation v : LlmOperation.values()) if (v.tag().equals(n.path("op").asText())) o = v;
+            this.op = o;
+            List<String> args = new ArrayList<>();
+            for (JsonNode a : n.path("in")) args.add(a.isNull() ? null : a.asText());
+            this.in = Collections.unmodifiableList(args);
+            this.out = n.get("out");
+            this.latencyMillis = n.path("ms").asLong(0);
+            this.error = n.hasNonNull("err") ? n.get("err").asText() : null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Agent 状态快照的紧凑二进制编码：版本号 + 压缩标记 + 长度前缀字段，超过阈值时使用 Deflate 压缩。
+ * <p>
+ * v2 在末尾追加已提问题历史；v1 数据仍可解码，历史为空。
+ * 列表与事实条数以无符号 short 写入，超过 {@link #MAX_COUNT} 时截断：列表保留最近（末尾）的条目，事实保留前面的条目。
+ */
+public final class AgentStateCodec {
+    private static final byte VERSION = 2;
+    private static final byte VERSION_V1 = 1;
+    private static final byte FLAG_PLAIN = 0;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int COMPRESS_THRESHOLD = 512;
+    static final int MAX_COUNT = 0xFFFF;
+
+    private AgentStateCodec() {}
+
+    public static byte[] encode(AgentStateSnapshot s) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writeString(out, s.getLastQuestion());
+            writeList(out, s.getRecentQuestions());
+            writeList(out, s.getRecentUtterances());
+            writeString(out, s.getElaboration());
+            int factCount = Math.min(s.getFacts().size(), MAX_COUNT);
+            out.writeShort(factCount);
+            int written = 0;
+            for (Map.Entry<String, String> e : s.getFacts().entrySet()) {
+                if (written++ == factCount) break;
+                writeString(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+            writeList(out, s.getRecentCommitted());
+            out.writeLong(s.getUpdatedAtMillis());
+            writeList(out, s.getQuestionHistory());
+        }
+        byte[] raw = body.toByteArray();
+        ByteArrayOutputStream result = new ByteArrayOutputStream(raw.length + 2);
+        result.write(VERSION);
+        if (raw.length > COMPRESS_THRESHOLD) {
+            result.write(FLAG_DEFLATE);
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(result)) {
+                dos.write(raw);
+            }
+        } else {
+            result.write(FLAG_PLAIN);
+            result.write(raw);
+        }
+        return result.toByteArray();
+    }
+
+    public static AgentStateSnapshot decode(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length < 2) return null;
+        byte version = bytes[0];
+        if (version != VERSION && version != VERSION_V1) {
+            throw new IOException("Unsupported agent state version: " + bytes[0]);
+        }
+        InputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+        if (bytes[1] == FLAG_DEFLATE) body = new InflaterInputStream(body);
+        try (DataInputStream in = new DataInputStream(body)) {
+            String lastQuestion = readString(in);
+            List<String> questions = readList(in);
+            List<String> utterances = readList(in);
+            String elaboration = readString(in);
+            int factCount = in.readUnsignedShort();
+            Map<String, String> facts = new LinkedHashMap<>();
+            for (int i = 0; i < factCount; i++) {
+                facts.put(readString(in), readString(in));
+            }
+            List<String> committed = readList(in);
+            long updatedAt = in.readLong();
+            List<String> history = version >= VERSION ? readList(in) : null;
+            return new AgentStateSnapshot(lastQuestion, questions, utterances, elaboration, facts, committed, updatedAt, history);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+        int from = Math.max(0, list.size() - MAX_COUNT);
+        out.writeShort(list.size() - from);
+        for (String s : list.subList(from, list.size())) writeString(out, s);
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int n = in.readUnsignedShort();
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(readString(in));
+        return list;
+    }
+}
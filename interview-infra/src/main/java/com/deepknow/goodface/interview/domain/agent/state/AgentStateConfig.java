@@ -0,0 +1,53 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(AgentStateProperties.class)
+public class AgentStateConfig {
+    private static final Logger log = LoggerFactory.getLogger(AgentStateConfig.class);
+
+    @Bean
+    public AgentStateStore agentStateStore(AgentStateProperties props,
+                                           ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        String kind = props.getStore() == null ? "redis" : props.getStore().trim().toLowerCase();
+        AgentStateStore backend;
+        if ("none".equals(kind)) {
+            log.info("Agent state store disabled");
+            return new NoopAgentStateStore();
+        } else if ("redis".equals(kind) && redisConnectionFactory.getIfAvailable() != null) {
+            RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+            template.setConnectionFactory(redisConnectionFactory.getIfAvailable());
+            template.setKeySerializer(RedisSerializer.string());
+            template.setValueSerializer(RedisSerializer.byteArray());
+            template.afterPropertiesSet();
+            backend = new RedisAgentStateStore(template, Duration.ofMinutes(Math.max(1, props.getTtlMinutes())));
+        } else {
+            backend = new InMemoryAgentStateStore(Duration.ofMinutes(Math.max(1, props.getTtlMinutes())).toMillis(),
+                    props.getMemoryMaxSessions());
+        }
+        log.info("Agent state store: backend={} writeBehindMillis={}", backend.getClass().getSimpleName(), props.getWriteBehindMillis());
+        return new WriteBehindAgentStateStore(backend, props.getWriteBehindMillis());
+    }
+
+    static class NoopAgentStateStore implements AgentStateStore {
+        @Override
+        public AgentStateSnapshot load(String sessionId) { return null; }
+        @Override
+        public void save(String sessionId, AgentStateSnapshot snapshot) {}
+        @Override
+        public void delete(String sessionId) {}
+    }
+}
@@ -0,0 +1,21 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "agent.state")
+public class AgentStateProperties {
+    private String store = "redis"; // redis | memory | none
+    private long writeBehindMillis = 500;
+    private long ttlMinutes = 360;
+    // 仅进程内存储：最多保留的会话数
+    private int memoryMaxSessions = 10000;
+
+    public String getStore() { return store; }
+    public void setStore(String store) { this.store = store; }
+    public long getWriteBehindMillis() { return writeBehindMillis; }
+    public void setWriteBehindMillis(long writeBehindMillis) { this.writeBehindMillis = writeBehindMillis; }
+    public long getTtlMinutes() { return ttlMinutes; }
+    public void setTtlMinutes(long ttlMinutes) { this.ttlMinutes = ttlMinutes; }
+    public int getMemoryMaxSessions() { return memoryMaxSessions; }
+    public void setMemoryMaxSessions(int memoryMaxSessions) { this.memoryMaxSessions = memoryMaxSessions; }
+}
@@ -0,0 +1,89 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内状态存储：单副本部署或无 Redis 环境使用；同样经过编解码，便于替代 Redis 做验证。
+ * 与 Redis 一致按 TTL 过期；条目超过 maxEntries 时先清理过期条目，仍超出则淘汰最早过期的条目。
+ */
+public class InMemoryAgentStateStore implements AgentStateStore {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryAgentStateStore.class);
+
+    private final ConcurrentHashMap<String, Entry> states = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public InMemoryAgentStateStore(long ttlMillis, int maxEntries) {
+        this.ttlMillis = Math.max(1, ttlMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @Override
+    public AgentStateSnapshot load(String sessionId) {
+        if (sessionId == null) return null;
+        Entry entry = states.get(sessionId);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            states.remove(sessionId, entry);
+            return null;
+        }
+        try {
+            return AgentStateCodec.decode(entry.bytes);
+        } catch (Exception e) {
+            log.warn("Decode agent state failed. sessionId={}", sessionId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(String sessionId, AgentStateSnapshot snapshot) {
+        if (sessionId == null || snapshot == null) return;
+        try {
+            states.put(sessionId, new Entry(AgentStateCodec.encode(snapshot), System.currentTimeMillis() + ttlMillis));
+        } catch (Exception e) {
+            log.warn("Encode agent state failed. sessionId={}", sessionId, e);
+            return;
+        }
+        if (states.size() > maxEntries) evict();
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        if (sessionId != null) states.remove(sessionId);
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    private synchronized void evict() {
+        long now = System.currentTimeMillis();
+        states.values().removeIf(e -> e.expiresAtMillis <= now);
+        while (states.size() > maxEntries) {
+            Map.Entry<String, Entry> oldest = null;
+            for (Iterator<Map.Entry<String, Entry>> it = states.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Entry> e = it.next();
+                if (oldest == null || e.getValue().expiresAtMillis < oldest.getValue().expiresAtMillis) oldest = e;
+            }
+            if (oldest == null) break;
+            states.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static final class Entry {
+        final byte[] bytes;
+        final long expiresAtMillis;
+
+        Entry(byte[] bytes, long expiresAtMillis) {
+            this.bytes = bytes;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
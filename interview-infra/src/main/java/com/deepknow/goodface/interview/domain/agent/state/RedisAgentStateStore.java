@@ -0,0 +1,57 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * 基于 Redis 的状态存储：key 为 goodface:agent-state:{sessionId}，值为紧凑二进制快照，带 TTL。
+ */
+public class RedisAgentStateStore implements AgentStateStore {
+    private static final Logger log = LoggerFactory.getLogger(RedisAgentStateStore.class);
+    private static final String KEY_PREFIX = "goodface:agent-state:";
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration ttl;
+
+    public RedisAgentStateStore(RedisTemplate<String, byte[]> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public AgentStateSnapshot load(String sessionId) {
+        if (sessionId == null) return null;
+        try {
+            byte[] bytes = redisTemplate.opsForValue().get(KEY_PREFIX + sessionId);
+            return AgentStateCodec.decode(bytes);
+        } catch (Exception e) {
+            log.warn("Load agent state from redis failed. sessionId={}", sessionId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(String sessionId, AgentStateSnapshot snapshot) {
+        if (sessionId == null || snapshot == null) return;
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + sessionId, AgentStateCodec.encode(snapshot), ttl);
+        } catch (Exception e) {
+            log.warn("Save agent state to redis failed. sessionId={}", sessionId, e);
+        }
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        if (sessionId == null) return;
+        try {
+            redisTemplate.delete(KEY_PREFIX + sessionId);
+        } catch (Exception e) {
+            log.warn("Delete agent state from redis failed. sessionId={}", sessionId, e);
+        }
+    }
+}
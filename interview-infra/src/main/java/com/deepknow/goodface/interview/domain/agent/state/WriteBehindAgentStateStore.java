@@ -0,0 +1,73 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写后（write-behind）装饰器：save 仅登记最新快照，延迟合并写入后端，避免在管线线程上同步访问 Redis。
+ * 读取时优先返回尚未落盘的快照，保证本实例读己之写。
+ */
+public class WriteBehindAgentStateStore implements AgentStateStore, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindAgentStateStore.class);
+
+    private final AgentStateStore delegate;
+    private final long delayMillis;
+    private final ConcurrentHashMap<String, AgentStateSnapshot> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindAgentStateStore(AgentStateStore delegate, long delayMillis) {
+        this.delegate = delegate;
+        this.delayMillis = Math.max(0, delayMillis);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "agent-state-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public AgentStateSnapshot load(String sessionId) {
+        if (sessionId == null) return null;
+        AgentStateSnapshot pending = dirty.get(sessionId);
+        return pending != null ? pending : delegate.load(sessionId);
+    }
+
+    @Override
+    public void save(String sessionId, AgentStateSnapshot snapshot) {
+        if (sessionId == null || snapshot == null) return;
+        // 同一会话在延迟窗口内的多次写入合并为一次
+        if (dirty.put(sessionId, snapshot) == null) {
+            flusher.schedule(() -> flush(sessionId), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        if (sessionId == null) return;
+        dirty.remove(sessionId);
+        flusher.execute(() -> delegate.delete(sessionId));
+    }
+
+    private void flush(String sessionId) {
+        AgentStateSnapshot snapshot = dirty.remove(sessionId);
+        if (snapshot == null) return;
+        try {
+            delegate.save(sessionId, snapshot);
+        } catch (Exception e) {
+            log.warn("Write-behind flush failed. sessionId={}", sessionId, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (String sessionId : dirty.keySet()) flush(sessionId);
+        flusher.shutdown();
+    }
+}
@@ -0,0 +1,160 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+/**
+ * 自适应端点策略：在线学习当前说话人的停顿分布，为软端点与 final 去抖计时器给出时长。
+ * <p>
+ * 两类间隔分别统计：
+ * <ul>
+ *   <li>partial 间隔：同一句话内相邻 partial 的到达间隔，决定软端点（说话中的正常停顿不应触发提交）；</li>
+ *   <li>续说间隔：final 之后到下一个 partial 的间隔，决定 final 合并的去抖时长。</li>
+ * </ul>
+ * 每类用 EWMA + 指数衰减的对数分桶分位数估计，样本不足时回退到静态配置；结果始终限制在配置的上下界内。
+ * 超过上界的间隔视为真实的话轮结束，不计入分布，避免长停顿把计时器越推越长。
+ */
+public class AdaptiveEndpointer {
+    // 样本数达到该值前使用静态配置
+    private static final int WARMUP_SAMPLES = 8;
+    // 在分位数之上预留的安全余量
+    private static final int MARGIN_MILLIS = 150;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double SOFT_QUANTILE = 0.95;
+    private static final double DEBOUNCE_QUANTILE = 0.90;
+
+    private final boolean enabled;
+    private final int softDefault;
+    private final int softMin;
+    private final int softMax;
+    private final int debounceDefault;
+    private final int debounceMin;
+    private final int debounceMax;
+
+    private final GapSketch partialGaps = new GapSketch();
+    private final GapSketch resumeGaps = new GapSketch();
+    private double partialEwma = -1;
+    private long lastPartialAt = -1;
+    private long lastFinalAt = -1;
+
+    public AdaptiveEndpointer(boolean enabled,
+                              int softDefault, int softMin, int softMax,
+                              int debounceDefault, int debounceMin, int debounceMax) {
+        this.enabled = enabled;
+        // 上下界总是包含静态配置值，保证预热阶段与关闭自适应时行为不变
+        this.softDefault = Math.max(300, softDefault);
+        this.softMin = Math.max(300, Math.min(Math.min(softMin, softMax), this.softDefault));
+        this.softMax = Math.max(Math.max(this.softMin, softMax), this.softDefault);
+        this.debounceDefault = Math.max(0, debounceDefault);
+        this.debounceMin = Math.max(0, Math.min(Math.min(debounceMin, debounceMax), this.debounceDefault));
+        this.debounceMax = Math.max(Math.max(this.debounceMin, debounceMax), this.debounceDefault);
+    }
+
+    /**
+     * 固定时长（关闭自适应）的端点器。
+     */
+    public static AdaptiveEndpointer fixed(int softEndpointMillis, int debounceMillis) {
+        return new AdaptiveEndpointer(false, softEndpointMillis, softEndpointMillis, softEndpointMillis,
+                debounceMillis, debounceMillis, debounceMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void onPartial(long nowMillis) {
+        if (lastFinalAt > lastPartialAt) {
+            long gap = nowMillis - lastFinalAt;
+            if (gap >= 0 && gap <= debounceMax) resumeGaps.add(gap);
+        } else if (lastPartialAt >= 0) {
+            long gap = nowMillis - lastPartialAt;
+            if (gap >= 0 && gap <= softMax) {
+                partialGaps.add(gap);
+                partialEwma = partialEwma < 0 ? gap : EWMA_ALPHA * gap + (1 - EWMA_ALPHA) * partialEwma;
+            }
+        }
+        lastPartialAt = nowMillis;
+    }
+
+    public synchronized void onFinal(long nowMillis) {
+        lastFinalAt = nowMillis;
+    }
+
+    /**
+     * 当前软端点时长：max(p95, 2×EWMA) + 余量，限制在 [softMin, softMax]。
+     */
+    public synchronized int softEndpointMillis() {
+        if (!enabled || partialGaps.count() < WARMUP_SAMPLES) return softDefault;
+        double base = Math.max(partialGaps.quantile(SOFT_QUANTILE), 2 * partialEwma);
+        return clamp((int) Math.round(base) + MARGIN_MILLIS, softMin, softMax);
+    }
+
+    /**
+     * 当前 final 去抖时长：续说间隔 p90 + 余量，限制在 [debounceMin, debounceMax]。
+     */
+    public synchronized int debounceMillis() {
+        if (!enabled || resumeGaps.count() < WARMUP_SAMPLES) return debounceDefault;
+        return clamp((int) Math.round(resumeGaps.quantile(DEBOUNCE_QUANTILE)) + MARGIN_MILLIS, debounceMin, debounceMax);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveEndpointer{" +
+                "enabled=" + enabled +
+                ", soft=" + softEndpointMillis() +
+                ", debounce=" + debounceMillis() +
+                ", partialSamples=" + partialGaps.count() +
+                ", resumeSamples=" + resumeGaps.count() +
+                ", partialEwma=" + Math.round(partialEwma) +
+                '}';
+    }
+
+    private static int clamp(int v, int lo, int hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+
+    /**
+     * 指数衰减的对数分桶直方图：桶宽按 15% 几何增长（10ms 起），近期样本权重更高，内存固定。
+     */
+    static final class GapSketch {
+        private static final double BASE_MILLIS = 10.0;
+        private static final double GROWTH = 1.15;
+        private static final int BUCKETS = 64;
+        // 每新增一个样本，历史权重衰减一次（约等效最近 100 个样本窗口）
+        private static final double DECAY = 0.99;
+
+        private final double[] weights = new double[BUCKETS];
+        private double total;
+        private long samples;
+
+        void add(long gapMillis) {
+            for (int i = 0; i < BUCKETS; i++) weights[i] *= DECAY;
+            total *= DECAY;
+            weights[bucketOf(gapMillis)] += 1.0;
+            total += 1.0;
+            samples++;
+        }
+
+        long count() {
+            return samples;
+        }
+
+        double quantile(double q) {
+            if (total <= 0) return 0;
+            double target = q * total;
+            double acc = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                acc += weights[i];
+                if (acc >= target) return upperBound(i);
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        private static int bucketOf(long millis) {
+            if (millis <= BASE_MILLIS) return 0;
+            int b = (int) Math.ceil(Math.log(millis / BASE_MILLIS) / Math.log(GROWTH));
+            return Math.min(BUCKETS - 1, Math.max(0, b));
+        }
+
+        private static double upperBound(int bucket) {
+            return BASE_MILLIS * Math.pow(GROWTH, bucket);
+        }
+    }
+}
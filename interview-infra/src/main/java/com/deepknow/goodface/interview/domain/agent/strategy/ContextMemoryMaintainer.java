@@ -0,0 +1,125 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+import com.deepknow.goodface.interview.domain.agent.MemoryUpdateResult;
+import com.deepknow.goodface.interview.domain.session.util.ConversationContextBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * 会话级记忆维护：把 updateContextMemory 移出回答关键路径，在后台执行。
+ * <p>
+ * <ul>
+ *   <li>同一会话同时最多一个更新在执行；执行期间到达的请求合并为结束后的一次更新，届时读取的是最新累积的补充；</li>
+ *   <li>请求后若已切换到新问题，未开始的更新直接跳过；已完成的更新只合并关键事实，摘要丢弃；</li>
+ *   <li>更新受触发片段的截止时间约束（合并时取最新请求的）：开始前已过期则放弃，LLM 请求超时取剩余时间；</li>
+ *   <li>结果通过 {@link ConversationContextBuilder#applyMemoryUpdate} 原子应用，回答生成始终使用当时的上下文快照。</li>
+ * </ul>
+ * 结果分布见 interview.memory.update{result=applied|stale|merged|skipped|expired|failed|rejected}。
+ */
+public class ContextMemoryMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(ContextMemoryMaintainer.class);
+
+    private final Executor executor;
+    private final ConversationContextBuilder ctxBuilder;
+    private final Function<String, MemoryUpdateResult> updater;
+    private final String sessionId;
+
+    // 待执行的请求（null 表示无）及其发起时的问题代数
+    private String pendingQuestion;
+    private int pendingGeneration;
+    private Deadline pendingDeadline;
+    private boolean running;
+    private volatile boolean closed;
+
+    public ContextMemoryMaintainer(Executor executor,
+                                   ConversationContextBuilder ctxBuilder,
+                                   Function<String, MemoryUpdateResult> updater,
+                                   String sessionId) {
+        this.executor = executor;
+        this.ctxBuilder = ctxBuilder;
+        this.updater = updater;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * 请求为当前问题更新记忆；立即返回。
+     */
+    public void request(String question, Deadline deadline) {
+        if (closed || question == null || question.isEmpty()) return;
+        boolean start;
+        synchronized (this) {
+            if (pendingQuestion != null) AgentMetrics.count("interview.memory.update", "result", "merged");
+            pendingQuestion = question;
+            pendingGeneration = ctxBuilder.getQuestionGeneration();
+            pendingDeadline = deadline == null ? Deadline.NONE : deadline;
+            start = !running;
+            if (start) running = true;
+        }
+        if (start) dispatch();
+    }
+
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            pendingQuestion = null;
+        }
+    }
+
+    private void dispatch() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pendingQuestion = null;
+                running = false;
+            }
+            AgentMetrics.count("interview.memory.update", "result", "rejected");
+            log.debug("Memory update rejected. sessionId={}", sessionId);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            String question;
+            int generation;
+            Deadline deadline;
+            synchronized (this) {
+                if (closed || pendingQuestion == null) {
+                    running = false;
+                    return;
+                }
+                question = pendingQuestion;
+                generation = pendingGeneration;
+                deadline = pendingDeadline;
+                pendingQuestion = null;
+            }
+            runOnce(question, generation, deadline);
+        }
+    }
+
+    private void runOnce(String question, int generation, Deadline deadline) {
+        if (generation != ctxBuilder.getQuestionGeneration()) {
+            AgentMetrics.count("interview.memory.update", "result", "skipped");
+            return;
+        }
+        if (deadline.expire("memory")) {
+            AgentMetrics.count("interview.memory.update", "result", "expired");
+            return;
+        }
+        try (Deadline.Scope ignored = deadline.enter()) {
+            MemoryUpdateResult mem = updater.apply(question);
+            if (closed || mem == null) return;
+            boolean applied = ctxBuilder.applyMemoryUpdate(generation, mem.getSummary(), mem.getFacts());
+            AgentMetrics.count("interview.memory.update", "result", applied ? "applied" : "stale");
+        } catch (Exception e) {
+            AgentMetrics.count("interview.memory.update", "result", "failed");
+            log.debug("Memory update error ignored. sessionId={}", sessionId, e);
+        }
+    }
+}
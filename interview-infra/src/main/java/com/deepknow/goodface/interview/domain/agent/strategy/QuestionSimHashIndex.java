@@ -0,0 +1,182 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 会话级问题指纹索引：对每个已提出的问题计算 64 位 SimHash（字符 1/2-gram），
+ * 用汉明距离在本地判定候选问题与上一问题/历史问题的关系，仅在模糊区间交给 LLM 等价判定。
+ * <p>
+ * 判定规则（距离基于 64 位指纹）：
+ * <ul>
+ *   <li>与上一问题距离 ≤ sameMaxDistance：SAME；</li>
+ *   <li>与更早的某个问题距离 ≤ sameMaxDistance：REASKED（隔了若干问题后重新提问，按新问题处理并沿用原问题文本）；</li>
+ *   <li>与所有问题距离 ≥ newMinDistance，且不像是对上一问题的补充（无“那/比如/如果…”等承接开头）：NEW；</li>
+ *   <li>其余：AMBIGUOUS，调用 LLM。</li>
+ * </ul>
+ * 文本过短时指纹不稳定，直接返回 AMBIGUOUS。一场面试的问题数有限，线性扫描即可；超过容量时淘汰最早的条目。
+ */
+public class QuestionSimHashIndex {
+    public enum Decision { SAME, REASKED, NEW, AMBIGUOUS }
+
+    private static final int MIN_CHARS = 6;
+    private static final String[] CONTINUATION_PREFIXES = {
+            "那", "比如", "例如", "如果", "假如", "还有", "另外", "具体", "就是", "然后", "再", "那么", "也就是"
+    };
+
+    private final int sameMaxDistance;
+    private final int newMinDistance;
+    private final int capacity;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public QuestionSimHashIndex(int sameMaxDistance, int newMinDistance, int capacity) {
+        this.sameMaxDistance = sameMaxDistance;
+        this.newMinDistance = Math.max(sameMaxDistance + 1, newMinDistance);
+        this.capacity = Math.max(16, capacity);
+    }
+
+    public synchronized void add(String question) {
+        String core = core(question);
+        if (core.isEmpty()) return;
+        if (entries.size() >= capacity) entries.remove(0);
+        entries.add(new Entry(question.trim(), fingerprint(core)));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized List<String> questions() {
+        List<String> out = new ArrayList<>(entries.size());
+        for (Entry e : entries) out.add(e.text);
+        return out;
+    }
+
+    /**
+     * 判定候选问题与历史问题的关系；lastQuestion 为当前上下文中的上一问题。
+     */
+    public synchronized Match decide(String candidate, String lastQuestion) {
+        String core = core(candidate);
+        if (core.length() < MIN_CHARS) return new Match(Decision.AMBIGUOUS, -1, null);
+        long fp = fingerprint(core);
+
+        int lastDistance = -1;
+        String lastCore = core(lastQuestion);
+        if (lastCore.length() >= MIN_CHARS) {
+            lastDistance = Long.bitCount(fp ^ fingerprint(lastCore));
+            if (lastDistance <= sameMaxDistance) return new Match(Decision.SAME, lastDistance, lastQuestion);
+        }
+
+        int best = Integer.MAX_VALUE;
+        Entry bestEntry = null;
+        for (Entry e : entries) {
+            int d = Long.bitCount(fp ^ e.fingerprint);
+            if (d < best) {
+                best = d;
+                bestEntry = e;
+            }
+        }
+        if (bestEntry != null && best <= sameMaxDistance) {
+            // 与上一问题相同已在上面返回，这里命中的是更早的问题
+            if (lastQuestion != null && bestEntry.text.equals(lastQuestion.trim())) {
+                return new Match(Decision.SAME, best, bestEntry.text);
+            }
+            return new Match(Decision.REASKED, best, bestEntry.text);
+        }
+        int nearest = Math.min(best, lastDistance < 0 ? Integer.MAX_VALUE : lastDistance);
+        if (nearest >= newMinDistance && !looksLikeContinuation(candidate)) {
+            return new Match(Decision.NEW, nearest == Integer.MAX_VALUE ? 64 : nearest, null);
+        }
+        return new Match(Decision.AMBIGUOUS, nearest == Integer.MAX_VALUE ? -1 : nearest, bestEntry == null ? null : bestEntry.text);
+    }
+
+    static long fingerprint(String core) {
+        int[] votes = new int[64];
+        int shingles = 0;
+        for (int n = 1; n <= 2; n++) {
+            for (int i = 0; i + n <= core.length(); i++) {
+                long h = hash(core, i, n);
+                for (int b = 0; b < 64; b++) {
+                    votes[b] += ((h >>> b) & 1L) != 0 ? 1 : -1;
+                }
+                shingles++;
+            }
+        }
+        if (shingles == 0) return hash(core, 0, core.length());
+        long fp = 0;
+        for (int b = 0; b < 64; b++) {
+            if (votes[b] > 0) fp |= 1L << b;
+        }
+        return fp;
+    }
+
+    // FNV-1a 64 + murmur 终混，保证短 shingle 的位分布足够均匀
+    private static long hash(String s, int from, int len) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < from + len; i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String core(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isLetterOrDigit(c) || isFiller(c)) continue;
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    // 语气词与结构助词不影响问题语义，去掉后改写/口语化的同一问题指纹更接近
+    private static boolean isFiller(char c) {
+        return c == '的' || c == '吗' || c == '呢' || c == '啊' || c == '吧' || c == '呀' || c == '嘛' || c == '了';
+    }
+
+    private static boolean looksLikeContinuation(String candidate) {
+        String t = candidate == null ? "" : candidate.trim();
+        for (String p : CONTINUATION_PREFIXES) {
+            if (t.startsWith(p)) return true;
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        final String text;
+        final long fingerprint;
+
+        Entry(String text, long fingerprint) {
+            this.text = text;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static class Match {
+        public final Decision decision;
+        public final int distance;
+        // SAME/REASKED 时为命中的历史问题文本
+        public final String matched;
+
+        public Match(Decision decision, int distance, String matched) {
+            this.decision = decision;
+            this.distance = distance;
+            this.matched = matched;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" +
+                    "decision=" + decision +
+                    ", distance=" + distance +
+                    '}';
+        }
+    }
+}
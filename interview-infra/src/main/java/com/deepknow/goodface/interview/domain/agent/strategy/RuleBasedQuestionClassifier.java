@@ -0,0 +1,185 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+/**
+ * 本地规则问题检测：在调用 LLM 提取问题之前，对片段做一次零成本的打分。
+ * <p>
+ * 信号与权重：
+ * <ul>
+ *   <li>问号（？/?）：+0.6</li>
+ *   <li>句末疑问语气词（吗/呢/么/嘛）：+0.45</li>
+ *   <li>疑问代词（什么/怎么/为什么/如何/哪/多少/是否/有没有/是不是…）：+0.35</li>
+ *   <li>祈使式提问（说说/介绍一下/讲讲/谈谈/解释一下…）：+0.45，面向对方（你/您）时再 +0.2</li>
+ *   <li>面向对方（你/您）：+0.1；第一人称叙述（我 ≥2 且无你/您）：-0.3</li>
+ * </ul>
+ * 得分 ≥ questionThreshold 判为明确问题；没有任何疑问信号、不面向对方且得分 ≤ nonQuestionThreshold 判为明确非问题；其余交给 LLM。
+ */
+public class RuleBasedQuestionClassifier {
+    public enum Label { QUESTION, NOT_QUESTION, UNSURE }
+
+    private static final String[] WH_WORDS = {
+            "什么", "怎么", "怎样", "为什么", "为何", "如何", "哪", "多少", "几个", "几种",
+            "是否", "能否", "可否", "有没有", "是不是", "会不会", "能不能", "要不要", "区别", "原理"
+    };
+    private static final String[] IMPERATIVES = {
+            "说说", "说一下", "讲讲", "讲一下", "谈谈", "谈一下", "聊聊", "聊一下", "介绍一下", "介绍下",
+            "描述一下", "解释一下", "分享一下", "举个例子", "展开说", "具体说", "自我介绍"
+    };
+    private static final char[] FINAL_PARTICLES = {'吗', '呢', '么', '嘛'};
+    private static final String[] SMALL_TALK = {
+            "嗯", "啊", "哦", "好", "好的", "对", "对的", "是的", "没错", "谢谢", "可以", "行", "没问题", "明白", "了解", "收到"
+    };
+
+    private final double questionThreshold;
+    private final double nonQuestionThreshold;
+
+    public RuleBasedQuestionClassifier(double questionThreshold, double nonQuestionThreshold) {
+        this.questionThreshold = questionThreshold;
+        this.nonQuestionThreshold = nonQuestionThreshold;
+    }
+
+    public Verdict classify(String text) {
+        String t = text == null ? "" : text.trim();
+        if (t.isEmpty() || isSmallTalk(t)) return new Verdict(Label.NOT_QUESTION, 1.0, 0.0, -1);
+
+        double score = 0;
+        int cues = 0;
+        int firstCue = Integer.MAX_VALUE;
+
+        int qm = indexOfAny(t, '？', '?');
+        if (qm >= 0) {
+            score += 0.6;
+            cues++;
+            firstCue = Math.min(firstCue, qm);
+        }
+        int particle = finalParticleAt(t);
+        if (particle >= 0) {
+            score += 0.45;
+            cues++;
+            firstCue = Math.min(firstCue, particle);
+        }
+        int wh = indexOfAny(t, WH_WORDS);
+        if (wh >= 0) {
+            score += 0.35;
+            cues++;
+            firstCue = Math.min(firstCue, wh);
+        }
+        boolean addressee = t.indexOf('你') >= 0 || t.indexOf('您') >= 0;
+        int imp = indexOfAny(t, IMPERATIVES);
+        if (imp >= 0) {
+            score += addressee ? 0.65 : 0.45;
+            cues++;
+            firstCue = Math.min(firstCue, imp);
+        }
+        if (addressee) score += 0.1;
+        if (!addressee && count(t, '我') >= 2) score -= 0.3;
+
+        double s = Math.max(0.0, Math.min(1.0, score));
+        if (s >= questionThreshold) return new Verdict(Label.QUESTION, s, s, firstCue);
+        if (cues == 0 && !addressee && s <= nonQuestionThreshold) return new Verdict(Label.NOT_QUESTION, 1.0 - s, s, -1);
+        return new Verdict(Label.UNSURE, 0.5, s, firstCue == Integer.MAX_VALUE ? -1 : firstCue);
+    }
+
+    /**
+     * 从首个疑问信号所在分句开始截取问题文本，去掉前面的寒暄/过渡语；截取结果过短时返回原文。
+     */
+    public static String questionText(String text, Verdict v) {
+        String t = text == null ? "" : text.trim();
+        if (v == null || v.cueIndex <= 0 || v.cueIndex >= t.length()) return t;
+        int start = 0;
+        for (int i = v.cueIndex - 1; i >= 0; i--) {
+            char c = t.charAt(i);
+            if (c == '。' || c == '！' || c == '!' || c == '；' || c == ';' || c == '.') {
+                start = i + 1;
+                break;
+            }
+        }
+        String q = t.substring(start).trim();
+        return q.length() < 4 ? t : q;
+    }
+
+    private static boolean isSmallTalk(String t) {
+        String core = t.replaceAll("[，。！？、；：,.!?\\s]", "");
+        if (core.isEmpty()) return true;
+        if (core.length() > 6) return false;
+        String rest = core;
+        boolean changed = true;
+        while (!rest.isEmpty() && changed) {
+            changed = false;
+            for (String w : SMALL_TALK) {
+                if (rest.startsWith(w)) {
+                    rest = rest.substring(w.length());
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return rest.isEmpty();
+    }
+
+    // 分句末尾（标点/空格前或全文末尾）的语气词位置；“什么/怎么”中的“么”不算
+    private static int finalParticleAt(String t) {
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            boolean particle = false;
+            for (char p : FINAL_PARTICLES) {
+                if (c == p) { particle = true; break; }
+            }
+            if (!particle) continue;
+            if (c == '么' && i > 0 && (t.charAt(i - 1) == '什' || t.charAt(i - 1) == '怎' || t.charAt(i - 1) == '那' || t.charAt(i - 1) == '这')) continue;
+            boolean atEnd = i == t.length() - 1;
+            if (!atEnd) {
+                char n = t.charAt(i + 1);
+                atEnd = n == '？' || n == '?' || n == '，' || n == ',' || n == '。' || n == '！' || n == ' ' || n == '；';
+            }
+            if (atEnd) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfAny(String t, char a, char b) {
+        int i = t.indexOf(a);
+        int j = t.indexOf(b);
+        if (i < 0) return j;
+        if (j < 0) return i;
+        return Math.min(i, j);
+    }
+
+    private static int indexOfAny(String t, String[] words) {
+        int best = -1;
+        for (String w : words) {
+            int i = t.indexOf(w);
+            if (i >= 0 && (best < 0 || i < best)) best = i;
+        }
+        return best;
+    }
+
+    private static int count(String t, char c) {
+        int n = 0;
+        for (int i = 0; i < t.length(); i++) if (t.charAt(i) == c) n++;
+        return n;
+    }
+
+    public static class Verdict {
+        public final Label label;
+        public final double confidence;
+        public final double score;
+        // 首个疑问信号的位置，用于截取问题文本；无信号为 -1
+        public final int cueIndex;
+
+        public Verdict(Label label, double confidence, double score, int cueIndex) {
+            this.label = label;
+            this.confidence = confidence;
+            this.score = score;
+            this.cueIndex = cueIndex;
+        }
+
+        @Override
+        public String toString() {
+            return "Verdict{" +
+                    "label=" + label +
+                    ", confidence=" + String.format("%.2f", confidence) +
+                    ", score=" + String.format("%.2f", score) +
+                    '}';
+        }
+    }
+}
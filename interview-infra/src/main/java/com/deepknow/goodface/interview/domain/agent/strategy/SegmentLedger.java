@@ -0,0 +1,221 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 片段台账：为进入分析管线的每个片段分配 ID，并记录其状态（待处理/已提交/已回答/已跳过）。
+ * <p>
+ * partial 软端点与 STT final 两条来源共用一条管线，台账负责二者的协调：
+ * <ul>
+ *   <li>partial 片段登记后进入待比对队列；</li>
+ *   <li>final 去抖到期时取出在该 final 到达前提交的 partial 片段，只有从句首起连续完成分析（已提交/已回答）的片段才算覆盖；
+ *       被跳过（过短、过期、非问题等）或仍在处理中的片段及其后内容仍交给 final 管线，与后续 final 合并分析；</li>
+ *   <li>已覆盖的部分不再分析，只处理剩余文本（merged），完全覆盖则直接跳过（covered）；比对不上（STT 大幅改写）时按整句处理。</li>
+ * </ul>
+ * 按提交时间而不是登记时间归句：软端点任务在调度线程池排队期间 final 先到时，该片段仍归入这句。
+ * 片段登记时带上截止时间，管线各阶段据此放弃过期工作。
+ */
+public class SegmentLedger {
+    public enum Source { PARTIAL, FINAL }
+    public enum State { PENDING, COMMITTED, ANSWERED, SKIPPED }
+
+    private static final int RECENT_LIMIT = 64;
+    // 公共前缀至少覆盖已提交文本的比例，低于该比例视为 STT 改写，按整句处理
+    private static final double COVER_RATIO = 0.8;
+
+    private final AtomicLong seq = new AtomicLong();
+    private volatile long latestCommittedAtMillis;
+    private final ArrayDeque<Segment> recent = new ArrayDeque<>(RECENT_LIMIT);
+    // 尚未与 final 比对的 partial 片段（按登记顺序）
+    private final ArrayDeque<Segment> unmatchedPartials = new ArrayDeque<>();
+    private int covered = 0;
+    private int merged = 0;
+
+    /**
+     * 登记一个进入管线的片段；partial 片段同时进入待比对队列。
+     */
+    public synchronized Segment open(Source source, String text, long committedAtMillis, Deadline deadline) {
+        Segment seg = new Segment(seq.incrementAndGet(), source, text == null ? "" : text.trim(),
+                committedAtMillis, deadline == null ? Deadline.NONE : deadline);
+        if (committedAtMillis > latestCommittedAtMillis) latestCommittedAtMillis = committedAtMillis;
+        if (source == Source.PARTIAL) {
+            // 长期没有 final 时（STT 异常）只保留最近的片段
+            if (unmatchedPartials.size() >= RECENT_LIMIT) unmatchedPartials.pollFirst();
+            unmatchedPartials.offerLast(seg);
+        }
+        if (recent.size() >= RECENT_LIMIT) recent.pollFirst();
+        recent.offerLast(seg);
+        return seg;
+    }
+
+    /**
+     * final 去抖到期：返回未被本句 partial 片段覆盖的剩余文本（完全覆盖时为空串）。
+     * 本句片段为在 finalAtMillis 及之前提交的 partial 片段，比对后全部出队。
+     */
+    public synchronized String uncoveredByPartials(String finalText, long finalAtMillis) {
+        String text = finalText == null ? "" : finalText.trim();
+        StringBuilder analyzed = new StringBuilder(128);
+        boolean contiguous = true;
+        while (!unmatchedPartials.isEmpty() && unmatchedPartials.peekFirst().committedAtMillis <= finalAtMillis) {
+            Segment seg = unmatchedPartials.pollFirst();
+            State st = seg.state;
+            if (contiguous && (st == State.COMMITTED || st == State.ANSWERED)) {
+                analyzed.append(normalize(seg.text));
+            } else {
+                contiguous = false;
+            }
+        }
+        String committed = analyzed.toString();
+        if (committed.isEmpty() || text.isEmpty()) return text;
+        String nf = normalize(text);
+        int common = 0;
+        int n = Math.min(committed.length(), nf.length());
+        while (common < n && committed.charAt(common) == nf.charAt(common)) common++;
+        int coveredChars;
+        if (common >= Math.max(2, (int) Math.ceil(committed.length() * COVER_RATIO))) {
+            coveredChars = Math.min(committed.length(), nf.length());
+        } else if (committed.contains(nf)) {
+            coveredChars = nf.length();
+        } else {
+            return text;
+        }
+        if (coveredChars >= nf.length()) {
+            covered++;
+            AgentMetrics.count("interview.segment.ledger", "source", "final", "state", "covered");
+            return "";
+        }
+        merged++;
+        AgentMetrics.count("interview.segment.ledger", "source", "final", "state", "merged");
+        return text.substring(originalOffset(text, coveredChars)).trim();
+    }
+
+    public void commit(Segment seg) {
+        transition(seg, State.COMMITTED, null);
+    }
+
+    public void answer(Segment seg) {
+        transition(seg, State.ANSWERED, null);
+    }
+
+    public void skip(Segment seg, String reason) {
+        transition(seg, State.SKIPPED, reason);
+    }
+
+    /**
+     * 是否已有更晚提交且已开始处理的片段（片段在调度线程池中排队时，后提交者可能先登记）。
+     */
+    public boolean hasNewer(Segment seg) {
+        return seg != null && latestCommittedAtMillis > seg.committedAtMillis;
+    }
+
+    public synchronized List<Segment> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    public synchronized Metrics getMetricsSnapshot() {
+        int answered = 0, skipped = 0;
+        for (Segment s : recent) {
+            if (s.state == State.ANSWERED) answered++;
+            else if (s.state == State.SKIPPED) skipped++;
+        }
+        return new Metrics(seq.get(), covered, merged, answered, skipped);
+    }
+
+    private void transition(Segment seg, State next, String reason) {
+        if (seg == null) return;
+        synchronized (seg) {
+            if (seg.state == State.SKIPPED || seg.state == State.ANSWERED) return;
+            seg.state = next;
+            if (reason != null) seg.reason = reason;
+        }
+        AgentMetrics.count("interview.segment.ledger", "source", seg.source.name().toLowerCase(),
+                "state", reason == null ? next.name().toLowerCase() : reason);
+    }
+
+    // 归一化后第 normChars 个有效字符之后、下一个有效字符在原文中的位置（跳过已覆盖部分末尾的标点）
+    private static int originalOffset(String text, int normChars) {
+        int seen = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                if (seen == normChars) return i;
+                seen++;
+            }
+        }
+        return text.length();
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    public static final class Segment {
+        public final long id;
+        public final Source source;
+        public final String text;
+        public final long committedAtMillis;
+        public final Deadline deadline;
+        private volatile State state = State.PENDING;
+        private volatile String reason;
+
+        Segment(long id, Source source, String text, long committedAtMillis, Deadline deadline) {
+            this.id = id;
+            this.source = source;
+            this.text = text;
+            this.committedAtMillis = committedAtMillis;
+            this.deadline = deadline;
+        }
+
+        public State getState() { return state; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "Segment{" +
+                    "id=" + id +
+                    ", source=" + source +
+                    ", state=" + state +
+                    (reason == null ? "" : ", reason=" + reason) +
+                    ", len=" + text.length() +
+                    '}';
+        }
+    }
+
+    public static class Metrics {
+        public final long segments;
+        public final int finalsCovered;
+        public final int finalsMerged;
+        public final int recentAnswered;
+        public final int recentSkipped;
+
+        public Metrics(long segments, int finalsCovered, int finalsMerged, int recentAnswered, int recentSkipped) {
+            this.segments = segments;
+            this.finalsCovered = finalsCovered;
+            this.finalsMerged = finalsMerged;
+            this.recentAnswered = recentAnswered;
+            this.recentSkipped = recentSkipped;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{" +
+                    "segments=" + segments +
+                    ", finalsCovered=" + finalsCovered +
+                    ", finalsMerged=" + finalsMerged +
+                    ", recentAnswered=" + recentAnswered +
+                    ", recentSkipped=" + recentSkipped +
+                    '}';
+        }
+    }
+}
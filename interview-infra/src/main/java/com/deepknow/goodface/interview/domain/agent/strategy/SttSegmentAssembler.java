@@ -1,28 +1,42 @@
 package com.deepknow.goodface.interview.domain.agent.strategy;
 
+import com.deepknow.goodface.interview.domain.agent.HashedWheelTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * STT 片段组装策略：管理 partial 缓冲与软端点，生成可提交的语义片段。
+ * <p>
+ * DashScope 的 partial 是“当前句子”的累积式重述，因此这里只保留每句最新的识别假设：
+ * <ul>
+ *   <li>与上一版假设求公共前缀，得到稳定前缀与修订次数；前缀之前的字符已扫描过，标点检测只看新增部分；</li>
+ *   <li>句内提前提交后记录已提交偏移，后续 partial 只贡献偏移之后的内容，不会重复提交；</li>
+ *   <li>若新 partial 与上一版毫无公共前缀（或修订越过提交点且公共前缀不足已提交部分的一半），视为 STT 已进入下一句，
+ *       上一句未提交的尾部并入待提交内容；否则修订越过提交点时提交点回退到公共前缀。</li>
+ * </ul>
  */
 public class SttSegmentAssembler {
     private static final Logger log = LoggerFactory.getLogger(SttSegmentAssembler.class);
 
-    private final ScheduledExecutorService scheduler;
-    private final int softEndpointMillis;
+    private final HashedWheelTimer timer;
+    private final AdaptiveEndpointer endpointer;
     private final int maxSegmentChars;
     private final boolean earlyCommitPunctuation;
     private final Consumer<String> onSegmentCommitted;
     private final Consumer<Exception> onError;
 
-    private final StringBuilder partialBuffer = new StringBuilder(512);
-    private ScheduledFuture<?> softEndpointTask;
+    // 当前句子的最新识别假设、已提交偏移与标点扫描进度
+    private String hypothesis = "";
+    private int committedOffset = 0;
+    private int scannedUpTo = 0;
+    // 最近一次发现的句末标点位置（-1 表示未发现），提前提交只提交到该位置
+    private int terminalAt = -1;
+    // 已换句但尚未提交的上一句尾部
+    private final StringBuilder carry = new StringBuilder(256);
+    private HashedWheelTimer.Timeout softEndpointTask;
+    private final Runnable softEndpointFire = this::fireSoftEndpoint;
 
     // 基础指标
     private int segmentsCommitted = 0;
@@ -30,15 +44,27 @@ public class SttSegmentAssembler {
     private int earlyCommitFires = 0;
     private int totalPartialChars = 0;
     private int maxCommittedLen = 0;
+    private int revisions = 0;
+    private int scannedChars = 0;
 
-    public SttSegmentAssembler(ScheduledExecutorService scheduler,
+    public SttSegmentAssembler(HashedWheelTimer timer,
                                int softEndpointMillis,
                                int maxSegmentChars,
                                boolean earlyCommitPunctuation,
                                Consumer<String> onSegmentCommitted,
                                Consumer<Exception> onError) {
-        this.scheduler = scheduler;
-        this.softEndpointMillis = Math.max(300, softEndpointMillis);
+        this(timer, AdaptiveEndpointer.fixed(Math.max(300, softEndpointMillis), 0),
+                maxSegmentChars, earlyCommitPunctuation, onSegmentCommitted, onError);
+    }
+
+    public SttSegmentAssembler(HashedWheelTimer timer,
+                               AdaptiveEndpointer endpointer,
+                               int maxSegmentChars,
+                               boolean earlyCommitPunctuation,
+                               Consumer<String> onSegmentCommitted,
+                               Consumer<Exception> onError) {
+        this.timer = timer;
+        this.endpointer = endpointer;
         this.maxSegmentChars = Math.max(50, maxSegmentChars);
         this.earlyCommitPunctuation = earlyCommitPunctuation;
         this.onSegmentCommitted = onSegmentCommitted;
@@ -47,11 +73,20 @@ public class SttSegmentAssembler {
 
     public void onPartial(String partial) {
         if (partial == null || partial.isEmpty()) return;
-        totalPartialChars += partial.length();
-        appendPartial(partial);
-        if (shouldEarlyCommit(partialBuffer)) {
-            cancelSoftEndpoint();
-            commitByEarly();
+        endpointer.onPartial(System.currentTimeMillis());
+        String early;
+        boolean remaining;
+        synchronized (this) {
+            totalPartialChars += partial.length();
+            acceptHypothesis(partial.trim());
+            early = shouldEarlyCommit() ? drainPending(terminalAt >= 0 ? terminalAt + 1 : hypothesis.length()) : null;
+            remaining = pendingLength() > 0;
+        }
+        if (early != null) {
+            // 标点之后若还有未提交内容，继续由软端点兜底
+            if (remaining) rescheduleSoftEndpoint(); else cancelSoftEndpoint();
+            earlyCommitFires++;
+            emit(early);
         } else {
             rescheduleSoftEndpoint();
         }
@@ -61,75 +96,141 @@ public class SttSegmentAssembler {
         cancelSoftEndpoint();
     }
 
-    public void clear() {
-        partialBuffer.setLength(0);
+    public synchronized void clear() {
+        hypothesis = "";
+        committedOffset = 0;
+        scannedUpTo = 0;
+        terminalAt = -1;
+        carry.setLength(0);
     }
 
     private void rescheduleSoftEndpoint() {
-        cancelSoftEndpoint();
-        softEndpointTask = scheduler.schedule(() -> {
-            try {
-                commitBySoftEndpoint();
-            } catch (Exception e) {
-                if (onError != null) onError.accept(e);
-            }
-        }, softEndpointMillis, TimeUnit.MILLISECONDS);
+        // 原地重置仍未触发的计时器，避免每个 partial 都取消并新建任务
+        softEndpointTask = timer.reschedule(softEndpointTask, softEndpointFire, endpointer.softEndpointMillis());
     }
 
-    private void cancelSoftEndpoint() {
+    private void fireSoftEndpoint() {
         try {
-            if (softEndpointTask != null) {
-                softEndpointTask.cancel(false);
-                softEndpointTask = null;
-            }
-        } catch (Exception ignored) {}
+            commitBySoftEndpoint();
+        } catch (Exception e) {
+            if (onError != null) onError.accept(e);
+        }
+    }
+
+    private void cancelSoftEndpoint() {
+        HashedWheelTimer.Timeout t = softEndpointTask;
+        if (t != null) {
+            t.cancel();
+            softEndpointTask = null;
+        }
     }
 
     private void commitBySoftEndpoint() {
         softEndpointFires++;
-        doCommit();
+        String segment;
+        synchronized (this) {
+            segment = drainPending(hypothesis.length());
+        }
+        emit(segment);
     }
 
-    private void commitByEarly() {
-        earlyCommitFires++;
-        doCommit();
+    private void emit(String segment) {
+        if (segment == null || segment.isEmpty()) return;
+        try {
+            segmentsCommitted++;
+            int len = segment.length();
+            if (len > maxCommittedLen) maxCommittedLen = len;
+            onSegmentCommitted.accept(segment);
+        } catch (Exception e) {
+            if (onError != null) onError.accept(e);
+        }
     }
 
-    private void doCommit() {
-        String segment = drainPartialBuffer();
-        if (!segment.isEmpty()) {
-            try {
-                segmentsCommitted++;
-                int len = segment.length();
-                if (len > maxCommittedLen) maxCommittedLen = len;
-                onSegmentCommitted.accept(segment);
-            } catch (Exception e) {
-                if (onError != null) onError.accept(e);
+    private void acceptHypothesis(String next) {
+        int common = commonPrefix(hypothesis, next);
+        // 修订越过提交点且保留的已提交内容不足一半：视为 STT 已换句（如“我做过后端开发。”→“我负责”）
+        boolean newSentence = common == 0 || (common < committedOffset && common * 2 < committedOffset);
+        if (!hypothesis.isEmpty() && newSentence) {
+            // 进入新句：保留上一句未提交的尾部
+            appendCarry(pendingTail());
+            hypothesis = next;
+            committedOffset = 0;
+            scannedUpTo = 0;
+            terminalAt = -1;
+        } else {
+            if (common < hypothesis.length()) revisions++;
+            hypothesis = next;
+            // 修订了已提交部分（如“你好。请介绍”→“你好请你介绍一下项目”）：提交点回退到公共前缀，
+            // 修订后的字符重新作为待提交内容，不丢字，也不会越界
+            if (committedOffset > common) committedOffset = common;
+            // 修订只影响公共前缀之后的字符，之前的已扫描结果仍然有效
+            if (scannedUpTo > common) {
+                scannedUpTo = Math.max(committedOffset, common);
+                terminalAt = -1;
             }
         }
     }
 
-    private void appendPartial(String partial) {
-        if (partialBuffer.length() > 0) partialBuffer.append(' ');
-        partialBuffer.append(partial.trim());
+    private String pendingTail() {
+        return committedOffset < hypothesis.length() ? hypothesis.substring(committedOffset).trim() : "";
+    }
+
+    private void appendCarry(String tail) {
+        if (tail.isEmpty()) return;
+        if (carry.length() > 0) carry.append(' ');
+        carry.append(tail);
+    }
+
+    private int pendingLength() {
+        return carry.length() + Math.max(0, hypothesis.length() - committedOffset);
     }
 
-    private String drainPartialBuffer() {
-        String s = partialBuffer.toString().trim();
-        partialBuffer.setLength(0);
-        return s == null ? "" : s;
+    private String drainPending(int upTo) {
+        int end = Math.max(committedOffset, Math.min(upTo, hypothesis.length()));
+        String head = hypothesis.substring(committedOffset, end).trim();
+        String out;
+        if (carry.length() == 0) {
+            out = head;
+        } else {
+            out = head.isEmpty() ? carry.toString() : carry + " " + head;
+        }
+        carry.setLength(0);
+        committedOffset = end;
+        // 标点之后的剩余部分尚未提交，下次从提交点重新扫描
+        scannedUpTo = committedOffset;
+        terminalAt = -1;
+        return out.trim();
     }
 
-    private boolean shouldEarlyCommit(StringBuilder buf) {
-        if (buf == null) return false;
-        if (buf.length() >= maxSegmentChars) return true;
+    private boolean shouldEarlyCommit() {
+        if (pendingLength() >= maxSegmentChars) {
+            terminalAt = -1;
+            return true;
+        }
         if (!earlyCommitPunctuation) return false;
-        String s = buf.toString();
-        return s.indexOf('？') >= 0 || s.indexOf('?') >= 0 || s.indexOf('。') >= 0 || s.indexOf('.') >= 0 || s.indexOf('!') >= 0 || s.indexOf('！') >= 0;
+        int from = Math.max(scannedUpTo, committedOffset);
+        for (int i = from; i < hypothesis.length(); i++) {
+            if (isTerminal(hypothesis.charAt(i))) terminalAt = i;
+        }
+        scannedChars += Math.max(0, hypothesis.length() - from);
+        scannedUpTo = hypothesis.length();
+        return terminalAt >= 0;
+    }
+
+    private static boolean isTerminal(char c) {
+        return c == '？' || c == '?' || c == '。' || c == '.' || c == '!' || c == '！';
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) i++;
+        return i;
     }
 
     public Metrics getMetricsSnapshot() {
-        return new Metrics(segmentsCommitted, softEndpointFires, earlyCommitFires, totalPartialChars, maxCommittedLen);
+        return new Metrics(segmentsCommitted, softEndpointFires, earlyCommitFires, totalPartialChars, maxCommittedLen,
+                revisions, scannedChars);
     }
 
     public static class Metrics {
@@ -138,13 +239,18 @@ public class SttSegmentAssembler {
         public final int earlyCommitFires;
         public final int totalPartialChars;
         public final int maxCommittedLen;
+        public final int revisions;
+        public final int scannedChars;
 
-        public Metrics(int segmentsCommitted, int softEndpointFires, int earlyCommitFires, int totalPartialChars, int maxCommittedLen) {
+        public Metrics(int segmentsCommitted, int softEndpointFires, int earlyCommitFires, int totalPartialChars, int maxCommittedLen,
+                       int revisions, int scannedChars) {
             this.segmentsCommitted = segmentsCommitted;
             this.softEndpointFires = softEndpointFires;
             this.earlyCommitFires = earlyCommitFires;
             this.totalPartialChars = totalPartialChars;
             this.maxCommittedLen = maxCommittedLen;
+            this.revisions = revisions;
+            this.scannedChars = scannedChars;
         }
 
         @Override
@@ -155,6 +261,8 @@ public class SttSegmentAssembler {
                     ", earlyCommitFires=" + earlyCommitFires +
                     ", totalPartialChars=" + totalPartialChars +
                     ", maxCommittedLen=" + maxCommittedLen +
+                    ", revisions=" + revisions +
+                    ", scannedChars=" + scannedChars +
                     '}';
         }
     }
@@ -5,6 +5,10 @@ import com.deepknow.goodface.interview.domain.agent.DefaultInterviewAgent;
 import com.deepknow.goodface.interview.domain.agent.InterviewAgent;
 import com.deepknow.goodface.interview.domain.agent.AgentConfig;
 import com.deepknow.goodface.interview.domain.agent.AgentCallbacks;
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.AgentSchedulers;
+import com.deepknow.goodface.interview.domain.agent.HashedWheelTimer;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
 import com.deepknow.goodface.interview.domain.session.service.AudioStreamService;
 import com.deepknow.goodface.interview.domain.session.util.AnswerAccumulator;
 import org.slf4j.Logger;
@@ -17,14 +21,16 @@ import com.deepknow.goodface.interview.repo.mapper.InterviewSessionMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 
-import java.time.LocalDateTime;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -33,21 +39,30 @@ public class AudioStreamServiceImpl implements AudioStreamService {
     private static final Logger logger = LoggerFactory.getLogger(AudioStreamServiceImpl.class);
 
     private final AgentFactory interviewAgentFactory = new AgentFactory();
-    private final ConcurrentHashMap<String, InterviewAgent> activeAgents = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, AnswerAccumulator> answerBuffers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AgentBinding> activeAgents = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String> wsToSessionId = new ConcurrentHashMap<>();
+    // 断线后处于宽限期内的 Agent：sessionId -> 绑定
+    private final ConcurrentHashMap<String, AgentBinding> parkedAgents = new ConcurrentHashMap<>();
 
     private final InterviewSessionMapper sessionMapper;
     private final MessagePersistenceService persistenceService;
     private final ObjectMapper objectMapper;
+    private final AgentStateStore agentStateStore;
+    private final SessionResumeProperties resumeProperties;
 
     @Autowired
     public AudioStreamServiceImpl(InterviewSessionMapper sessionMapper,
                                   MessagePersistenceService persistenceService,
-                                  ObjectMapper objectMapper) {
+                                  ObjectMapper objectMapper,
+                                  AgentStateStore agentStateStore,
+                                  SessionResumeProperties resumeProperties) {
         this.sessionMapper = sessionMapper;
         this.persistenceService = persistenceService;
         this.objectMapper = objectMapper;
+        this.agentStateStore = agentStateStore;
+        this.resumeProperties = resumeProperties;
+        AgentMetrics.gauge("interview.session.parked", parkedAgents, Map::size);
+        AgentMetrics.gauge("interview.session.active", activeAgents, Map::size);
     }
 
     @Override
@@ -71,6 +86,25 @@ public class AudioStreamServiceImpl implements AudioStreamService {
             return;
         }
 
+        SessionRelay.Handlers handlers = new SessionRelay.Handlers(sttPartialHandler, sttFinalHandler, questionHandler,
+                answerDeltaHandler, answerCompleteHandler, errorHandler, sttReadyHandler);
+
+        // 宽限期内的重连：复用仍在运行的 Agent 与 STT 长连接，回放断线期间的下行事件
+        AgentBinding parked = parkedAgents.remove(interviewSession.getId());
+        if (parked != null) {
+            if (parked.expiry != null) parked.expiry.cancel();
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - parked.parkedAtNanos);
+            wsToSessionId.put(webSocketSessionId, parked.sessionId);
+            parked.lastActiveNanos = System.nanoTime();
+            activeAgents.put(webSocketSessionId, parked);
+            int replayed = parked.relay.attach(handlers);
+            AgentMetrics.count("interview.session.rebind", "result", "hit");
+            AgentMetrics.recordMillis("interview.session.rebind.saved", parked.sttStartupMillis);
+            logger.info("Rebind session: wsSessionId={}, sessionId={}, gapMs={}, replayed={}, dropped={}, savedStartupMs={}",
+                    webSocketSessionId, parked.sessionId, gapMillis, replayed, parked.relay.getDropped(), parked.sttStartupMillis);
+            return;
+        }
+
         Map<String, Object> sessionConfig = Collections.emptyMap();
         try {
             String configJson = interviewSession.getConfigJson();
@@ -83,64 +117,59 @@ public class AudioStreamServiceImpl implements AudioStreamService {
 
         SessionContext sessionContext = new SessionContext(interviewSession.getId(), interviewSession.getUserId(), interviewSession, sessionConfig);
 
-        InterviewAgent interviewAgent = new DefaultInterviewAgent(interviewAgentFactory);
+        InterviewAgent interviewAgent = new DefaultInterviewAgent(interviewAgentFactory, agentStateStore);
+        SessionRelay relay = new SessionRelay(handlers, resumeProperties.getMaxBufferedEvents());
+        AgentBinding binding = new AgentBinding(interviewSession.getId(), interviewAgent, relay);
 
-        // 建立答案缓冲用于持久化 assistant 完整输出
-        AnswerAccumulator answerAcc = new AnswerAccumulator();
-        answerBuffers.put(webSocketSessionId, answerAcc);
+        // 建立答案缓冲用于持久化 assistant 完整输出（随绑定跨重连保留）
+        AnswerAccumulator answerAcc = binding.answerAcc;
 
         // 将各类匿名回调拆分为具名处理器，提升可读性
         Consumer<String> onFinalText = fin -> {
-            if (sttFinalHandler != null) {
-                sttFinalHandler.accept(fin);
-            }
+            relay.onSttFinal(fin);
             // 异步持久化用户消息，避免阻塞回调链路
             persistenceService.persistUser(interviewSession.getId(), fin);
         };
 
         Consumer<String> onAnswerDelta = delta -> {
             answerAcc.append(delta);
-            if (answerDeltaHandler != null) {
-                answerDeltaHandler.accept(delta);
-            }
+            relay.onAnswerDelta(delta);
         };
 
         Runnable onAnswerComplete = () -> {
             String full = answerAcc.drain();
             persistenceService.persistAssistant(interviewSession.getId(), full);
-            if (answerCompleteHandler != null) {
-                answerCompleteHandler.run();
-            }
+            relay.onAnswerComplete();
         };
 
-        Consumer<Throwable> onError = ex -> {
-            if (errorHandler != null) {
-                errorHandler.accept(ex);
-            }
+        Runnable onSttReady = () -> {
+            binding.sttStartupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - binding.createdAtNanos);
+            relay.onSttReady();
         };
 
         AgentConfig agentConfig = AgentConfig.from(sessionContext);
         AgentCallbacks callbacks = AgentCallbacks.of(
-                sttPartialHandler,
+                relay::onSttPartial,
                 onFinalText,
-                questionHandler,
+                relay::onQuestion,
                 onAnswerDelta,
                 onAnswerComplete,
-                onError,
-                sttReadyHandler
+                relay::onError,
+                onSttReady
         );
         logger.info("Open session: wsSessionId={}, sessionId={}", webSocketSessionId, interviewSession.getId());
         wsToSessionId.put(webSocketSessionId, interviewSession.getId());
         interviewAgent.start(sessionContext, agentConfig, callbacks);
-        activeAgents.put(webSocketSessionId, interviewAgent);
+        activeAgents.put(webSocketSessionId, binding);
     }
 
     @Override
     public void onAudio(String webSocketSessionId, byte[] audioPcmChunk) {
-        InterviewAgent agent = activeAgents.get(webSocketSessionId);
-        if (agent != null) {
+        AgentBinding binding = activeAgents.get(webSocketSessionId);
+        if (binding != null) {
+            binding.lastActiveNanos = System.nanoTime();
             logger.trace("Forward audio: wsSessionId={}, sessionId={}, bytes={}", webSocketSessionId, wsToSessionId.get(webSocketSessionId), audioPcmChunk == null ? 0 : audioPcmChunk.length);
-            agent.sendAudio(audioPcmChunk);
+            binding.agent.sendAudio(audioPcmChunk);
         } else {
             String sid = wsToSessionId.get(webSocketSessionId);
             logger.debug("Audio arrived for unknown session: wsSessionId={}, sessionId={}", webSocketSessionId, sid);
@@ -149,20 +178,157 @@ public class AudioStreamServiceImpl implements AudioStreamService {
 
     @Override
     public void flush(String webSocketSessionId) {
-        InterviewAgent agent = activeAgents.get(webSocketSessionId);
-        if (agent != null) {
-            try { agent.flush(); } catch (Exception e) { logger.warn("Flush error: wsSessionId={}, sessionId={}", webSocketSessionId, wsToSessionId.get(webSocketSessionId), e); }
+        AgentBinding binding = activeAgents.get(webSocketSessionId);
+        if (binding != null) {
+            try { binding.agent.flush(); } catch (Exception e) { logger.warn("Flush error: wsSessionId={}, sessionId={}", webSocketSessionId, wsToSessionId.get(webSocketSessionId), e); }
         }
     }
 
+    @Override
+    public void touch(String webSocketSessionId) {
+        AgentBinding binding = activeAgents.get(webSocketSessionId);
+        if (binding != null) binding.lastActiveNanos = System.nanoTime();
+    }
+
+    /**
+     * 回收在线但已失活的 Agent：超过 idleMillis 没有音频与心跳（多为半开连接，onClose 不会触发），
+     * 或自创建起超过 maxMillis（STT 单会话时长上限）。参数 &lt;=0 表示不按该条件回收。
+     * 关闭在调度线程池上异步执行；会话状态不变，客户端仍可重连。超时长时通知客户端 SESSION_MAX_DURATION，由 WebSocket 层断开。
+     * 返回 sessionId -&gt; 原因。
+     */
+    Map<String, String> reapAgents(long idleMillis, long maxMillis) {
+        Map<String, String> reaped = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (Map.Entry<String, AgentBinding> e : activeAgents.entrySet()) {
+            AgentBinding binding = e.getValue();
+            String reason;
+            if (maxMillis > 0 && now - binding.createdAtNanos > TimeUnit.MILLISECONDS.toNanos(maxMillis)) {
+                reason = "max_duration";
+            } else if (idleMillis > 0 && now - binding.lastActiveNanos > TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+                reason = "idle";
+            } else {
+                continue;
+            }
+            if (!activeAgents.remove(e.getKey(), binding)) continue;
+            wsToSessionId.remove(e.getKey(), binding.sessionId);
+            reaped.put(binding.sessionId, reason);
+            AgentMetrics.count("interview.session.reaped", "reason", reason);
+            logger.info("Reap agent: wsSessionId={}, sessionId={}, reason={}, ageMs={}, idleMs={}", e.getKey(), binding.sessionId, reason,
+                    TimeUnit.NANOSECONDS.toMillis(now - binding.createdAtNanos), TimeUnit.NANOSECONDS.toMillis(now - binding.lastActiveNanos));
+            AgentSchedulers.get().execute(() -> {
+                // 空闲多为半开连接，下行写可能阻塞，只在超时长（连接仍活跃）时通知客户端
+                if ("max_duration".equals(reason)) binding.relay.onError(new IllegalStateException("SESSION_MAX_DURATION"));
+                shutdown(binding);
+            });
+        }
+        return reaped;
+    }
+
+    /**
+     * 关闭指定会话的在线与宽限期内的 Agent（会话已在数据库中结束）。关闭同步完成，返回后 Agent 不会再写回会话状态；
+     * 在线连接异步收到 SESSION_ENDED 后由 WebSocket 层断开。返回关闭的绑定数。
+     */
+    int closeSessions(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) return 0;
+        Set<String> ids = new HashSet<>(sessionIds);
+        List<AgentBinding> closing = new ArrayList<>();
+        for (Map.Entry<String, AgentBinding> e : activeAgents.entrySet()) {
+            AgentBinding binding = e.getValue();
+            if (!ids.contains(binding.sessionId) || !activeAgents.remove(e.getKey(), binding)) continue;
+            wsToSessionId.remove(e.getKey(), binding.sessionId);
+            AgentSchedulers.get().execute(() -> binding.relay.onError(new IllegalStateException("SESSION_ENDED")));
+            closing.add(binding);
+        }
+        for (String sessionId : ids) {
+            AgentBinding binding = parkedAgents.remove(sessionId);
+            if (binding == null) continue;
+            if (binding.expiry != null) binding.expiry.cancel();
+            closing.add(binding);
+        }
+        for (AgentBinding binding : closing) {
+            logger.info("Close agent of ended session: sessionId={}", binding.sessionId);
+            shutdown(binding);
+        }
+        return closing.size();
+    }
+
+    @Override
+    public void detach(String webSocketSessionId) {
+        long graceMillis = resumeProperties.getGraceMillis();
+        if (graceMillis <= 0) {
+            flush(webSocketSessionId);
+            close(webSocketSessionId);
+            return;
+        }
+        AgentBinding binding = activeAgents.remove(webSocketSessionId);
+        String sessionId = wsToSessionId.remove(webSocketSessionId);
+        if (binding == null) {
+            return;
+        }
+        binding.relay.detach();
+        binding.parkedAtNanos = System.nanoTime();
+        AgentBinding previous = parkedAgents.put(binding.sessionId, binding);
+        if (previous != null && previous != binding) {
+            // 同一会话的旧连接仍在宽限期内（例如重复打开页面），保留最新的一个
+            if (previous.expiry != null) previous.expiry.cancel();
+            shutdown(previous);
+        }
+        binding.expiry = AgentSchedulers.timer().newTimeout(() -> expire(binding), graceMillis);
+        logger.info("Detached session, keep warm: wsSessionId={}, sessionId={}, graceMs={}", webSocketSessionId, sessionId, graceMillis);
+    }
+
     @Override
     public void close(String webSocketSessionId) {
-        InterviewAgent agent = activeAgents.remove(webSocketSessionId);
+        AgentBinding binding = activeAgents.remove(webSocketSessionId);
         String sessionId = wsToSessionId.remove(webSocketSessionId);
-        if (agent != null) {
-            try { agent.close(); } catch (Exception e) { logger.warn("Agent close error: wsSessionId={}, sessionId={}", webSocketSessionId, sessionId, e); }
+        if (binding != null) {
+            try { binding.agent.close(); } catch (Exception e) { logger.warn("Agent close error: wsSessionId={}, sessionId={}", webSocketSessionId, sessionId, e); }
         }
         logger.info("Closed session: wsSessionId={}, sessionId={}", webSocketSessionId, sessionId);
-        answerBuffers.remove(webSocketSessionId);
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdownParked() {
+        for (AgentBinding binding : parkedAgents.values()) {
+            if (parkedAgents.remove(binding.sessionId, binding)) {
+                if (binding.expiry != null) binding.expiry.cancel();
+                shutdown(binding);
+            }
+        }
+    }
+
+    private void expire(AgentBinding binding) {
+        // 仅当仍处于宽限期（未被重连取走）时才关闭
+        if (!parkedAgents.remove(binding.sessionId, binding)) return;
+        AgentMetrics.count("interview.session.rebind", "result", "miss");
+        logger.info("Grace period expired, close agent: sessionId={}", binding.sessionId);
+        shutdown(binding);
+    }
+
+    private void shutdown(AgentBinding binding) {
+        try { binding.agent.flush(); } catch (Exception e) { logger.warn("Flush error: sessionId={}", binding.sessionId, e); }
+        try { binding.agent.close(); } catch (Exception e) { logger.warn("Agent close error: sessionId={}", binding.sessionId, e); }
+    }
+
+    /**
+     * 一个会话的运行时绑定：Agent、下行中继与答案缓冲，可在宽限期内被同一 sessionId 的新连接接管。
+     */
+    private static final class AgentBinding {
+        final String sessionId;
+        final InterviewAgent agent;
+        final SessionRelay relay;
+        final AnswerAccumulator answerAcc = new AnswerAccumulator();
+        final long createdAtNanos = System.nanoTime();
+        // 最近一次音频或心跳，用于空闲回收
+        volatile long lastActiveNanos = createdAtNanos;
+        volatile long sttStartupMillis;
+        volatile long parkedAtNanos;
+        volatile HashedWheelTimer.Timeout expiry;
+
+        AgentBinding(String sessionId, InterviewAgent agent, SessionRelay relay) {
+            this.sessionId = sessionId;
+            this.agent = agent;
+            this.relay = relay;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(MessageArchiveProperties.class)
+public class MessageArchiveConfig {
+}
@@ -0,0 +1,38 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "message.archive")
+public class MessageArchiveProperties {
+    // 关闭后不归档也不维护分区（热表未分区时分区维护自动跳过）
+    private boolean enabled = false;
+    // 会话结束超过该天数后整体搬入归档表
+    private int retentionDays = 90;
+    // 每批归档的会话数（一批一个事务），以及单次运行最多批数
+    private int batchSessions = 50;
+    private int maxBatchesPerRun = 20;
+    // 批间停顿，摊平对主库的写压力
+    private long batchPauseMillis = 200;
+    // 预建的未来月份分区数
+    private int futurePartitions = 3;
+    // 调度间隔与启动后首次运行延迟（由 @Scheduled 直接读取）
+    private long intervalMillis = 3600000;
+    private long initialDelayMillis = 60000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+    public int getBatchSessions() { return batchSessions; }
+    public void setBatchSessions(int batchSessions) { this.batchSessions = batchSessions; }
+    public int getMaxBatchesPerRun() { return maxBatchesPerRun; }
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) { this.maxBatchesPerRun = maxBatchesPerRun; }
+    public long getBatchPauseMillis() { return batchPauseMillis; }
+    public void setBatchPauseMillis(long batchPauseMillis) { this.batchPauseMillis = batchPauseMillis; }
+    public int getFuturePartitions() { return futurePartitions; }
+    public void setFuturePartitions(int futurePartitions) { this.futurePartitions = futurePartitions; }
+    public long getIntervalMillis() { return intervalMillis; }
+    public void setIntervalMillis(long intervalMillis) { this.intervalMillis = intervalMillis; }
+    public long getInitialDelayMillis() { return initialDelayMillis; }
+    public void setInitialDelayMillis(long initialDelayMillis) { this.initialDelayMillis = initialDelayMillis; }
+}
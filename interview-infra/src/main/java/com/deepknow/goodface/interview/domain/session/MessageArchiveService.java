@@ -0,0 +1,126 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.repo.mapper.InterviewMessageArchiveMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * interview_message 冷热分离：
+ * <ul>
+ *   <li>归档：已结束且超过保留期的会话按批整体搬入 interview_message_archive（复制 + 删除同一事务），每批会话数与单次批数有上限；</li>
+ *   <li>分区维护：从 MAXVALUE 分区预拆出未来月份分区；上界早于保留期且已清空的月份分区直接删除。</li>
+ * </ul>
+ * 多副本同时运行时复制为 INSERT IGNORE、删除按会话，结果一致；分区 DDL 冲突只记日志，下次运行重试。
+ */
+@Service
+public class MessageArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchiveService.class);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final InterviewMessageArchiveMapper archiveMapper;
+    private final TransactionTemplate tx;
+    private final MessageArchiveProperties props;
+
+    public MessageArchiveService(InterviewMessageArchiveMapper archiveMapper, TransactionTemplate tx,
+                                 MessageArchiveProperties props) {
+        this.archiveMapper = archiveMapper;
+        this.tx = tx;
+        this.props = props;
+    }
+
+    @Scheduled(initialDelayString = "${message.archive.initialDelayMillis:60000}",
+            fixedDelayString = "${message.archive.intervalMillis:3600000}")
+    public void run() {
+        if (!props.isEnabled()) return;
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(Math.max(1, props.getRetentionDays()));
+        try {
+            archive(cutoff);
+        } catch (Exception e) {
+            logger.warn("message archive failed", e);
+            AgentMetrics.count("interview.archive.failed", "stage", "archive");
+        }
+        try {
+            maintainPartitions(cutoff.toLocalDate());
+        } catch (Exception e) {
+            logger.warn("message partition maintenance failed", e);
+            AgentMetrics.count("interview.archive.failed", "stage", "partition");
+        }
+        AgentMetrics.recordMillis("interview.archive.run", System.currentTimeMillis() - start);
+    }
+
+    int archive(LocalDateTime cutoff) throws InterruptedException {
+        int sessions = 0;
+        long rows = 0;
+        for (int batch = 0; batch < props.getMaxBatchesPerRun(); batch++) {
+            List<String> ids = archiveMapper.listArchivableSessionIds(cutoff, Math.max(1, props.getBatchSessions()));
+            if (ids.isEmpty()) break;
+            Integer moved = tx.execute(status -> {
+                archiveMapper.copyToArchive(ids);
+                return archiveMapper.deleteHot(ids);
+            });
+            sessions += ids.size();
+            rows += moved == null ? 0 : moved;
+            AgentMetrics.count("interview.archive.sessions", ids.size());
+            AgentMetrics.count("interview.archive.rows", moved == null ? 0 : moved);
+            if (ids.size() < props.getBatchSessions()) break;
+            if (props.getBatchPauseMillis() > 0) Thread.sleep(props.getBatchPauseMillis());
+        }
+        if (sessions > 0) logger.info("message archive done: sessions={}, rows={}, endedBefore={}", sessions, rows, cutoff);
+        return sessions;
+    }
+
+    void maintainPartitions(LocalDate cutoff) {
+        List<Map<String, String>> partitions = archiveMapper.listPartitions();
+        if (partitions.isEmpty()) return;
+        String maxName = null;
+        LocalDate lastBound = null;
+        for (Map<String, String> p : partitions) {
+            LocalDate bound = parseBound(p.get("bound"));
+            if (bound == null) {
+                maxName = p.get("name");
+                continue;
+            }
+            lastBound = lastBound == null || bound.isAfter(lastBound) ? bound : lastBound;
+            // 整个分区早于保留期所在月份且已无数据（会话均已归档）
+            if (!bound.isAfter(cutoff.withDayOfMonth(1)) && archiveMapper.partitionHasRows(p.get("name")) == 0) {
+                archiveMapper.dropPartition(p.get("name"));
+                AgentMetrics.count("interview.archive.partitions", "action", "dropped");
+                logger.info("message partition dropped: {}", p.get("name"));
+            }
+        }
+        if (maxName == null || lastBound == null) return;
+        LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(props.getFuturePartitions() + 1L);
+        List<Map<String, String>> adds = new ArrayList<>();
+        for (LocalDate m = lastBound; m.isBefore(target); m = m.plusMonths(1)) {
+            Map<String, String> p = new HashMap<>();
+            p.put("name", m.format(PARTITION_NAME));
+            p.put("bound", m.plusMonths(1).toString());
+            adds.add(p);
+        }
+        if (adds.isEmpty()) return;
+        archiveMapper.splitMaxPartition(maxName, adds);
+        AgentMetrics.count("interview.archive.partitions", adds.size(), "action", "added");
+        logger.info("message partitions added: {}", adds.size());
+    }
+
+    // RANGE COLUMNS 的描述形如 '2026-11-01 00:00:00'；MAXVALUE 返回 null
+    static LocalDate parseBound(String bound) {
+        if (bound == null) return null;
+        String s = bound.replace("'", "").trim();
+        if (s.isEmpty() || "MAXVALUE".equalsIgnoreCase(s)) return null;
+        return LocalDate.parse(s.substring(0, 10));
+    }
+}
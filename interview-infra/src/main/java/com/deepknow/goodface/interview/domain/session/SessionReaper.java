@@ -0,0 +1,82 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import com.deepknow.goodface.interview.domain.agent.STT.SttConfigProperties;
+import com.deepknow.goodface.interview.repo.mapper.InterviewSessionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话回收：
+ * <ul>
+ *   <li>在线 Agent：空闲（无音频与心跳，多为半开连接）或超过 {@code stt.maxSessionMinutes} 的关闭并释放 STT 连接与缓冲；</li>
+ *   <li>数据库：开始超过 {@code session.reaper.staleActiveMinutes} 仍为 ACTIVE（从未调用 endSession）的会话按批置为 ENDED，
+ *       并关闭其仍在线或处于宽限期的 Agent，之后可被转写归档。</li>
+ * </ul>
+ */
+@Service
+public class SessionReaper {
+    private static final Logger logger = LoggerFactory.getLogger(SessionReaper.class);
+
+    private final AudioStreamServiceImpl audioStreamService;
+    private final InterviewSessionMapper sessionMapper;
+    private final AgentStateStore agentStateStore;
+    private final SessionReaperProperties props;
+    private final SttConfigProperties sttProps;
+
+    public SessionReaper(AudioStreamServiceImpl audioStreamService, InterviewSessionMapper sessionMapper,
+                         AgentStateStore agentStateStore, SessionReaperProperties props, SttConfigProperties sttProps) {
+        this.audioStreamService = audioStreamService;
+        this.sessionMapper = sessionMapper;
+        this.agentStateStore = agentStateStore;
+        this.props = props;
+        this.sttProps = sttProps;
+    }
+
+    @Scheduled(initialDelayString = "${session.reaper.intervalMillis:15000}",
+            fixedDelayString = "${session.reaper.intervalMillis:15000}")
+    public void run() {
+        if (!props.isEnabled()) return;
+        try {
+            long maxMillis = sttProps.getMaxSessionMinutes() * 60_000L;
+            Map<String, String> reaped = audioStreamService.reapAgents(props.getIdleMillis(), maxMillis);
+            if (!reaped.isEmpty()) logger.info("Reaped agents: count={}, sessions={}", reaped.size(), reaped);
+        } catch (Exception e) {
+            logger.warn("Reap agents failed", e);
+        }
+        try {
+            endStaleSessions();
+        } catch (Exception e) {
+            logger.warn("End stale sessions failed", e);
+        }
+    }
+
+    int endStaleSessions() {
+        if (props.getStaleActiveMinutes() <= 0) return 0;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startedBefore = now.minusMinutes(props.getStaleActiveMinutes());
+        int batchSize = Math.max(1, props.getBatchSessions());
+        int total = 0;
+        for (int batch = 0; batch < props.getMaxBatchesPerRun(); batch++) {
+            List<String> ids = sessionMapper.listStaleActive(startedBefore, batchSize);
+            if (ids.isEmpty()) break;
+            int ended = sessionMapper.endActive(ids, now);
+            total += ended;
+            // 先关闭仍在线或处于宽限期的 Agent（关闭时会写回状态），再删除状态
+            int closed = audioStreamService.closeSessions(ids);
+            if (closed > 0) AgentMetrics.count("interview.session.stale_closed", closed);
+            ids.forEach(agentStateStore::delete);
+            AgentMetrics.count("interview.session.stale_ended", ended);
+            logger.info("Ended stale sessions: count={}, startedBefore={}, sessions={}", ended, startedBefore, ids);
+            if (ids.size() < batchSize) break;
+        }
+        return total;
+    }
+}
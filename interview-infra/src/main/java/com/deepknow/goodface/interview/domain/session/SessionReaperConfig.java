@@ -0,0 +1,9 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SessionReaperProperties.class)
+public class SessionReaperConfig {
+}
@@ -0,0 +1,29 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "session.reaper")
+public class SessionReaperProperties {
+    private boolean enabled = true;
+    // 超过该时长没有音频与心跳的在线 Agent 视为半开连接并回收；<=0 不按空闲回收
+    private long idleMillis = 120000;
+    // 开始超过该分钟数仍为 ACTIVE 的会话批量置为 ENDED（应大于 stt.maxSessionMinutes）；<=0 不处理
+    private int staleActiveMinutes = 180;
+    // 每批置为 ENDED 的会话数，以及单次运行最多批数
+    private int batchSessions = 200;
+    private int maxBatchesPerRun = 10;
+    private long intervalMillis = 15000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getIdleMillis() { return idleMillis; }
+    public void setIdleMillis(long idleMillis) { this.idleMillis = idleMillis; }
+    public int getStaleActiveMinutes() { return staleActiveMinutes; }
+    public void setStaleActiveMinutes(int staleActiveMinutes) { this.staleActiveMinutes = staleActiveMinutes; }
+    public int getBatchSessions() { return batchSessions; }
+    public void setBatchSessions(int batchSessions) { this.batchSessions = batchSessions; }
+    public int getMaxBatchesPerRun() { return maxBatchesPerRun; }
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) { this.maxBatchesPerRun = maxBatchesPerRun; }
+    public long getIntervalMillis() { return intervalMillis; }
+    public void setIntervalMillis(long intervalMillis) { this.intervalMillis = intervalMillis; }
+}
@@ -0,0 +1,163 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * 会话下行事件中继：Agent 回调只面向中继，WebSocket 断开后事件进入有界缓冲，
+ * 同一 sessionId 重连时切换到新连接的处理器并按序回放。
+ * <p>
+ * STT partial/final 为瞬时事件，断线期间直接丢弃；问题、答案与错误会被缓冲，连续答案增量合并为一条。
+ */
+class SessionRelay {
+
+    /**
+     * 单个 WebSocket 连接的下行处理器集合。
+     */
+    static final class Handlers {
+        final Consumer<String> sttPartial;
+        final Consumer<String> sttFinal;
+        final Consumer<String> question;
+        final Consumer<String> answerDelta;
+        final Runnable answerComplete;
+        final Consumer<Throwable> error;
+        final Runnable sttReady;
+
+        Handlers(Consumer<String> sttPartial, Consumer<String> sttFinal, Consumer<String> question,
+                 Consumer<String> answerDelta, Runnable answerComplete, Consumer<Throwable> error, Runnable sttReady) {
+            this.sttPartial = sttPartial;
+            this.sttFinal = sttFinal;
+            this.question = question;
+            this.answerDelta = answerDelta;
+            this.answerComplete = answerComplete;
+            this.error = error;
+            this.sttReady = sttReady;
+        }
+    }
+
+    private enum Kind { QUESTION, ANSWER_DELTA, ANSWER_COMPLETE, ERROR }
+
+    private static final class Event {
+        final Kind kind;
+        final StringBuilder text;
+        final Throwable error;
+
+        Event(Kind kind, String text, Throwable error) {
+            this.kind = kind;
+            this.text = text == null ? null : new StringBuilder(text);
+            this.error = error;
+        }
+    }
+
+    private final int maxBuffered;
+    private final ArrayDeque<Event> buffered = new ArrayDeque<>();
+    private Handlers attached;
+    private boolean sttReadyFired;
+    private long dropped;
+
+    SessionRelay(Handlers initial, int maxBuffered) {
+        this.attached = initial;
+        this.maxBuffered = Math.max(1, maxBuffered);
+    }
+
+    synchronized void onSttPartial(String text) {
+        if (attached != null && attached.sttPartial != null) attached.sttPartial.accept(text);
+    }
+
+    synchronized void onSttFinal(String text) {
+        if (attached != null && attached.sttFinal != null) attached.sttFinal.accept(text);
+    }
+
+    synchronized void onQuestion(String q) {
+        if (attached != null) {
+            if (attached.question != null) attached.question.accept(q);
+        } else {
+            buffer(new Event(Kind.QUESTION, q, null));
+        }
+    }
+
+    synchronized void onAnswerDelta(String delta) {
+        if (attached != null) {
+            if (attached.answerDelta != null) attached.answerDelta.accept(delta);
+            return;
+        }
+        Event last = buffered.peekLast();
+        if (last != null && last.kind == Kind.ANSWER_DELTA) {
+            last.text.append(delta == null ? "" : delta);
+        } else {
+            buffer(new Event(Kind.ANSWER_DELTA, delta == null ? "" : delta, null));
+        }
+    }
+
+    synchronized void onAnswerComplete() {
+        if (attached != null) {
+            if (attached.answerComplete != null) attached.answerComplete.run();
+        } else {
+            buffer(new Event(Kind.ANSWER_COMPLETE, null, null));
+        }
+    }
+
+    synchronized void onError(Throwable ex) {
+        if (attached != null) {
+            if (attached.error != null) attached.error.accept(ex);
+        } else {
+            buffer(new Event(Kind.ERROR, null, ex));
+        }
+    }
+
+    synchronized void onSttReady() {
+        sttReadyFired = true;
+        if (attached != null && attached.sttReady != null) attached.sttReady.run();
+    }
+
+    /**
+     * 断开当前连接，此后的下行事件进入缓冲。
+     */
+    synchronized void detach() {
+        attached = null;
+    }
+
+    /**
+     * 绑定新连接：若 STT 已就绪则立即通知，随后按序回放缓冲事件。
+     *
+     * @return 回放的事件数
+     */
+    synchronized int attach(Handlers handlers) {
+        this.attached = handlers;
+        if (sttReadyFired && handlers.sttReady != null) handlers.sttReady.run();
+        int replayed = 0;
+        Event e;
+        while ((e = buffered.pollFirst()) != null) {
+            replayed++;
+            switch (e.kind) {
+                case QUESTION:
+                    if (handlers.question != null) handlers.question.accept(e.text.toString());
+                    break;
+                case ANSWER_DELTA:
+                    if (handlers.answerDelta != null) handlers.answerDelta.accept(e.text.toString());
+                    break;
+                case ANSWER_COMPLETE:
+                    if (handlers.answerComplete != null) handlers.answerComplete.run();
+                    break;
+                case ERROR:
+                    if (handlers.error != null) handlers.error.accept(e.error);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return replayed;
+    }
+
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    private void buffer(Event e) {
+        if (buffered.size() >= maxBuffered) {
+            buffered.pollFirst();
+            dropped++;
+        }
+        buffered.addLast(e);
+    }
+}
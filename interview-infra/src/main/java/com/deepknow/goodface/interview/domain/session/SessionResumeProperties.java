@@ -0,0 +1,16 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "session.resume")
+public class SessionResumeProperties {
+    // 断线后保留 Agent（含 STT 长连接）的宽限期；<=0 表示断线即关闭
+    private long graceMillis = 15000;
+    // 断线期间缓存的下行事件上限（连续的答案增量会合并为一条）
+    private int maxBufferedEvents = 256;
+
+    public long getGraceMillis() { return graceMillis; }
+    public void setGraceMillis(long graceMillis) { this.graceMillis = graceMillis; }
+    public int getMaxBufferedEvents() { return maxBufferedEvents; }
+    public void setMaxBufferedEvents(int maxBufferedEvents) { this.maxBufferedEvents = maxBufferedEvents; }
+}
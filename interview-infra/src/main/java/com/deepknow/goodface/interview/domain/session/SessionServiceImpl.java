@@ -1,5 +1,6 @@
 package com.deepknow.goodface.interview.domain.session;
 
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
 import com.deepknow.goodface.interview.domain.session.model.InterviewSession;
 import com.deepknow.goodface.interview.domain.session.service.SessionService;
 import com.deepknow.goodface.interview.repo.mapper.InterviewSessionMapper;
@@ -8,16 +9,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Map;
 
 @Service
 public class SessionServiceImpl implements SessionService {
     private final InterviewSessionMapper sessionMapper;
     private final ObjectMapper objectMapper;
+    private final AgentStateStore agentStateStore;
+    private final AudioStreamServiceImpl audioStreamService;
 
-    public SessionServiceImpl(InterviewSessionMapper sessionMapper, ObjectMapper objectMapper) {
+    public SessionServiceImpl(InterviewSessionMapper sessionMapper, ObjectMapper objectMapper,
+                              AgentStateStore agentStateStore, AudioStreamServiceImpl audioStreamService) {
         this.sessionMapper = sessionMapper;
         this.objectMapper = objectMapper;
+        this.agentStateStore = agentStateStore;
+        this.audioStreamService = audioStreamService;
     }
 
 
@@ -38,5 +45,8 @@ public class SessionServiceImpl implements SessionService {
 
     public void endSession(String sessionId) {
         sessionMapper.updateStatus(sessionId, "ENDED", LocalDateTime.now());
+        // 会话结束后不再需要恢复上下文；先关闭仍在线或处于宽限期的 Agent（关闭时会写回状态），再删除状态
+        audioStreamService.closeSessions(Collections.singletonList(sessionId));
+        agentStateStore.delete(sessionId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.deepknow.goodface.interview.domain.session;
+
+import com.deepknow.goodface.interview.domain.agent.AgentMetrics;
+import com.deepknow.goodface.interview.domain.session.model.InterviewMessage;
+import com.deepknow.goodface.interview.domain.session.service.TranscriptService;
+import com.deepknow.goodface.interview.repo.mapper.InterviewMessageMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class TranscriptServiceImpl implements TranscriptService {
+    private final InterviewMessageMapper messageMapper;
+
+    public TranscriptServiceImpl(InterviewMessageMapper messageMapper) {
+        this.messageMapper = messageMapper;
+    }
+
+    @Override
+    public List<InterviewMessage> listPage(String sessionId, Long afterId, int limit) {
+        List<InterviewMessage> page = messageMapper.listBySessionAfter(sessionId, afterId == null ? 0L : afterId, limit);
+        AgentMetrics.count("interview.transcript.pages");
+        AgentMetrics.count("interview.transcript.rows", page.size(), "mode", "page");
+        return page;
+    }
+}
@@ -1,11 +1,14 @@
 package com.deepknow.goodface.interview.domain.session.util;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 会话上下文构建器：维护最近问题/陈述与用户提示词，生成上下文字符串。
+ * 公共方法均加锁：后台记忆维护与片段处理会并发读写，构建出的字符串即当时的一致快照。
  */
 public class ConversationContextBuilder {
     private final String userPrompt;
@@ -31,7 +34,7 @@ public class ConversationContextBuilder {
         this.recentUtterances = new ArrayDeque<>(this.maxUtterances);
     }
 
-    public void addRecentQuestion(String q) {
+    public synchronized void addRecentQuestion(String q) {
         if (q == null || q.isEmpty()) return;
         String last = recentQuestions.peekLast();
         if (last != null && last.equals(q)) return;
@@ -44,7 +47,7 @@ public class ConversationContextBuilder {
         questionAdds++;
     }
 
-    public void addRecentUtterance(String u) {
+    public synchronized void addRecentUtterance(String u) {
         if (u == null || u.isEmpty()) return;
         if (recentUtterances.size() >= maxUtterances) {
             recentUtterances.pollFirst();
@@ -54,7 +57,7 @@ public class ConversationContextBuilder {
     }
 
     // 合并补充文本（ELABORATION）到当前问题上下文
-    public void addElaborationText(String text) {
+    public synchronized void addElaborationText(String text) {
         if (text == null || text.isEmpty()) return;
         if (currentElaboration.length() > 0) currentElaboration.append(" | ");
         // 简单去除换行
@@ -66,7 +69,7 @@ public class ConversationContextBuilder {
     }
 
     // 合并关键事实（有限大小，后写覆盖）
-    public void mergeFacts(Map<String, String> newFacts) {
+    public synchronized void mergeFacts(Map<String, String> newFacts) {
         if (newFacts == null || newFacts.isEmpty()) return;
         for (Map.Entry<String, String> e : newFacts.entrySet()) {
             String k = e.getKey();
@@ -82,7 +85,25 @@ public class ConversationContextBuilder {
         }
     }
 
-    public String getRollingSummary() {
+    /**
+     * 问题代数：每进入一个新问题加一，用于判断后台记忆更新结果是否已过期。
+     */
+    public synchronized int getQuestionGeneration() {
+        return questionAdds;
+    }
+
+    /**
+     * 原子地应用一次记忆更新：关键事实总是合并；摘要仅在问题未切换（代数一致）时并入当前问题补充。
+     * 返回摘要是否被应用。
+     */
+    public synchronized boolean applyMemoryUpdate(int expectedGeneration, String summary, Map<String, String> newFacts) {
+        mergeFacts(newFacts);
+        if (expectedGeneration != questionAdds) return false;
+        addElaborationText(summary);
+        return true;
+    }
+
+    public synchronized String getRollingSummary() {
         StringBuilder sb = new StringBuilder(256);
         if (currentElaboration.length() > 0) {
             sb.append("当前问题补充：").append(currentElaboration);
@@ -100,7 +121,7 @@ public class ConversationContextBuilder {
         return sb.toString();
     }
 
-    public String buildContextString() {
+    public synchronized String buildContextString() {
         if (recentQuestions.isEmpty() && recentUtterances.isEmpty() && (userPrompt == null || userPrompt.isEmpty())
                 && currentElaboration.length() == 0 && facts.isEmpty()) {
             return "";
@@ -142,7 +163,182 @@ public class ConversationContextBuilder {
         return sb.toString();
     }
 
-    public Metrics getMetricsSnapshot() {
+    /**
+     * 按 token 预算构建上下文：预算按优先级分配（最近问题 > 当前问题补充 > 最近陈述 > 关键事实 > 用户提示词），
+     * 列表类内容从最新一条开始保留；用户提示词超出剩余预算时，按与 focus 的字重合度抽取相关句子。
+     * includeProfile 为 false 时不携带用户提示词；tokenBudget ≤ 0 表示不限制。
+     */
+    public synchronized String buildContextString(int tokenBudget, boolean includeProfile, String focus) {
+        if (tokenBudget <= 0 && includeProfile) return buildContextString();
+        int remaining = tokenBudget <= 0 ? Integer.MAX_VALUE : tokenBudget;
+
+        List<String> questions = new ArrayList<>();
+        remaining = takeNewest(recentQuestions.descendingIterator(), questions, remaining, SECTION_OVERHEAD);
+        String elaboration = "";
+        if (currentElaboration.length() > 0 && remaining > SECTION_OVERHEAD) {
+            elaboration = TokenEstimator.truncateTail(currentElaboration.toString(), remaining - SECTION_OVERHEAD);
+            if (!elaboration.isEmpty()) remaining -= SECTION_OVERHEAD + TokenEstimator.estimate(elaboration);
+        }
+        List<String> utterances = new ArrayList<>();
+        remaining = takeNewest(recentUtterances.descendingIterator(), utterances, remaining, SECTION_OVERHEAD);
+        List<String> factItems = new ArrayList<>();
+        if (!facts.isEmpty()) {
+            List<String> all = new ArrayList<>(facts.size());
+            for (Map.Entry<String, String> e : facts.entrySet()) all.add(e.getKey() + "=" + e.getValue());
+            java.util.Collections.reverse(all);
+            remaining = takeNewest(all.iterator(), factItems, remaining, SECTION_OVERHEAD);
+        }
+        String profile = "";
+        if (includeProfile && userPrompt != null && !userPrompt.isEmpty() && remaining > SECTION_OVERHEAD) {
+            profile = compactProfile(userPrompt, focus, remaining - SECTION_OVERHEAD);
+        }
+
+        StringBuilder sb = new StringBuilder(256);
+        if (!profile.isEmpty()) sb.append("用户提示词：").append(profile).append("\n");
+        appendSection(sb, "最近问题：", questions);
+        if (!elaboration.isEmpty()) sb.append("\n当前问题补充：").append(elaboration);
+        appendSection(sb, "\n最近陈述：", utterances);
+        appendSection(sb, "\n关键事实：", factItems);
+        String out = sb.toString();
+        return out.startsWith("\n") ? out.substring(1) : out;
+    }
+
+    // 每个分段的标签与分隔符开销（估算）
+    private static final int SECTION_OVERHEAD = 6;
+
+    // 从最新一条开始取，直到预算用尽；结果按时间正序
+    private static int takeNewest(java.util.Iterator<String> newestFirst, List<String> out, int remaining, int overhead) {
+        boolean opened = false;
+        while (newestFirst.hasNext()) {
+            String item = newestFirst.next();
+            int cost = TokenEstimator.estimate(item) + (opened ? 1 : overhead);
+            if (cost > remaining) break;
+            out.add(0, item);
+            remaining -= cost;
+            opened = true;
+        }
+        return remaining;
+    }
+
+    private static void appendSection(StringBuilder sb, String label, List<String> items) {
+        if (items.isEmpty()) return;
+        sb.append(label);
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(" | ");
+            sb.append(items.get(i));
+        }
+    }
+
+    /**
+     * 提示词压缩：放得下则原样返回；否则按句切分，优先保留与 focus 字二元组重合多的句子（首句始终优先），按原顺序拼接。
+     */
+    static String compactProfile(String profile, String focus, int budget) {
+        if (budget <= 0) return "";
+        if (TokenEstimator.estimate(profile) <= budget) return profile;
+        List<String> sentences = splitSentences(profile);
+        java.util.Set<String> focusGrams = bigrams(focus);
+        int n = sentences.size();
+        Integer[] order = new Integer[n];
+        int[] scores = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            scores[i] = i == 0 ? Integer.MAX_VALUE : overlap(sentences.get(i), focusGrams);
+        }
+        java.util.Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : Integer.compare(a, b));
+        boolean[] keep = new boolean[n];
+        int remaining = budget;
+        for (Integer i : order) {
+            int cost = TokenEstimator.estimate(sentences.get(i)) + 1;
+            if (cost <= remaining) {
+                keep[i] = true;
+                remaining -= cost;
+            }
+        }
+        StringBuilder sb = new StringBuilder(budget * 2);
+        boolean gap = false;
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) { gap = true; continue; }
+            if (sb.length() > 0 && gap) sb.append("…");
+            sb.append(sentences.get(i));
+            gap = false;
+        }
+        if (sb.length() == 0) return TokenEstimator.truncateHead(profile, budget);
+        return sb.toString();
+    }
+
+    private static List<String> splitSentences(String s) {
+        List<String> out = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '。' || c == '；' || c == ';' || c == '！' || c == '？') {
+                String part = s.substring(start, c == '\n' ? i : i + 1).trim();
+                if (!part.isEmpty()) out.add(part);
+                start = i + 1;
+            }
+        }
+        if (start < s.length()) {
+            String part = s.substring(start).trim();
+            if (!part.isEmpty()) out.add(part);
+        }
+        return out;
+    }
+
+    private static java.util.Set<String> bigrams(String s) {
+        java.util.Set<String> grams = new java.util.HashSet<>();
+        if (s == null) return grams;
+        String t = s.toLowerCase();
+        for (int i = 0; i + 2 <= t.length(); i++) {
+            if (Character.isLetterOrDigit(t.charAt(i)) && Character.isLetterOrDigit(t.charAt(i + 1))) {
+                grams.add(t.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static int overlap(String sentence, java.util.Set<String> focusGrams) {
+        if (focusGrams.isEmpty()) return 0;
+        int hits = 0;
+        for (String g : bigrams(sentence)) {
+            if (focusGrams.contains(g)) hits++;
+        }
+        return hits;
+    }
+
+    // ====== 状态导出与恢复（跨实例会话恢复） ======
+
+    public synchronized List<String> getRecentQuestions() { return new ArrayList<>(recentQuestions); }
+    public synchronized List<String> getRecentUtterances() { return new ArrayList<>(recentUtterances); }
+    public synchronized String getElaborationText() { return currentElaboration.toString(); }
+    public synchronized Map<String, String> getFacts() { return new LinkedHashMap<>(facts); }
+
+    /**
+     * 用快照内容覆盖当前状态（保留窗口大小限制）。
+     */
+    public synchronized void restore(List<String> questions, List<String> utterances, String elaboration, Map<String, String> restoredFacts) {
+        recentQuestions.clear();
+        recentUtterances.clear();
+        currentElaboration.setLength(0);
+        facts.clear();
+        if (questions != null) {
+            for (String q : questions) {
+                if (q == null || q.isEmpty()) continue;
+                if (recentQuestions.size() >= contextWindowSize) recentQuestions.pollFirst();
+                recentQuestions.offerLast(q);
+            }
+        }
+        if (utterances != null) {
+            for (String u : utterances) {
+                if (u == null || u.isEmpty()) continue;
+                if (recentUtterances.size() >= maxUtterances) recentUtterances.pollFirst();
+                recentUtterances.offerLast(u);
+            }
+        }
+        if (elaboration != null && !elaboration.isEmpty()) addElaborationText(elaboration);
+        mergeFacts(restoredFacts);
+    }
+
+    public synchronized Metrics getMetricsSnapshot() {
         return new Metrics(questionAdds, utteranceAdds, recentQuestions.size(), recentUtterances.size(), contextWindowSize, maxUtterances);
     }
 
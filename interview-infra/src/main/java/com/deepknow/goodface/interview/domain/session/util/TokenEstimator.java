@@ -0,0 +1,81 @@
+package com.deepknow.goodface.interview.domain.session.util;
+
+/**
+ * 中英混合文本的 token 估算（按 Qwen 分词器的经验比例，偏保守）：
+ * <ul>
+ *   <li>中日韩字符：每字 1 token；</li>
+ *   <li>连续英文字母：每 4 个字符 1 token（不足按 1 计）；连续数字：每 3 位 1 token；</li>
+ *   <li>标点与其他符号：每个 1 token；空白不计。</li>
+ * </ul>
+ * 只用于预算裁剪，实际计费以接口返回的 usage 为准。
+ */
+public final class TokenEstimator {
+    private TokenEstimator() {}
+
+    public static int estimate(CharSequence s) {
+        if (s == null) return 0;
+        return estimate(s, 0, s.length());
+    }
+
+    public static int estimate(CharSequence s, int from, int to) {
+        int tokens = 0;
+        int letters = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (isAsciiLetter(c)) {
+                if (digits > 0) { tokens += (digits + 2) / 3; digits = 0; }
+                letters++;
+                continue;
+            }
+            if (c >= '0' && c <= '9') {
+                if (letters > 0) { tokens += (letters + 3) / 4; letters = 0; }
+                digits++;
+                continue;
+            }
+            if (letters > 0) { tokens += (letters + 3) / 4; letters = 0; }
+            if (digits > 0) { tokens += (digits + 2) / 3; digits = 0; }
+            if (!Character.isWhitespace(c)) tokens++;
+        }
+        if (letters > 0) tokens += (letters + 3) / 4;
+        if (digits > 0) tokens += (digits + 2) / 3;
+        return tokens;
+    }
+
+    /**
+     * 保留开头不超过 maxTokens 的部分。
+     */
+    public static String truncateHead(String s, int maxTokens) {
+        if (s == null || maxTokens <= 0) return "";
+        int end = cut(s, maxTokens);
+        return end >= s.length() ? s : s.substring(0, end);
+    }
+
+    /**
+     * 保留结尾不超过 maxTokens 的部分（用于按时间追加的文本，越新越重要）。
+     */
+    public static String truncateTail(String s, int maxTokens) {
+        if (s == null || maxTokens <= 0) return "";
+        if (estimate(s) <= maxTokens) return s;
+        int lo = 0, hi = s.length();
+        // 二分找最靠前的起点，使尾部估算不超过预算
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (estimate(s, mid, s.length()) <= maxTokens) hi = mid; else lo = mid + 1;
+        }
+        return s.substring(lo);
+    }
+
+    private static int cut(String s, int maxTokens) {
+        int lo = 0, hi = s.length();
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (estimate(s, 0, mid) <= maxTokens) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,27 @@
+package com.deepknow.goodface.interview.repo.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * interview_message 归档与分区维护（MySQL 专用）。
+ */
+@Mapper
+public interface InterviewMessageArchiveMapper {
+    /** 已结束且 end_time 早于 endedBefore、热表仍有消息的会话，按结束时间升序取 limit 个 */
+    List<String> listArchivableSessionIds(@Param("endedBefore") LocalDateTime endedBefore, @Param("limit") int limit);
+    /** 把会话消息复制到归档表（INSERT IGNORE，重试幂等） */
+    int copyToArchive(@Param("sessionIds") List<String> sessionIds);
+    int deleteHot(@Param("sessionIds") List<String> sessionIds);
+
+    /** 热表分区：name 为分区名，bound 为上界（RANGE COLUMNS 描述，如 '2026-11-01 00:00:00' 或 MAXVALUE）；未分区时为空 */
+    List<Map<String, String>> listPartitions();
+    /** 把 MAXVALUE 分区拆成 partitions（每项含 name、bound）加原 MAXVALUE 分区 */
+    int splitMaxPartition(@Param("maxName") String maxName, @Param("partitions") List<Map<String, String>> partitions);
+    int partitionHasRows(@Param("name") String name);
+    int dropPartition(@Param("name") String name);
+}
@@ -5,8 +5,15 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import java.util.List;
 
+/**
+ * 会话消息读写；查询同时覆盖热表与归档表（interview_message_archive），调用方无需区分会话是否已归档。
+ */
 @Mapper
 public interface InterviewMessageMapper {
     int insert(InterviewMessage message);
     List<InterviewMessage> listBySession(@Param("sessionId") String sessionId);
+    /** 游标分页：按 ID 升序取 afterId（不含）之后 limit 条，走 (session_id, id) 索引 */
+    List<InterviewMessage> listBySessionAfter(@Param("sessionId") String sessionId, @Param("afterId") long afterId, @Param("limit") int limit);
+    /** 有消息的会话 ID，按 ID 升序从 afterSessionId（不含，null 表示从头）之后取 limit 个 */
+    List<String> listSessionIds(@Param("afterSessionId") String afterSessionId, @Param("limit") int limit);
 }
\ No newline at end of file
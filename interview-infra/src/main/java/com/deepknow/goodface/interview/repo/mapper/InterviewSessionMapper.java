@@ -4,9 +4,15 @@ import com.deepknow.goodface.interview.domain.session.model.InterviewSession;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 @Mapper
 public interface InterviewSessionMapper {
     int insert(InterviewSession session);
     InterviewSession findById(@Param("id") String id);
     int updateStatus(@Param("id") String id, @Param("status") String status, @Param("endTime") java.time.LocalDateTime endTime);
+    /** start_time 早于 startedBefore 仍为 ACTIVE 的会话，按开始时间升序取 limit 个 */
+    List<String> listStaleActive(@Param("startedBefore") java.time.LocalDateTime startedBefore, @Param("limit") int limit);
+    /** 批量置为 ENDED（仅限仍为 ACTIVE 的行），返回实际更新数 */
+    int endActive(@Param("ids") List<String> ids, @Param("endTime") java.time.LocalDateTime endTime);
 }
\ No newline at end of file
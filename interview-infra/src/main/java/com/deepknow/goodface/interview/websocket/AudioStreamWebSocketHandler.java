@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.net.URI;
 import java.util.Map;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @Component
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class AudioStreamWebSocketHandler {
     private static final Logger log = LoggerFactory.getLogger(AudioStreamWebSocketHandler.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> TERMINAL_ERRORS = Set.of("SESSION_MAX_DURATION", "SESSION_ENDED");
     
     // 替换原来的 @Autowired 字段为静态字段，配合 Injector 进行注入
     private static AudioStreamService audioStreamService;
@@ -77,6 +79,11 @@ public class AudioStreamWebSocketHandler {
                     log.warn("Agent error: {}", ex.getMessage(), ex);
                     try { sendJson(session, Map.of("type", "error", "code", "AGENT_ERROR", "message", ex.getMessage())); }
                     catch (IOException ignored) {}
+                    // 服务端已回收会话（超时长或已结束）时主动断开，客户端不会再向已关闭的 Agent 推音频
+                    if (TERMINAL_ERRORS.contains(ex.getMessage())) {
+                        try { if (session.isOpen()) session.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, ex.getMessage())); }
+                        catch (IOException e) { log.warn("close ws failed: {}", session.getId(), e); }
+                    }
                 },
                 () -> {
                     try { sendJson(session, Map.of("type", "stt_ready")); }
@@ -108,6 +115,7 @@ public class AudioStreamWebSocketHandler {
         try {
             // 检查是否为心跳ping消息
             if (text.contains("\"type\":\"ping\"")) {
+                if (session != null && ensureService() != null) audioStreamService.touch(session.getId());
                 // 响应pong消息
                 if (session != null && session.isOpen()) {
                     String pongResponse = "{\"type\":\"pong\",\"timestamp\":" + System.currentTimeMillis() + "}";
@@ -130,15 +138,15 @@ public class AudioStreamWebSocketHandler {
         String wsId = session != null ? session.getId() : null;
         log.info("WS closed: {} status={}", wsId, reason);
         if (ensureService() == null) {
-            log.warn("AudioStreamService not injected; skip flush/close for ws {}", wsId);
+            log.warn("AudioStreamService not injected; skip detach for ws {}", wsId);
             return;
         }
         if (wsId == null) {
-            log.warn("Session is null in onClose; skip flush/close");
+            log.warn("Session is null in onClose; skip detach");
             return;
         }
-        audioStreamService.flush(wsId);
-        audioStreamService.close(wsId);
+        // 断线不立即销毁 Agent：宽限期内同一 sessionId 重连可直接复用
+        audioStreamService.detach(wsId);
     }
 
     @OnError
@@ -147,14 +155,14 @@ public class AudioStreamWebSocketHandler {
         log.warn("WS error: {}", msg, throwable);
         String wsId = session != null ? session.getId() : null;
         if (ensureService() == null) {
-            log.warn("AudioStreamService not injected; skip close for ws {}", wsId);
+            log.warn("AudioStreamService not injected; skip detach for ws {}", wsId);
             return;
         }
         if (wsId == null) {
-            log.warn("Session is null in onError; skip close");
+            log.warn("Session is null in onError; skip detach");
             return;
         }
-        audioStreamService.close(wsId);
+        audioStreamService.detach(wsId);
     }
 
     private String parseQueryParam(Session session, String key) {
@@ -4,14 +4,36 @@ CREATE TABLE IF NOT EXISTS interview_session (
   status VARCHAR(32) NOT NULL,
   start_time TIMESTAMP NULL,
   end_time TIMESTAMP NULL,
-  config_json TEXT
+  config_json TEXT,
+  INDEX idx_status_end_time (status, end_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 热数据：按 created_at 月度分区（分区键须在主键内，故主键为 (id, created_at)）；
+-- 新月份分区由 MessageArchiveService 定期从 pmax 拆出，已归档清空的过期分区由其删除
 CREATE TABLE IF NOT EXISTS interview_message (
-  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  id BIGINT NOT NULL AUTO_INCREMENT,
   session_id VARCHAR(64) NOT NULL,
   role VARCHAR(16) NOT NULL,
   content TEXT,
-  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  INDEX idx_session_id (session_id)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
\ No newline at end of file
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id, created_at),
+  INDEX idx_session_id_id (session_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+PARTITION BY RANGE COLUMNS (created_at) (
+  PARTITION p0 VALUES LESS THAN ('2026-10-01'),
+  PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+  PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+  PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+  PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- 冷数据：已结束且超过保留期的会话整体搬入，压缩行格式
+CREATE TABLE IF NOT EXISTS interview_message_archive (
+  id BIGINT NOT NULL PRIMARY KEY,
+  session_id VARCHAR(64) NOT NULL,
+  role VARCHAR(16) NOT NULL,
+  content TEXT,
+  created_at DATETIME NOT NULL,
+  archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  INDEX idx_session_id_id (session_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
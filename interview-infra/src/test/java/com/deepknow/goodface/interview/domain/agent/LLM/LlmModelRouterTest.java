@@ -0,0 +1,58 @@
+package com.deepknow.goodface.interview.domain.agent.LLM;
+
+import com.deepknow.goodface.interview.domain.agent.LlmOperation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LlmModelRouterTest {
+    private static final LlmOperation OP = LlmOperation.EXTRACT_QUESTION;
+
+    // 延迟窗口进程内共享，每个用例使用独立的模型名
+    private final String fast = "fast-" + UUID.randomUUID();
+    private final String slow = "slow-" + UUID.randomUUID();
+    private final LlmModelRouter router = new LlmModelRouter(Arrays.asList(fast, slow), slow,
+            Collections.singletonMap(OP, slow), slo(1000));
+
+    @Test
+    void breachingPrimaryFallsBackToFasterCandidate() {
+        for (int i = 0; i < 20; i++) router.record(OP, slow, 3000, true);
+        for (int i = 0; i < 20; i++) router.record(OP, fast, 200, true);
+
+        assertEquals(fast, router.select(OP));
+    }
+
+    @Test
+    void probeWithinSloRestoresPrimaryWithoutWaitingForTheWindow() {
+        for (int i = 0; i < 128; i++) router.record(OP, slow, 3000, true);
+        for (int i = 0; i < 20; i++) router.record(OP, fast, 200, true);
+        assertEquals(fast, router.select(OP));
+
+        router.record(OP, slow, 400, true);
+
+        assertEquals(slow, router.select(OP));
+    }
+
+    @Test
+    void probeOutsideSloKeepsFallback() {
+        for (int i = 0; i < 20; i++) router.record(OP, slow, 3000, true);
+        for (int i = 0; i < 20; i++) router.record(OP, fast, 200, true);
+
+        router.record(OP, slow, 2500, true);
+        router.record(OP, slow, 400, false);
+
+        assertEquals(fast, router.select(OP));
+    }
+
+    private static Map<LlmOperation, Integer> slo(int millis) {
+        Map<LlmOperation, Integer> m = new EnumMap<>(LlmOperation.class);
+        m.put(OP, millis);
+        return m;
+    }
+}
@@ -0,0 +1,113 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AgentStateCodecTest {
+
+    @Test
+    void roundTripKeepsAllFields() throws Exception {
+        Map<String, String> facts = new LinkedHashMap<>();
+        facts.put("岗位", "后端");
+        facts.put("年限", "5 年");
+        AgentStateSnapshot in = new AgentStateSnapshot("Redis 的持久化机制有哪些？",
+                Arrays.asList("介绍一下你自己", "Redis 的持久化机制有哪些？"), Arrays.asList("好的", "我先说 RDB"),
+                "补充：AOF 重写", facts, Collections.singletonList("我先说 RDB"), 1234567L,
+                Arrays.asList("介绍一下你自己", "Redis 的持久化机制有哪些？"));
+
+        AgentStateSnapshot out = AgentStateCodec.decode(AgentStateCodec.encode(in));
+
+        assertEquals(in.getLastQuestion(), out.getLastQuestion());
+        assertEquals(in.getRecentQuestions(), out.getRecentQuestions());
+        assertEquals(in.getRecentUtterances(), out.getRecentUtterances());
+        assertEquals(in.getElaboration(), out.getElaboration());
+        assertEquals(in.getFacts(), out.getFacts());
+        assertEquals(in.getRecentCommitted(), out.getRecentCommitted());
+        assertEquals(in.getUpdatedAtMillis(), out.getUpdatedAtMillis());
+        assertEquals(in.getQuestionHistory(), out.getQuestionHistory());
+    }
+
+    @Test
+    void nullFieldsSurviveRoundTrip() throws Exception {
+        Map<String, String> facts = new LinkedHashMap<>();
+        facts.put("项目", null);
+        AgentStateSnapshot out = AgentStateCodec.decode(AgentStateCodec.encode(
+                new AgentStateSnapshot(null, null, Arrays.asList("a", null), null, facts, null, 0L, null)));
+
+        assertNull(out.getLastQuestion());
+        assertEquals(Arrays.asList("a", null), out.getRecentUtterances());
+        assertEquals("", out.getElaboration());
+        assertNull(out.getFacts().get("项目"));
+        assertEquals(Collections.emptyList(), out.getQuestionHistory());
+    }
+
+    @Test
+    void largeStateIsCompressedAndDecoded() throws Exception {
+        List<String> history = new ArrayList<>();
+        for (int i = 0; i < 200; i++) history.add("第 " + i + " 个问题：说说你对分布式事务的理解");
+        byte[] bytes = AgentStateCodec.encode(new AgentStateSnapshot("q", null, null, null, null, null, 1L, history));
+
+        assertEquals(1, bytes[1]);
+        assertEquals(history, AgentStateCodec.decode(bytes).getQuestionHistory());
+    }
+
+    @Test
+    void decodesVersion1WithoutHistory() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(1);
+        bytes.write(0);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, "上一个问题");
+            out.writeShort(0);
+            out.writeShort(0);
+            writeString(out, "");
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeLong(42L);
+        }
+
+        AgentStateSnapshot out = AgentStateCodec.decode(bytes.toByteArray());
+
+        assertEquals("上一个问题", out.getLastQuestion());
+        assertEquals(42L, out.getUpdatedAtMillis());
+        assertEquals(Collections.emptyList(), out.getQuestionHistory());
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        assertThrows(java.io.IOException.class, () -> AgentStateCodec.decode(new byte[]{9, 0, 0}));
+    }
+
+    @Test
+    void countsAboveShortRangeAreCappedKeepingLatest() throws Exception {
+        List<String> history = new ArrayList<>();
+        for (int i = 0; i < AgentStateCodec.MAX_COUNT + 10; i++) history.add(Integer.toString(i));
+
+        List<String> out = AgentStateCodec.decode(AgentStateCodec.encode(
+                new AgentStateSnapshot("q", null, null, null, null, null, 1L, history))).getQuestionHistory();
+
+        assertEquals(AgentStateCodec.MAX_COUNT, out.size());
+        assertEquals("10", out.get(0));
+        assertEquals(history.get(history.size() - 1), out.get(out.size() - 1));
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws Exception {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+}
@@ -0,0 +1,40 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryAgentStateStoreTest {
+
+    @Test
+    void expiredStateIsNotReturned() throws Exception {
+        InMemoryAgentStateStore store = new InMemoryAgentStateStore(20, 10);
+        store.save("s1", snapshot("q1"));
+        assertNotNull(store.load("s1"));
+
+        Thread.sleep(40);
+        assertNull(store.load("s1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void sizeIsBoundedEvictingOldest() throws Exception {
+        InMemoryAgentStateStore store = new InMemoryAgentStateStore(60_000, 2);
+        store.save("s1", snapshot("q1"));
+        Thread.sleep(2);
+        store.save("s2", snapshot("q2"));
+        Thread.sleep(2);
+        store.save("s3", snapshot("q3"));
+
+        assertEquals(2, store.size());
+        assertNull(store.load("s1"));
+        assertEquals("q3", store.load("s3").getLastQuestion());
+    }
+
+    private static AgentStateSnapshot snapshot(String lastQuestion) {
+        return new AgentStateSnapshot(lastQuestion, null, null, null, null, null, 1L, null);
+    }
+}
@@ -0,0 +1,125 @@
+package com.deepknow.goodface.interview.domain.agent.state;
+
+import com.deepknow.goodface.interview.domain.agent.AgentStateSnapshot;
+import com.deepknow.goodface.interview.domain.agent.AgentStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindAgentStateStoreTest {
+    private final CountingStore backend = new CountingStore();
+    private WriteBehindAgentStateStore store;
+
+    @AfterEach
+    void close() {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void writesWithinDelayAreCoalesced() throws Exception {
+        store = new WriteBehindAgentStateStore(backend, 50);
+        store.save("s1", snapshot("q1"));
+        store.save("s1", snapshot("q2"));
+        store.save("s1", snapshot("q3"));
+
+        awaitSaves(1);
+        Thread.sleep(100);
+        assertEquals(1, backend.saves.get());
+        assertEquals("q3", backend.load("s1").getLastQuestion());
+    }
+
+    @Test
+    void pendingWriteIsReadBack() {
+        store = new WriteBehindAgentStateStore(backend, 10_000);
+        store.save("s1", snapshot("q1"));
+
+        assertEquals("q1", store.load("s1").getLastQuestion());
+        assertNull(backend.load("s1"));
+    }
+
+    @Test
+    void deleteDropsPendingWrite() throws Exception {
+        store = new WriteBehindAgentStateStore(backend, 50);
+        store.save("s1", snapshot("q1"));
+        store.delete("s1");
+
+        Thread.sleep(150);
+        assertEquals(0, backend.saves.get());
+        assertNull(store.load("s1"));
+        assertNull(backend.load("s1"));
+    }
+
+    @Test
+    void deleteDuringFlushWinsOverTheFlushedSnapshot() throws Exception {
+        store = new WriteBehindAgentStateStore(backend, 0);
+        backend.blockSaves();
+        store.save("s1", snapshot("q1"));
+        assertTrue(backend.saveStarted.await(1, TimeUnit.SECONDS));
+
+        store.delete("s1");
+        backend.release.countDown();
+
+        awaitDeletes(1);
+        assertNull(backend.load("s1"));
+        assertNull(store.load("s1"));
+    }
+
+    private void awaitSaves(int n) throws InterruptedException {
+        for (int i = 0; i < 100 && backend.saves.get() < n; i++) Thread.sleep(10);
+        assertEquals(n, backend.saves.get());
+    }
+
+    private void awaitDeletes(int n) throws InterruptedException {
+        for (int i = 0; i < 100 && backend.deletes.get() < n; i++) Thread.sleep(10);
+        assertEquals(n, backend.deletes.get());
+    }
+
+    private static AgentStateSnapshot snapshot(String lastQuestion) {
+        return new AgentStateSnapshot(lastQuestion, null, null, null, null, null, System.currentTimeMillis(), null);
+    }
+
+    private static final class CountingStore implements AgentStateStore {
+        private final InMemoryAgentStateStore delegate = new InMemoryAgentStateStore(60_000, 100);
+        final AtomicInteger saves = new AtomicInteger();
+        final AtomicInteger deletes = new AtomicInteger();
+        final CountDownLatch saveStarted = new CountDownLatch(1);
+        volatile CountDownLatch release;
+
+        void blockSaves() {
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public AgentStateSnapshot load(String sessionId) {
+            return delegate.load(sessionId);
+        }
+
+        @Override
+        public void save(String sessionId, AgentStateSnapshot snapshot) {
+            saveStarted.countDown();
+            CountDownLatch r = release;
+            if (r != null) {
+                try {
+                    r.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            delegate.save(sessionId, snapshot);
+            saves.incrementAndGet();
+        }
+
+        @Override
+        public void delete(String sessionId) {
+            delegate.delete(sessionId);
+            deletes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import com.deepknow.goodface.interview.domain.agent.strategy.RuleBasedQuestionClassifier.Label;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 规则分类器在黄金集上的直判质量：直答（判为问题、跳过提取）与跳过（判为非问题、跳过 LLM）两类分别校验准确率与召回率下限。
+ * 阈值与 detector.* 默认配置一致；下限略低于当前实测值，规则回退时失败。
+ */
+class QuestionDetectionGoldenSetTest {
+    private static final double DIRECT_MIN_PRECISION = 0.95;
+    private static final double DIRECT_MIN_RECALL = 0.2;
+    // 问题被误判为非问题会直接丢失问题卡片，跳过准确率不允许出错
+    private static final double SKIP_MIN_PRECISION = 1.0;
+    private static final double SKIP_MIN_RECALL = 0.85;
+
+    private static int questions;
+    private static int nonQuestions;
+    private static int directTrue;
+    private static int directFalse;
+    private static int skipTrue;
+    private static int skipFalse;
+
+    @BeforeAll
+    static void classifyGoldenSet() throws Exception {
+        RuleBasedQuestionClassifier classifier = new RuleBasedQuestionClassifier(0.8, 0.15);
+        for (String[] s : load()) {
+            boolean isQuestion = "Q".equals(s[0]);
+            if (isQuestion) questions++; else nonQuestions++;
+            Label label = classifier.classify(s[1]).label;
+            if (label == Label.QUESTION) {
+                if (isQuestion) directTrue++; else directFalse++;
+            } else if (label == Label.NOT_QUESTION) {
+                if (isQuestion) skipFalse++; else skipTrue++;
+            }
+        }
+    }
+
+    @Test
+    void directAnswerMeetsPrecisionAndRecall() {
+        assertAtLeast("direct precision", ratio(directTrue, directTrue + directFalse), DIRECT_MIN_PRECISION);
+        assertAtLeast("direct recall", ratio(directTrue, questions), DIRECT_MIN_RECALL);
+    }
+
+    @Test
+    void skipMeetsPrecisionAndRecall() {
+        assertAtLeast("skip precision", ratio(skipTrue, skipTrue + skipFalse), SKIP_MIN_PRECISION);
+        assertAtLeast("skip recall", ratio(skipTrue, nonQuestions), SKIP_MIN_RECALL);
+    }
+
+    private static void assertAtLeast(String name, double actual, double min) {
+        assertTrue(actual >= min, String.format("%s=%.3f below %.3f", name, actual, min));
+    }
+
+    private static double ratio(int n, int d) {
+        return d == 0 ? 1.0 : (double) n / d;
+    }
+
+    private static List<String[]> load() throws Exception {
+        List<String[]> out = new ArrayList<>();
+        try (InputStream is = QuestionDetectionGoldenSetTest.class.getResourceAsStream("/golden/question-detection.tsv")) {
+            assertNotNull(is, "golden set not found on classpath");
+            BufferedReader r = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            String raw;
+            while ((raw = r.readLine()) != null) {
+                String line = raw.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\t", 2);
+                if (parts.length == 2 && ("Q".equals(parts[0]) || "N".equals(parts[0]))) out.add(parts);
+            }
+        }
+        assertTrue(out.size() >= 50, "golden set too small: " + out.size());
+        return out;
+    }
+}
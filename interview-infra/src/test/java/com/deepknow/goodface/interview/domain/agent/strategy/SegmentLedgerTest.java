@@ -0,0 +1,40 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import com.deepknow.goodface.interview.domain.agent.Deadline;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SegmentLedgerTest {
+    private final SegmentLedger ledger = new SegmentLedger();
+
+    @Test
+    void committedPartialCoversFinal() {
+        ledger.commit(ledger.open(SegmentLedger.Source.PARTIAL, "你好。", 100, Deadline.NONE));
+        assertEquals("请介绍一下你的项目", ledger.uncoveredByPartials("你好。请介绍一下你的项目", 200));
+    }
+
+    @Test
+    void skippedPartialDoesNotCoverFinal() {
+        ledger.skip(ledger.open(SegmentLedger.Source.PARTIAL, "请介绍一下你自己", 100, Deadline.NONE), "too_short");
+        assertEquals("请介绍一下你自己", ledger.uncoveredByPartials("请介绍一下你自己", 200));
+    }
+
+    @Test
+    void coverageStopsAtFirstUnanalyzedPartial() {
+        ledger.commit(ledger.open(SegmentLedger.Source.PARTIAL, "你好。", 100, Deadline.NONE));
+        ledger.skip(ledger.open(SegmentLedger.Source.PARTIAL, "请问", 150, Deadline.NONE), "expired");
+        ledger.commit(ledger.open(SegmentLedger.Source.PARTIAL, "你做过什么项目", 160, Deadline.NONE));
+        assertEquals("请问你做过什么项目", ledger.uncoveredByPartials("你好。请问你做过什么项目", 200));
+    }
+
+    @Test
+    void partialCommittedBeforeFinalButOpenedAfterStillBelongsToThatSentence() {
+        // 软端点在 final 之前触发、排队到 final 之后才登记
+        SegmentLedger.Segment late = ledger.open(SegmentLedger.Source.PARTIAL, "你好。", 100, Deadline.NONE);
+        ledger.commit(late);
+        assertEquals("", ledger.uncoveredByPartials("你好。", 120));
+        // 下一句不受影响
+        assertEquals("下一句", ledger.uncoveredByPartials("下一句", 300));
+    }
+}
@@ -0,0 +1,62 @@
+package com.deepknow.goodface.interview.domain.agent.strategy;
+
+import com.deepknow.goodface.interview.domain.agent.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SttSegmentAssemblerTest {
+    private static final int SOFT_ENDPOINT_MILLIS = 100;
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("assembler-test", 5, 64, Runnable::run);
+    private final List<String> segments = Collections.synchronizedList(new ArrayList<>());
+    private final List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+    private final SttSegmentAssembler assembler = new SttSegmentAssembler(timer,
+            AdaptiveEndpointer.fixed(SOFT_ENDPOINT_MILLIS, 0), 200, true, segments::add, errors::add);
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void earlyCommitsAtTerminalPunctuation() throws Exception {
+        assembler.onPartial("你好");
+        assembler.onPartial("你好。请介绍");
+        assertEquals(Collections.singletonList("你好。"), segments);
+        awaitSegments(2);
+        assertEquals("请介绍", segments.get(1));
+    }
+
+    @Test
+    void shrinkingHypothesisBelowCommitPointStartsNewSentence() throws Exception {
+        assembler.onPartial("我做过后端开发。");
+        assembler.onPartial("我负责");
+        awaitSegments(2);
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals("我做过后端开发。", segments.get(0));
+        assertEquals("我负责", segments.get(1));
+    }
+
+    @Test
+    void revisionBeforeCommitPointKeepsRevisedCharacters() throws Exception {
+        assembler.onPartial("你好。请介绍");
+        assembler.onPartial("你好请你介绍一下项目");
+        awaitSegments(2);
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals("你好。", segments.get(0));
+        assertEquals("请你介绍一下项目", segments.get(1));
+    }
+
+    private void awaitSegments(int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20L * SOFT_ENDPOINT_MILLIS;
+        while (segments.size() < n && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(n, segments.size(), segments.toString());
+    }
+}
@@ -0,0 +1,49 @@
+package com.deepknow.goodface.interview.service;
+
+import com.deepknow.goodface.interview.api.TranscriptQueryService;
+import com.deepknow.goodface.interview.api.model.TranscriptMessage;
+import com.deepknow.goodface.interview.api.model.TranscriptPage;
+import com.deepknow.goodface.interview.api.request.TranscriptPageRequest;
+import com.deepknow.goodface.interview.domain.session.model.InterviewMessage;
+import com.deepknow.goodface.interview.domain.session.service.TranscriptService;
+import org.apache.dubbo.config.annotation.DubboService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DubboService
+@Service
+public class TranscriptQueryServiceImpl implements TranscriptQueryService {
+    private final TranscriptService transcriptService;
+
+    public TranscriptQueryServiceImpl(TranscriptService transcriptService) {
+        this.transcriptService = transcriptService;
+    }
+
+    @Override
+    public TranscriptPage listMessages(TranscriptPageRequest req) {
+        if (req == null || req.getSessionId() == null) throw new IllegalArgumentException("sessionId is required");
+        int size = req.getPageSize() == null || req.getPageSize() <= 0
+                ? TranscriptPageRequest.DEFAULT_PAGE_SIZE
+                : Math.min(req.getPageSize(), TranscriptPageRequest.MAX_PAGE_SIZE);
+        // 多取一条用于判断是否还有下一页
+        List<InterviewMessage> rows = transcriptService.listPage(req.getSessionId(), req.getAfterId(), size + 1);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+
+        TranscriptPage page = new TranscriptPage();
+        page.setSessionId(req.getSessionId());
+        page.setMessages(rows.stream().map(m -> {
+            TranscriptMessage t = new TranscriptMessage();
+            t.setId(m.getId());
+            t.setRole(m.getRole());
+            t.setContent(m.getContent());
+            t.setCreatedAt(m.getCreatedAt());
+            return t;
+        }).collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        page.setNextAfterId(rows.isEmpty() ? req.getAfterId() : rows.get(rows.size() - 1).getId());
+        return page;
+    }
+}